@@ -0,0 +1,80 @@
+package com.example.backendpractice.jmh;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 比较两次 JMH 运行的 JSON 结果（-rf json 输出）
+ * 用法：JmhResultComparer 基线.json 本次.json [阈值百分比，默认 10]
+ * 按“基准名 + 参数”对齐，打印两次的得分和变化百分比；
+ * 任意一项变慢超过阈值（且超出两次误差之和）时以退出码 1 结束，可以在 CI 中使用
+ */
+public final class JmhResultComparer {
+
+    private JmhResultComparer() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("用法: JmhResultComparer <基线.json> <本次.json> [阈值百分比]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        Map<String, JsonNode> baseline = load(new File(args[0]));
+        Map<String, JsonNode> current = load(new File(args[1]));
+
+        boolean regressed = false;
+        System.out.printf("%-80s %14s %14s %9s%n", "基准", "基线", "本次", "变化");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode now = entry.getValue().path("primaryMetric");
+            JsonNode before = baseline.containsKey(entry.getKey())
+                    ? baseline.get(entry.getKey()).path("primaryMetric") : null;
+            String unit = now.path("scoreUnit").asText();
+            if (before == null) {
+                System.out.printf("%-80s %14s %14.3f %9s%n", entry.getKey(), "-", now.path("score").asDouble(), "新增");
+                continue;
+            }
+
+            double oldScore = before.path("score").asDouble();
+            double newScore = now.path("score").asDouble();
+            double change = oldScore == 0 ? 0 : (newScore - oldScore) / oldScore * 100;
+            // 吞吐量模式（ops/时间）分数越大越好，其余模式（时间/op）越小越好
+            boolean higherIsBetter = unit.startsWith("ops/");
+            double worse = higherIsBetter ? -change : change;
+            double noise = before.path("scoreError").asDouble(0) + now.path("scoreError").asDouble(0);
+            boolean significant = Math.abs(newScore - oldScore) > noise;
+            String flag = "";
+            if (worse > threshold && significant) {
+                flag = "  <-- 变慢";
+                regressed = true;
+            }
+            System.out.printf("%-80s %14.3f %14.3f %+8.1f%%%s%n", entry.getKey() + " (" + unit + ")",
+                    oldScore, newScore, change, flag);
+        }
+        if (regressed) {
+            System.exit(1);
+        }
+    }
+
+    // 基准名 + 参数 -> 结果
+    private static Map<String, JsonNode> load(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+            JsonNode params = result.path("params");
+            Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> param = fields.next();
+                key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.backendpractice.jmh;
+
+import com.example.backendpractice.dto.UserInfo;
+import com.example.backendpractice.entity.User;
+import com.example.backendpractice.util.JwtUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson 序列化基准：用户列表（GET /api/users）和登录响应（POST /api/auth/login）
+ * ObjectMapper 的配置与 Spring Boot 默认一致（自动注册 JavaTimeModule）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    @Param({"20", "100", "1000"})
+    public int users;
+
+    private ObjectMapper objectMapper;
+    private List<User> userList;
+    private User loginUser;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder().findAndAddModules().build();
+        userList = new ArrayList<>(users);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < users; i++) {
+            userList.add(new User("user" + i, "user" + i + "@example.com",
+                    "$2a$10$abcdefghijklmnopqrstuuJ1a2b3c4d5e6f7g8h9i0j1k2l3m4n5o", "USER", true, now));
+        }
+        loginUser = userList.get(0);
+        token = new JwtUtil().generateToken(loginUser.getUsername());
+    }
+
+    @Benchmark
+    public byte[] userList() throws Exception {
+        return objectMapper.writeValueAsBytes(userList);
+    }
+
+    // 与 AuthController.login 构造的响应相同
+    @Benchmark
+    public byte[] loginResponse() throws Exception {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "登录成功");
+        response.put("token", token);
+        response.put("user", UserInfo.from(loginUser));
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.backendpractice.jmh;
+
+import com.example.backendpractice.entity.User;
+import com.example.backendpractice.perf.BenchmarkOptions;
+import com.example.backendpractice.perf.PerfApplication;
+import com.example.backendpractice.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * UserService 增删改查基准（完整 Spring 上下文 + H2 内存库）
+ * 测的是服务层加 JPA 的开销，不包含 HTTP；createAndDelete 中包含一次 BCrypt，
+ * 所以密码 cost 调成 4，避免结果被哈希时间淹没
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class UserServiceBenchmark {
+
+    private static final int SEEDED_USERS = 10_000;
+
+    private PerfApplication application;
+    private UserService userService;
+    private List<Long> ids;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        application = PerfApplication.start(new BenchmarkOptions(new String[0]), Map.of(
+                "app.security.bcrypt.strength", 4));
+        ids = application.seedUsers(SEEDED_USERS, "benchPassword123");
+        userService = application.getContext().getBean(UserService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        application.close();
+    }
+
+    private Long randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    @Benchmark
+    public Object getUserById() {
+        return userService.getUserById(randomId());
+    }
+
+    @Benchmark
+    public Object getUsersPage() {
+        return userService.getUsersPage(null, 20, "id", "asc");
+    }
+
+    @Benchmark
+    public Object getUserFieldsPage() {
+        return userService.getUserFieldsPage(null, 20, "id", "asc", "id,username");
+    }
+
+    @Benchmark
+    public User updateUser() {
+        Long id = randomId();
+        // 不带密码（PUT 不带密码时保留原密码，不做 BCrypt、不撤销 Token），只改用户名，保证每次都有一条 UPDATE
+        User update = new User();
+        update.setUsername("bench" + sequence.incrementAndGet());
+        update.setRole("USER");
+        update.setEnabled(true);
+        return userService.updateUser(id, update);
+    }
+
+    @Benchmark
+    public void createAndDelete() {
+        long n = sequence.incrementAndGet();
+        User user = new User();
+        user.setUsername("jmh" + n);
+        user.setEmail("jmh" + n + "@example.com");
+        user.setPassword("benchPassword123");
+        User saved = userService.createUser(user);
+        userService.deleteUser(saved.getId());
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.backendpractice.audit;
+
+/**
+ * 一条审计事件（不可变）
+ * sequence 由写入线程按写入顺序分配，从 1 开始连续递增；提交到队列时为 0
+ * @param timestamp 事件发生的时间（毫秒）
+ * @param outcome 结果，如 SUCCESS、BAD_PASSWORD、THROTTLED
+ * @param userId 相关用户的 ID，可以为 null
+ * @param username 相关用户的用户名，可以为 null
+ * @param actor 执行操作的已登录用户的 ID（认证主体名），匿名请求为 null
+ * @param clientIp 客户端 IP（只有登录事件记录），可以为 null
+ * @param detail 补充信息，可以为 null
+ */
+public record AuditEvent(long sequence, long timestamp, AuditEventType type, String outcome,
+                         Long userId, String username, String actor, String clientIp, String detail) {
+
+    public static AuditEvent of(AuditEventType type, String outcome, Long userId, String username,
+                                String actor, String clientIp, String detail) {
+        return new AuditEvent(0, System.currentTimeMillis(), type, outcome, userId, username, actor, clientIp, detail);
+    }
+
+    AuditEvent withSequence(long sequence) {
+        return new AuditEvent(sequence, timestamp, type, outcome, userId, username, actor, clientIp, detail);
+    }
+}
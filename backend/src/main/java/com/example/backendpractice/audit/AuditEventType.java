@@ -0,0 +1,35 @@
+package com.example.backendpractice.audit;
+
+/**
+ * 审计事件类型
+ * code 写入审计日志文件，已经使用的值不能修改
+ */
+public enum AuditEventType {
+
+    USER_CREATE(1),
+    USER_UPDATE(2),
+    USER_DELETE(3),
+    LOGIN(4);
+
+    private final byte code;
+
+    AuditEventType(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte code() {
+        return code;
+    }
+
+    /**
+     * @throws IllegalArgumentException 未知的类型编码
+     */
+    public static AuditEventType fromCode(byte code) {
+        for (AuditEventType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("未知的审计事件类型: " + code);
+    }
+}
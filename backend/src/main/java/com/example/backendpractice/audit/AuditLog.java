@@ -0,0 +1,243 @@
+package com.example.backendpractice.audit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.example.backendpractice.audit.AuditRecordCodec.END_OF_SEGMENT;
+import static com.example.backendpractice.audit.AuditRecordCodec.FRAME_HEADER;
+import static com.example.backendpractice.audit.AuditRecordCodec.MAX_PAYLOAD;
+
+/**
+ * 只追加的审计日志（写入端）
+ * 日志由多个固定大小的段文件组成，文件名是段中第一条记录的序号（00000000000000000001.audit），
+ * 每个段创建时一次性映射到内存（MappedByteBuffer），追加一条记录只是内存拷贝，没有系统调用；
+ * 段写满时写入段结束标记，再创建下一个段
+ * 段文件格式：[int MAGIC][int VERSION][long 第一条记录的序号][帧][帧]...，帧格式见 AuditRecordCodec
+ * 写入一帧时先写内容和 CRC，再写长度：长度不为 0 的帧一定是完整的，读取端不会读到写了一半的记录
+ * 打开时扫描最后一个段，找到最后一条 CRC 正确的记录，从它后面继续写（崩溃时写了一半的记录被清零丢弃）
+ * 不是线程安全的：只能由一个写入线程调用 append / flush（见 AuditService）
+ */
+public final class AuditLog implements Closeable {
+
+    static final int MAGIC = 0x41554454;    // "AUDT"
+    static final int VERSION = 1;
+    static final int SEGMENT_HEADER = 16;
+    static final String SUFFIX = ".audit";
+
+    // 一个段至少要能放下一条最大的记录
+    public static final int MIN_SEGMENT_SIZE = 1024 * 1024;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ByteBuffer payload = ByteBuffer.allocate(MAX_PAYLOAD);
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private int position;
+    private int flushedPosition;
+    private long nextSequence;
+
+    private AuditLog(Path directory, int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * 打开（或创建）审计日志目录
+     * @param segmentSize 每个段文件的大小（字节），不能小于 MIN_SEGMENT_SIZE
+     */
+    public static AuditLog open(Path directory, int segmentSize) throws IOException {
+        if (segmentSize < MIN_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("审计日志段大小不能小于 " + MIN_SEGMENT_SIZE + " 字节");
+        }
+        Files.createDirectories(directory);
+        AuditLog log = new AuditLog(directory, segmentSize);
+        List<Path> segments = segments(directory);
+        if (segments.isEmpty()) {
+            log.createSegment(1);
+        }
+        else {
+            log.recover(segments.get(segments.size() - 1));
+        }
+        return log;
+    }
+
+    /**
+     * 追加一批事件，按顺序分配序号；只写入内存映射，不保证落盘（见 flush）
+     * @return 这批事件中最后一条的序号
+     */
+    public long append(List<AuditEvent> events) throws IOException {
+        for (AuditEvent event : events) {
+            int length = AuditRecordCodec.encode(event.withSequence(nextSequence), payload);
+            // 始终给段结束标记留出 4 个字节
+            if (position + FRAME_HEADER + length + 4 > segmentSize) {
+                rollover();
+            }
+            segment.put(position + FRAME_HEADER, payload, 0, length);
+            segment.putInt(position + 4, AuditRecordCodec.crc(payload));
+            // 内容和 CRC 先于长度对读取线程可见
+            VarHandle.releaseFence();
+            segment.putInt(position, length);
+            position += FRAME_HEADER + length;
+            nextSequence++;
+        }
+        return nextSequence - 1;
+    }
+
+    /**
+     * 把上次 flush 之后追加的记录写到磁盘（只刷新这一段范围的页）
+     */
+    public void flush() {
+        if (position > flushedPosition) {
+            segment.force(flushedPosition, position - flushedPosition);
+            flushedPosition = position;
+        }
+    }
+
+    /**
+     * 最后一条已追加记录的序号（还没有记录时为 0）
+     */
+    public long lastSequence() {
+        return nextSequence - 1;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+    private void rollover() throws IOException {
+        segment.putInt(position, END_OF_SEGMENT);
+        position += 4;
+        flush();
+        channel.close();
+        createSegment(nextSequence);
+    }
+
+    private void createSegment(long baseSequence) throws IOException {
+        Path path = directory.resolve(fileName(baseSequence));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segment.putInt(0, MAGIC);
+        segment.putInt(4, VERSION);
+        segment.putLong(8, baseSequence);
+        position = SEGMENT_HEADER;
+        flushedPosition = 0;
+        flush();
+        nextSequence = baseSequence;
+    }
+
+    /**
+     * 从最后一个段中找到最后一条完整的记录
+     */
+    private void recover(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        int size = (int) channel.size();
+        if (size < SEGMENT_HEADER) {
+            throw new IOException("审计日志段文件不完整: " + path);
+        }
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        if (segment.getInt(0) != MAGIC || segment.getInt(4) != VERSION) {
+            throw new IOException("不是审计日志段文件: " + path);
+        }
+        long baseSequence = segment.getLong(8);
+        int pos = SEGMENT_HEADER;
+        long lastSequence = baseSequence - 1;
+        boolean sealed = false;
+        while (pos + FRAME_HEADER <= size) {
+            int length = segment.getInt(pos);
+            if (length == 0) {
+                break;
+            }
+            if (length == END_OF_SEGMENT) {
+                sealed = true;
+                break;
+            }
+            AuditEvent event = readFrame(segment, pos, length);
+            if (event == null) {
+                // 崩溃时写了一半的记录：清零，之后从这里继续写
+                int end = (int) Math.min(size, (long) pos + FRAME_HEADER + Math.max(length, 0));
+                for (int i = pos; i < end; i++) {
+                    segment.put(i, (byte) 0);
+                }
+                segment.force(pos, end - pos);
+                break;
+            }
+            lastSequence = event.sequence();
+            pos += FRAME_HEADER + length;
+        }
+
+        if (sealed || size != segmentSize) {
+            // 段已写满（或段大小配置改变了），从下一个段开始写；读取端靠段结束标记切换到下一个段
+            if (!sealed && pos + 4 <= size) {
+                segment.putInt(pos, END_OF_SEGMENT);
+                segment.force(pos, 4);
+            }
+            channel.close();
+            createSegment(lastSequence + 1);
+            return;
+        }
+        position = pos;
+        flushedPosition = pos;
+        nextSequence = lastSequence + 1;
+    }
+
+    /**
+     * 读取 buffer 中 pos 处的一帧，长度越界或 CRC 不一致时返回 null
+     */
+    static AuditEvent readFrame(ByteBuffer buffer, int pos, int length) {
+        if (length < 0 || length > MAX_PAYLOAD || (long) pos + FRAME_HEADER + length > buffer.limit()) {
+            return null;
+        }
+        ByteBuffer frame = buffer.slice(pos + FRAME_HEADER, length);
+        if (AuditRecordCodec.crc(frame) != buffer.getInt(pos + 4)) {
+            return null;
+        }
+        try {
+            return AuditRecordCodec.decode(frame);
+        }
+        catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 目录中的所有段文件，按第一条记录的序号升序排列
+     */
+    static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = new ArrayList<>(files
+                    .filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+                    .toList());
+            segments.sort((a, b) -> Long.compare(baseSequence(a), baseSequence(b)));
+            return segments;
+        }
+    }
+
+    static long baseSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    static String fileName(long baseSequence) {
+        return String.format("%020d%s", baseSequence, SUFFIX);
+    }
+}
@@ -0,0 +1,281 @@
+package com.example.backendpractice.audit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+import static com.example.backendpractice.audit.AuditRecordCodec.END_OF_SEGMENT;
+import static com.example.backendpractice.audit.AuditRecordCodec.FRAME_HEADER;
+import static com.example.backendpractice.audit.AuditRecordCodec.MAX_PAYLOAD;
+
+/**
+ * 审计日志的读取端，可以和写入端（同一进程或其他进程）同时使用
+ * - replay / read：从指定序号开始读出目前已经写入的记录
+ * - tail：返回一个 Tailer，反复调用 poll 可以持续读取新写入的记录（跟随写入端切换段文件）
+ * 读取端用普通的文件读取（按块读入缓冲区），不映射段文件，Tailer 关闭后不占用内存映射；
+ * 写入端写入内存映射后，同一台机器上的读取端马上就能读到（还没有落盘的记录也能读到）
+ * 长度为 0 的位置表示还没有写入；长度不为 0 但 CRC 不一致的帧只会出现在崩溃后的文件末尾，
+ * 按"还没有写入"处理（写入端重新打开时会清零并覆盖它）
+ * 定位：序号小于起点的帧只读取帧头和序号就跳过，不校验 CRC 也不解码；
+ * 另外每 CHECKPOINT_INTERVAL 条记录记下一个检查点（序号 -> 段文件和位置），从中间开始读取时先跳到最近的检查点，
+ * 所以同一个 AuditLogReader 反复分页读取时，每次只需要跳过不到 CHECKPOINT_INTERVAL 条记录
+ */
+public final class AuditLogReader {
+
+    // 检查点间隔（条），检查点保存在内存中，每 10 亿条记录约 25 万个
+    static final int CHECKPOINT_INTERVAL = 4096;
+
+    // 读取缓冲区大小，单条记录更大时临时扩大
+    private static final int WINDOW_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final ConcurrentSkipListMap<Long, Checkpoint> checkpoints = new ConcurrentSkipListMap<>();
+
+    public AuditLogReader(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * 按顺序把序号 >= fromSequence 的已写入记录交给 consumer
+     * @return 下一条要读取的序号（可以作为下次 replay 的起点）
+     */
+    public long replay(long fromSequence, Consumer<AuditEvent> consumer) throws IOException {
+        try (Tailer tailer = tail(fromSequence)) {
+            List<AuditEvent> events;
+            while (!(events = tailer.poll(1024)).isEmpty()) {
+                events.forEach(consumer);
+            }
+            return tailer.nextSequence();
+        }
+    }
+
+    /**
+     * 读取序号 >= fromSequence 的最多 limit 条记录
+     */
+    public List<AuditEvent> read(long fromSequence, int limit) throws IOException {
+        try (Tailer tailer = tail(fromSequence)) {
+            return tailer.poll(limit);
+        }
+    }
+
+    /**
+     * 从 fromSequence 开始跟随日志，用完后需要 close
+     */
+    public Tailer tail(long fromSequence) {
+        return new Tailer(fromSequence);
+    }
+
+    /**
+     * 从文件的 position 处读满 buffer，文件不够长时读到文件末尾为止
+     */
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 检查点：序号为 key 的记录所在的段（第一条记录的序号）和帧的位置
+     */
+    private record Checkpoint(long segmentBase, long position) {
+    }
+
+    /**
+     * 持续读取新记录的游标（不是线程安全的）
+     */
+    public final class Tailer implements Closeable {
+
+        private long nextSequence;
+        private long segmentBase = -1;
+        private FileChannel channel;
+        private long position;
+        // 当前段中下一帧应有的序号，只有序号连续的帧才会不校验 CRC 直接跳过
+        private long expectedSequence;
+
+        // 缓冲区中是文件从 windowStart 开始的 window.limit() 个字节，windowStart 为 -1 表示缓冲区无效
+        private ByteBuffer window = ByteBuffer.allocate(WINDOW_SIZE);
+        private long windowStart = -1;
+
+        private Tailer(long fromSequence) {
+            this.nextSequence = Math.max(fromSequence, 1);
+        }
+
+        /**
+         * 读取最多 max 条新记录，没有新记录时返回空列表（不阻塞）
+         */
+        public List<AuditEvent> poll(int max) throws IOException {
+            List<AuditEvent> events = new ArrayList<>(Math.min(max, 1024));
+            while (events.size() < max) {
+                AuditEvent event = next();
+                if (event == null) {
+                    break;
+                }
+                events.add(event);
+                nextSequence = event.sequence() + 1;
+            }
+            return events;
+        }
+
+        /**
+         * 下一条要读取的序号
+         */
+        public long nextSequence() {
+            return nextSequence;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+            windowStart = -1;
+        }
+
+        /**
+         * 下一条序号 >= nextSequence 的记录，还没有写入时返回 null
+         */
+        private AuditEvent next() throws IOException {
+            if (channel == null && !openSegment()) {
+                return null;
+            }
+            while (true) {
+                if (!fill(FRAME_HEADER)) {
+                    return null;
+                }
+                int offset = (int) (position - windowStart);
+                int length = window.getInt(offset);
+                if (length == 0) {
+                    // 后面还没有写入，下次 poll 重新从文件读取
+                    windowStart = -1;
+                    return null;
+                }
+                if (length == END_OF_SEGMENT) {
+                    if (!nextSegment()) {
+                        windowStart = -1;
+                        return null;
+                    }
+                    continue;
+                }
+                if (length < Long.BYTES || length > MAX_PAYLOAD || !fill(FRAME_HEADER + length)) {
+                    windowStart = -1;
+                    return null;
+                }
+                offset = (int) (position - windowStart);
+                long sequence = window.getLong(offset + FRAME_HEADER);
+                if (sequence == expectedSequence && sequence < nextSequence) {
+                    // 起点之前的记录：只看序号，不校验 CRC 也不解码
+                    advance(sequence, length);
+                    continue;
+                }
+                AuditEvent event = AuditLog.readFrame(window, offset, length);
+                if (event == null) {
+                    windowStart = -1;
+                    return null;
+                }
+                advance(event.sequence(), length);
+                if (event.sequence() >= nextSequence) {
+                    return event;
+                }
+            }
+        }
+
+        /**
+         * 跳过当前帧，必要时记下检查点
+         */
+        private void advance(long sequence, int length) {
+            if (sequence % CHECKPOINT_INTERVAL == 0) {
+                checkpoints.putIfAbsent(sequence, new Checkpoint(segmentBase, position));
+            }
+            position += FRAME_HEADER + length;
+            expectedSequence = sequence + 1;
+        }
+
+        /**
+         * 保证缓冲区中有从 position 开始的 length 个字节，文件中没有这么多字节时返回 false
+         */
+        private boolean fill(int length) throws IOException {
+            if (windowStart >= 0 && position >= windowStart
+                    && position + length <= windowStart + window.limit()) {
+                return true;
+            }
+            if (window.capacity() < length) {
+                window = ByteBuffer.allocate(length);
+            }
+            window.clear();
+            readFully(channel, window, position);
+            window.flip();
+            windowStart = position;
+            return window.limit() >= length;
+        }
+
+        /**
+         * 打开包含 nextSequence 的段：有不大于 nextSequence 的检查点时从检查点开始，
+         * 否则从第一条记录序号不大于 nextSequence 的最后一个段的开头开始
+         */
+        private boolean openSegment() throws IOException {
+            Map.Entry<Long, Checkpoint> checkpoint = checkpoints.floorEntry(nextSequence);
+            if (checkpoint != null) {
+                Path path = directory.resolve(AuditLog.fileName(checkpoint.getValue().segmentBase()));
+                if (Files.exists(path) && open(path)) {
+                    position = checkpoint.getValue().position();
+                    expectedSequence = checkpoint.getKey();
+                    return true;
+                }
+            }
+
+            Path target = null;
+            for (Path path : AuditLog.segments(directory)) {
+                if (target == null || AuditLog.baseSequence(path) <= nextSequence) {
+                    target = path;
+                }
+            }
+            return target != null && open(target);
+        }
+
+        /**
+         * 切换到当前段之后的下一个段，写入端还没有创建它时返回 false（下次 poll 再试）
+         */
+        private boolean nextSegment() throws IOException {
+            for (Path path : AuditLog.segments(directory)) {
+                if (AuditLog.baseSequence(path) > segmentBase) {
+                    close();
+                    return open(path);
+                }
+            }
+            return false;
+        }
+
+        private boolean open(Path path) throws IOException {
+            FileChannel opened = FileChannel.open(path, StandardOpenOption.READ);
+            ByteBuffer header = ByteBuffer.allocate(AuditLog.SEGMENT_HEADER);
+            readFully(opened, header, 0);
+            int magic = header.hasRemaining() ? 0 : header.getInt(0);
+            if (magic != AuditLog.MAGIC) {
+                opened.close();
+                if (magic == 0) {
+                    // 写入端刚创建文件，还没有写段头
+                    return false;
+                }
+                throw new IOException("不是审计日志段文件: " + path);
+            }
+            channel = opened;
+            segmentBase = AuditLog.baseSequence(path);
+            position = AuditLog.SEGMENT_HEADER;
+            expectedSequence = segmentBase;
+            windowStart = -1;
+            return true;
+        }
+    }
+}
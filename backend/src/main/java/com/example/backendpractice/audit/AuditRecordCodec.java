@@ -0,0 +1,89 @@
+package com.example.backendpractice.audit;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * 审计日志的记录格式
+ * 每条记录是一个帧：[int 长度][int CRC32C][内容]，内容为
+ * [long sequence][long timestamp][byte type][outcome][userId][username][actor][clientIp][detail]
+ * - 字符串：short 字节数（-1 表示 null）+ UTF-8 字节，超过 MAX_STRING_BYTES 时截断
+ * - userId：byte 0 表示 null，1 后面跟 long
+ * 长度为 0 表示后面还没有写入，长度为 END_OF_SEGMENT 表示写入方已经切换到下一个段文件
+ */
+final class AuditRecordCodec {
+
+    static final int FRAME_HEADER = 8;
+    static final int END_OF_SEGMENT = -1;
+    static final int MAX_STRING_BYTES = Short.MAX_VALUE;
+    // 8 + 8 + 1 + 9 + 5 个字符串
+    static final int MAX_PAYLOAD = 26 + 5 * (2 + MAX_STRING_BYTES);
+
+    private AuditRecordCodec() {
+    }
+
+    /**
+     * 把事件内容写入 payload（从 position 0 开始），返回内容长度
+     */
+    static int encode(AuditEvent event, ByteBuffer payload) {
+        payload.clear();
+        payload.putLong(event.sequence());
+        payload.putLong(event.timestamp());
+        payload.put(event.type().code());
+        putString(payload, event.outcome());
+        if (event.userId() == null) {
+            payload.put((byte) 0);
+        }
+        else {
+            payload.put((byte) 1);
+            payload.putLong(event.userId());
+        }
+        putString(payload, event.username());
+        putString(payload, event.actor());
+        putString(payload, event.clientIp());
+        putString(payload, event.detail());
+        payload.flip();
+        return payload.remaining();
+    }
+
+    static AuditEvent decode(ByteBuffer payload) {
+        long sequence = payload.getLong();
+        long timestamp = payload.getLong();
+        AuditEventType type = AuditEventType.fromCode(payload.get());
+        String outcome = getString(payload);
+        Long userId = payload.get() == 0 ? null : payload.getLong();
+        String username = getString(payload);
+        String actor = getString(payload);
+        String clientIp = getString(payload);
+        String detail = getString(payload);
+        return new AuditEvent(sequence, timestamp, type, outcome, userId, username, actor, clientIp, detail);
+    }
+
+    static int crc(ByteBuffer payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, MAX_STRING_BYTES);
+        buffer.putShort((short) length);
+        buffer.put(bytes, 0, length);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
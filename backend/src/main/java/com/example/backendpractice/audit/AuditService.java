@@ -0,0 +1,222 @@
+package com.example.backendpractice.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 审计日志服务
+ * 业务线程调用 record / recordLogin 只把事件放进一个有界的无锁队列就返回，不做任何 IO；
+ * 一个后台写入线程（audit-writer）每次取出队列中的一批事件，写入内存映射的段文件（AuditLog），
+ * 整批写完后只刷盘一次（组提交）。队列空时写入线程休眠，业务线程放入事件后唤醒它
+ * 队列满时（写入跟不上或磁盘故障）业务线程最多等待 app.audit.offer-timeout，仍然放不进去就丢弃这条事件
+ * 并计数，不会因为审计日志阻塞业务请求
+ * 指标：audit.events（result=written / dropped）、audit.queue.size
+ */
+@Service
+public class AuditService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditService.class);
+
+    // 队列为空时写入线程最长休眠时间（唤醒信号丢失时的兜底）
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    // 队列满时业务线程每次重试前等待的时间
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final boolean enabled;
+    private final Path directory;
+    // 所有读取请求共用一个 AuditLogReader，分页读取时可以用上它记下的检查点
+    private final AuditLogReader reader;
+    private final int segmentSize;
+    private final int capacity;
+    private final int batchSize;
+    private final boolean fsync;
+    private final long offerTimeoutNanos;
+
+    private final Queue<AuditEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queueSize = new AtomicInteger();
+    private final Counter written;
+    private final Counter dropped;
+
+    private AuditLog log;
+    private Thread writer;
+    private volatile boolean writerParked;
+    private volatile boolean running;
+
+    public AuditService(MeterRegistry meterRegistry,
+                        @Value("${app.audit.enabled:true}") boolean enabled,
+                        @Value("${app.audit.dir:./data/audit}") String directory,
+                        @Value("${app.audit.segment-size:64MB}") DataSize segmentSize,
+                        @Value("${app.audit.queue-capacity:65536}") int capacity,
+                        @Value("${app.audit.batch-size:1024}") int batchSize,
+                        @Value("${app.audit.fsync:true}") boolean fsync,
+                        @Value("${app.audit.offer-timeout:10ms}") Duration offerTimeout) {
+        if (segmentSize.toBytes() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("app.audit.segment-size 不能超过 2GB");
+        }
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.reader = new AuditLogReader(this.directory);
+        this.segmentSize = (int) segmentSize.toBytes();
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.fsync = fsync;
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+
+        this.written = counter(meterRegistry, "written");
+        this.dropped = counter(meterRegistry, "dropped");
+        Gauge.builder("audit.queue.size", queueSize, AtomicInteger::get)
+                .description("等待写入审计日志的事件数")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            logger.info("审计日志已关闭（app.audit.enabled=false）");
+            return;
+        }
+        log = AuditLog.open(directory, segmentSize);
+        running = true;
+        writer = Thread.ofPlatform().name("audit-writer").daemon().start(this::writeLoop);
+        logger.info("审计日志目录: {}，最后一条记录序号: {}", directory.toAbsolutePath(), log.lastSequence());
+    }
+
+    /**
+     * 记录一次用户数据修改，操作者取当前登录用户
+     */
+    public void record(AuditEventType type, String outcome, Long userId, String username, String detail) {
+        offer(AuditEvent.of(type, outcome, userId, username, currentActor(), null, detail));
+    }
+
+    /**
+     * 记录一次登录尝试
+     * @param outcome 结果，如 SUCCESS、BAD_PASSWORD、THROTTLED
+     */
+    public void recordLogin(String outcome, Long userId, String username, String clientIp) {
+        offer(AuditEvent.of(AuditEventType.LOGIN, outcome, userId, username, null, clientIp, null));
+    }
+
+    /**
+     * 读取序号 >= fromSequence 的最多 limit 条已写入的记录
+     */
+    public List<AuditEvent> read(long fromSequence, int limit) {
+        if (!enabled) {
+            throw new IllegalStateException("审计日志已关闭");
+        }
+        try {
+            return reader.read(fromSequence, limit);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        log.close();
+    }
+
+    private void offer(AuditEvent event) {
+        if (!running) {
+            return;
+        }
+        long deadline = 0;
+        while (queueSize.incrementAndGet() > capacity) {
+            queueSize.decrementAndGet();
+            long now = System.nanoTime();
+            if (deadline == 0) {
+                deadline = now + offerTimeoutNanos;
+            }
+            else if (now - deadline >= 0) {
+                dropped.increment();
+                return;
+            }
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+        queue.offer(event);
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void writeLoop() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            AuditEvent event;
+            while (batch.size() < batchSize && (event = queue.poll()) != null) {
+                batch.add(event);
+            }
+            if (batch.isEmpty()) {
+                writerParked = true;
+                // 设置标志后再检查一次，避免在检查和休眠之间放入的事件等到超时才写入
+                if (queue.isEmpty() && running) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+                writerParked = false;
+                continue;
+            }
+            queueSize.addAndGet(-batch.size());
+            try {
+                log.append(batch);
+                if (fsync) {
+                    log.flush();
+                }
+                written.increment(batch.size());
+            }
+            catch (IOException | RuntimeException e) {
+                dropped.increment(batch.size());
+                logger.error("写入审计日志失败，丢弃 {} 条事件", batch.size(), e);
+            }
+            batch.clear();
+        }
+    }
+
+    private static String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    private static Counter counter(MeterRegistry registry, String result) {
+        return Counter.builder("audit.events")
+                .description("审计事件数")
+                .tag("result", result)
+                .register(registry);
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.backendpractice.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 访问日志（每个请求一行 JSON，写入名为 ACCESS 的 logger）
+ * 正常请求按 app.access-log.sample-rate 抽样记录；5xx 和超过 slow-threshold 的慢请求总是记录
+ * 只有决定记录时才拼接日志内容，不记录的请求只多一次 nanoTime 和一次随机数
+ * 默认关闭，prod profile 中开启
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    private static final Logger accessLogger = LoggerFactory.getLogger("ACCESS");
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+
+    public AccessLogFilter(@Value("${app.access-log.enabled:false}") boolean enabled,
+                           @Value("${app.access-log.sample-rate:1.0}") double sampleRate,
+                           @Value("${app.access-log.slow-threshold:1s}") Duration slowThreshold) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !accessLogger.isInfoEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long start = System.nanoTime();
+        int status = 500;
+        try {
+            filterChain.doFilter(request, response);
+            status = response.getStatus();
+        }
+        finally {
+            long elapsed = System.nanoTime() - start;
+            String reason = reason(status, elapsed);
+            if (reason != null) {
+                accessLogger.info(format(request, status, elapsed, reason));
+            }
+        }
+    }
+
+    // 记录的原因：error / slow / sampled，不记录时返回 null
+    private String reason(int status, long elapsedNanos) {
+        if (status >= 500) {
+            return "error";
+        }
+        if (elapsedNanos >= slowThresholdNanos) {
+            return "slow";
+        }
+        if (sampleRate >= 1.0 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate)) {
+            return "sampled";
+        }
+        return null;
+    }
+
+    private static String format(HttpServletRequest request, int status, long elapsedNanos, String reason) {
+        StringBuilder json = new StringBuilder(192);
+        json.append("{\"ts\":\"").append(Instant.now()).append('"');
+        json.append(",\"method\":\"").append(request.getMethod()).append('"');
+        json.append(",\"path\":");
+        appendString(json, request.getRequestURI());
+        json.append(",\"status\":").append(status);
+        json.append(",\"durationMs\":").append(elapsedNanos / 1_000_000.0);
+        json.append(",\"remote\":");
+        appendString(json, request.getRemoteAddr());
+        json.append(",\"reason\":\"").append(reason).append("\"}");
+        return json.toString();
+    }
+
+    // 写出 JSON 字符串（转义引号、反斜杠和控制字符）
+    private static void appendString(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            }
+            else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            }
+            else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.backendpractice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 读写分离配置（app.datasource.routing.*）
+ * 主库使用 spring.datasource.* 和 spring.datasource.hikari.*，这里只配置从库
+ */
+@ConfigurationProperties(prefix = "app.datasource.routing")
+public class DataSourceRoutingProperties {
+
+    // 是否开启读写分离
+    private boolean enabled = false;
+
+    // 从库选择方式
+    private ReadWriteRoutingDataSource.Balancing balancing = ReadWriteRoutingDataSource.Balancing.LEAST_CONNECTIONS;
+
+    // 写事务之后多长时间内只读事务仍然走主库
+    private Duration replicaLagWindow = Duration.ofSeconds(1);
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public ReadWriteRoutingDataSource.Balancing getBalancing() {
+        return balancing;
+    }
+
+    public void setBalancing(ReadWriteRoutingDataSource.Balancing balancing) {
+        this.balancing = balancing;
+    }
+
+    public Duration getReplicaLagWindow() {
+        return replicaLagWindow;
+    }
+
+    public void setReplicaLagWindow(Duration replicaLagWindow) {
+        this.replicaLagWindow = replicaLagWindow;
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public void setReplicas(List<Replica> replicas) {
+        this.replicas = replicas;
+    }
+
+    /**
+     * 单个从库
+     */
+    public static class Replica {
+
+        private String url;
+        private String username;
+        private String password;
+        private int weight = 1;
+        private int maximumPoolSize = 20;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public void setWeight(int weight) {
+            this.weight = weight;
+        }
+
+        public int getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+
+        public void setMaximumPoolSize(int maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+    }
+}
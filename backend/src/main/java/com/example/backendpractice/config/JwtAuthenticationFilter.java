@@ -1,25 +1,79 @@
 package com.example.backendpractice.config;
 
+import com.example.backendpractice.service.TokenVersionRegistry;
+import com.example.backendpractice.util.JwtTokenCache;
 import com.example.backendpractice.util.JwtUtil;
+import com.example.backendpractice.util.VerifiedToken;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     @Autowired
     private JwtUtil jwtUtil;
-    
+
+    @Autowired
+    private JwtTokenCache jwtTokenCache;
+
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // JWT 验证耗时（result=cached 缓存命中 / verified 验签通过 / invalid 无效）
+    private Timer cachedTimer;
+    private Timer verifiedTimer;
+    private Timer invalidTimer;
+
+    @PostConstruct
+    void initMetrics() {
+        cachedTimer = verificationTimer("cached");
+        verifiedTimer = verificationTimer("verified");
+        invalidTimer = verificationTimer("invalid");
+    }
+
+    private Timer verificationTimer(String result) {
+        return Timer.builder("jwt.verification")
+                .description("JWT 验证耗时")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Token 中的账户是否仍然可用（已启用，且 Token 版本号不低于当前版本）
+     * 旧格式的 Token 没有用户 ID 和版本号，无法判断账户是否已禁用或删除，一律视为失效，用户重新登录即可拿到新格式的 Token
+     */
+    private boolean isActive(VerifiedToken verified) {
+        return verified.hasUserClaims()
+                && verified.getEnabled()
+                && tokenVersionRegistry.isCurrent(verified.getUserId(), verified.getTokenVersion());
+    }
+
+    private static List<GrantedAuthority> authorities(VerifiedToken verified) {
+        if (verified.getRole() == null) {
+            return List.of();
+        }
+        return List.of(new SimpleGrantedAuthority("ROLE_" + verified.getRole()));
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
@@ -34,30 +88,53 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // 3.提取 Token (去掉"Bearer "前缀)
             String token = authHeader.substring(7);
 
+            long start = System.nanoTime();
             try {
-                // 4.验证 Token 并提取用户名
-                String username = jwtUtil.extractUsername(token);
-
-                // 5.如果 Token 有效且当前没有认证信息
-                if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-
-                    // 6.验证 Token 是否过期
-                    if (!jwtUtil.isTokenExpired(token)) {
-                        // 7.创建认证对象
-                        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(username, null, new ArrayList<>());
-                        
-                        // 8.设置认证对象到 SecurityContext
-                        SecurityContextHolder.getContext().setAuthentication(authToken);
+                // 4.先查已验证 Token 缓存，命中则跳过验签
+                VerifiedToken verified = jwtTokenCache.get(token);
+
+                if (verified == null) {
+                    // 5.未命中：验证签名并提取信息（只解析一次，过期的 Token 会直接抛出异常）
+                    verified = jwtUtil.verify(token);
+                    jwtTokenCache.put(token, verified);
+                    verifiedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+                else {
+                    cachedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+                // 认证主体名使用用户 ID 而不是用户名：改名不会让 Token 失效，
+                // 旧 Token 的 sub 仍是旧用户名，被其他人注册后也不会被当成那个人
+                String principal = verified.hasUserClaims() ? String.valueOf(verified.getUserId()) : null;
+
+                // 6.账户已禁用、Token 已被撤销（版本号过旧）或是旧格式时不设置认证信息；只读内存，不查询数据库
+                if (!isActive(verified)) {
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("JWT Token 已失效: 用户 ID=" + verified.getUserId());
                     }
+                    principal = null;
+                }
+
+                // 7.如果 Token 有效且当前没有认证信息
+                if (principal != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                    // 8.创建认证对象，权限来自 Token 中的 role 声明
+                    UsernamePasswordAuthenticationToken authToken =
+                            new UsernamePasswordAuthenticationToken(principal, null, authorities(verified));
+
+                    // 9.设置认证对象到 SecurityContext
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
                 }
             }
             catch (Exception e) {
+                invalidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
             // Token 无效，不设置认证信息，让 Spring Security 处理
-                System.out.println("JWT Token认证失败: " + e.getMessage());
+                // logger 继承自 GenericFilterBean，先判断级别，避免在高频路径上拼接字符串
+                if (logger.isDebugEnabled()) {
+                    logger.debug("JWT Token认证失败: " + e.getMessage());
+                }
             }
         }
 
-        // 9.继续执行后续过滤器
+        // 10.继续执行后续过滤器
         filterChain.doFilter(request, response);
     }
 }
\ No newline at end of file
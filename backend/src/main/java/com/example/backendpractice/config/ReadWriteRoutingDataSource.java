@@ -0,0 +1,186 @@
+package com.example.backendpractice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 读写分离数据源
+ * - 只读事务（@Transactional(readOnly = true)）的连接从从库获取，其余（写事务、没有事务）都走主库
+ * - 多个从库按权重随机或按“活跃连接数 / 权重”最小选择
+ * - 从库延迟保护：最近 replica-lag-window 内有写事务时，只读事务也走主库，保证刚写入的数据能读到
+ * - 从库取连接失败时回退到主库
+ * 判断依据是当前事务的只读标记，所以必须包在 LazyConnectionDataSourceProxy 中使用：
+ * 事务开始时并不真正取连接，等第一条 SQL 执行时（此时只读标记已经设置好）才选择数据源
+ * 指标：datasource.routing（target=primary/replica，reason=write/no-transaction/lag/no-replica/read/fallback）
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    public enum Balancing {
+        WEIGHTED,
+        LEAST_CONNECTIONS
+    }
+
+    /**
+     * 从库：连接池和权重
+     */
+    public record Replica(String name, HikariDataSource dataSource, int weight) {
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Balancing balancing;
+    private final long lagWindowNanos;
+    private final int totalWeight;
+
+    // 最近一次写事务的时间（System.nanoTime）
+    private volatile long lastWriteNanos;
+
+    private final Counter primaryWrite;
+    private final Counter primaryNoTransaction;
+    private final Counter primaryLag;
+    private final Counter primaryNoReplica;
+    private final Counter primaryFallback;
+    private final Counter replicaRead;
+
+    private final TransactionSynchronization writeCompletion = new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+            markWrite();
+        }
+    };
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<Replica> replicas, Balancing balancing,
+                                      Duration replicaLagWindow, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.balancing = balancing;
+        this.lagWindowNanos = replicaLagWindow.toNanos();
+        this.totalWeight = this.replicas.stream().mapToInt(Replica::weight).sum();
+        this.lastWriteNanos = System.nanoTime() - lagWindowNanos - 1;
+
+        this.primaryWrite = counter(meterRegistry, "primary", "write");
+        this.primaryNoTransaction = counter(meterRegistry, "primary", "no-transaction");
+        this.primaryLag = counter(meterRegistry, "primary", "lag");
+        this.primaryNoReplica = counter(meterRegistry, "primary", "no-replica");
+        this.primaryFallback = counter(meterRegistry, "primary", "fallback");
+        this.replicaRead = counter(meterRegistry, "replica", "read");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            primaryNoTransaction.increment();
+            return primary.getConnection();
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // 写事务：开始时记录一次（事务进行中的读也走主库），提交或回滚后再记录一次
+            markWrite();
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(writeCompletion);
+            }
+            primaryWrite.increment();
+            return primary.getConnection();
+        }
+        if (replicas.isEmpty() || totalWeight <= 0) {
+            primaryNoReplica.increment();
+            return primary.getConnection();
+        }
+        if (System.nanoTime() - lastWriteNanos < lagWindowNanos) {
+            primaryLag.increment();
+            return primary.getConnection();
+        }
+
+        Replica replica = select();
+        try {
+            Connection connection = replica.dataSource().getConnection();
+            replicaRead.increment();
+            return connection;
+        }
+        catch (SQLException e) {
+            logger.warn("从库 {} 获取连接失败，改用主库: {}", replica.name(), e.getMessage());
+            primaryFallback.increment();
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        // 指定用户名密码的连接只支持主库
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * 记录一次写入（供绕过事务直接写库的代码调用）
+     */
+    public void markWrite() {
+        lastWriteNanos = System.nanoTime();
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * 关闭从库连接池（主库连接池由 Spring 管理）
+     */
+    @Override
+    public void close() {
+        for (Replica replica : replicas) {
+            replica.dataSource().close();
+        }
+    }
+
+    private Replica select() {
+        if (replicas.size() == 1) {
+            return replicas.get(0);
+        }
+        if (balancing == Balancing.LEAST_CONNECTIONS) {
+            Replica best = null;
+            double bestLoad = Double.MAX_VALUE;
+            for (Replica replica : replicas) {
+                if (replica.weight() <= 0) {
+                    continue;
+                }
+                HikariPoolMXBean pool = replica.dataSource().getHikariPoolMXBean();
+                int active = pool == null ? 0 : pool.getActiveConnections();
+                double load = (double) active / replica.weight();
+                if (load < bestLoad) {
+                    best = replica;
+                    bestLoad = load;
+                }
+            }
+            return best;
+        }
+        int r = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Replica replica : replicas) {
+            r -= replica.weight();
+            if (r < 0) {
+                return replica;
+            }
+        }
+        return replicas.get(replicas.size() - 1);
+    }
+
+    private static Counter counter(MeterRegistry registry, String target, String reason) {
+        return Counter.builder("datasource.routing")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(registry);
+    }
+}
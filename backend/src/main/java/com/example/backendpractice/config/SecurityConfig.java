@@ -2,6 +2,7 @@ package com.example.backendpractice.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.web.SecurityFilterChain;
@@ -9,6 +10,9 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import com.example.backendpractice.service.PasswordHashingService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration                          // 告诉 Spring 这是一个配置类
@@ -26,10 +30,15 @@ public class SecurityConfig {
             .cors(cors -> cors.disable())
             .authorizeHttpRequests(authz -> authz
                 .requestMatchers("/api/auth/**").permitAll()                        // 登录相关接口，所有人均可访问
+                .requestMatchers("/api/audit/**").hasRole("ADMIN")                 // 审计日志只允许管理员读取
+                .requestMatchers(HttpMethod.DELETE, "/api/users", "/api/users/").hasRole("ADMIN")  // 批量删除用户只允许管理员（角色来自 JWT 的 role 声明）
                 .requestMatchers("/api/users", "/api/users/").permitAll()         // 用户列表和创建用户接口，所有人均可访问   
+                .requestMatchers("/api/users/availability").permitAll()            // 用户名/邮箱可用性检查，注册前调用
                 .requestMatchers("/api/hello/**").permitAll()                       // Hello 接口，开放访问
                 .requestMatchers("/favicon.ico").permitAll()                        // 网站图标
                 .requestMatchers("/error").permitAll()                              // 错误页面
+                .requestMatchers("/actuator/health").permitAll()                    // 健康检查
+                .requestMatchers("/actuator/prometheus").permitAll()                // Prometheus 抓取（生产环境应只在内网开放）
                 .anyRequest().authenticated()                                       // 其他所有请求都需要登录
             )
             .formLogin(form -> form.disable())                      // 禁用默认的登录表单
@@ -41,8 +50,16 @@ public class SecurityConfig {
         return http.build();
     }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    /**
+     * 密码编码器
+     * BCrypt 计算放到独立的有界线程池中执行，见 PasswordHashingService
+     */
+    @Bean(destroyMethod = "shutdown")
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                           @Value("${app.security.bcrypt.strength:10}") int strength,
+                                           @Value("${app.security.hashing.threads:0}") int threads,
+                                           @Value("${app.security.hashing.queue-capacity:64}") int queueCapacity,
+                                           @Value("${app.security.hashing.retry-after-seconds:1}") int retryAfterSeconds) {
+        return new PasswordHashingService(new BCryptPasswordEncoder(strength), threads, queueCapacity, retryAfterSeconds, meterRegistry);
     }
 }
\ No newline at end of file
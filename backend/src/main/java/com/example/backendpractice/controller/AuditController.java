@@ -0,0 +1,54 @@
+package com.example.backendpractice.controller;
+
+import com.example.backendpractice.audit.AuditEvent;
+import com.example.backendpractice.audit.AuditService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/audit")     // 指定基础路径（只允许管理员访问，见 SecurityConfig）
+public class AuditController {
+
+    // 每次最多读取的条数
+    public static final int MAX_LIMIT = 1000;
+
+    @Autowired
+    private AuditService auditService;
+
+    // 读取审计事件 - GET /api/audit/events?from=1&limit=100
+    // 按序号从 from 开始返回已写入日志的事件（app.audit.fsync=false 时可能还没有落盘），下一次从返回的 next 继续读取
+    @GetMapping("/events")
+    public ResponseEntity<?> getEvents(@RequestParam(defaultValue = "1") long from,
+                                       @RequestParam(defaultValue = "100") int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            return ResponseEntity.badRequest().body(createErrorResponse("limit 必须在 1 到 " + MAX_LIMIT + " 之间！"));
+        }
+        if (!auditService.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(createErrorResponse("审计日志已关闭"));
+        }
+        try {
+            List<AuditEvent> events = auditService.read(from, limit);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("events", events);
+            response.put("next", events.isEmpty() ? Math.max(from, 1) : events.get(events.size() - 1).sequence() + 1);
+            return ResponseEntity.ok(response);
+        }
+        catch (Exception e) {
+            return ResponseEntity.internalServerError().body(createErrorResponse("读取审计日志失败:" + e.getMessage()));
+        }
+    }
+
+    private Map<String, Object> createErrorResponse(String message) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("success", false);
+        error.put("message", message);
+        return error;
+    }
+}
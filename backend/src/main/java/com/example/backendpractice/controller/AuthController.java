@@ -1,9 +1,20 @@
 package com.example.backendpractice.controller;
 
+import com.example.backendpractice.audit.AuditService;
+import com.example.backendpractice.dto.UserInfo;
 import com.example.backendpractice.entity.User;
-import com.example.backendpractice.repository.UserRepository;
+import com.example.backendpractice.service.LoginRateLimiter;
+import com.example.backendpractice.service.LoginThrottledException;
+import com.example.backendpractice.service.PasswordHashingRejectedException;
+import com.example.backendpractice.service.TokenVersionRegistry;
+import com.example.backendpractice.service.UserLookupCache;
+import com.example.backendpractice.util.JwtTokenCache;
 import com.example.backendpractice.util.JwtUtil;
+import com.example.backendpractice.util.VerifiedToken;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -17,34 +28,53 @@ import java.util.Optional;
 public class AuthController {
 
     @Autowired
-    private UserRepository userRepository;
+    private UserLookupCache userLookupCache;
 
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private JwtTokenCache jwtTokenCache;
+
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private LoginRateLimiter loginRateLimiter;
+
+    @Autowired
+    private AuditService auditService;
+
     /** 
      * 用户登录接口
      * 简化版本：只需要用户名即可登录（暂时跳过密码验证）
+     * 每次尝试的结果（成功、被限流、用户不存在、密码错误等）都写入审计日志
      */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest, HttpServletRequest request) {
+        String clientIp = request.getRemoteAddr();
         try {
             String username = loginRequest.getUsername();
             String password = loginRequest.getPassword();
 
+            // 按 IP 和用户名限流，在查询用户和校验密码之前执行
+            loginRateLimiter.check(clientIp, username);
+
             // 检查用户名是否为空
             if (username == null || username.trim().isEmpty()) {
                 // 用户名为空或空串
+                auditService.recordLogin("EMPTY_USERNAME", null, username, clientIp);
                 return ResponseEntity.badRequest().body(createErrorResponse("用户名不能为空"));
             }
 
-            // 查找用户
-            Optional<User> userOptional = userRepository.findByUsername(username);
+            // 查找用户（优先走缓存）
+            Optional<User> userOptional = userLookupCache.findByUsername(username);
 
             if (!userOptional.isPresent()) {
+                auditService.recordLogin("USER_NOT_FOUND", null, username, clientIp);
                 return ResponseEntity.badRequest().body(createErrorResponse("用户不存在"));
             }
 
@@ -52,11 +82,19 @@ public class AuthController {
 
             // 验证密码
             if (!passwordEncoder.matches(password, user.getPassword())) {
+                auditService.recordLogin("BAD_PASSWORD", user.getId(), username, clientIp);
                 return ResponseEntity.badRequest().body(createErrorResponse("密码错误"));
             }
 
-            // 生成 JWT Token
-            String token = jwtUtil.generateToken(user.getUsername());
+            // 已禁用的账户不能登录
+            if (!user.isEnabled()) {
+                auditService.recordLogin("DISABLED", user.getId(), username, clientIp);
+                return ResponseEntity.badRequest().body(createErrorResponse("账户已被禁用"));
+            }
+
+            // 生成 JWT Token（带用户 ID、角色、启用状态和 Token 版本号）
+            String token = jwtUtil.generateToken(user, tokenVersionRegistry.currentVersion(user));
+            auditService.recordLogin("SUCCESS", user.getId(), username, clientIp);
 
             // 返回成功响应
             Map<String, Object> response = new HashMap<>();
@@ -67,7 +105,22 @@ public class AuthController {
 
             return ResponseEntity.ok(response);
         }
+        catch (LoginThrottledException e) {
+            // 尝试过于频繁，返回 429，不查询数据库也不计算哈希
+            auditService.recordLogin("THROTTLED", null, loginRequest.getUsername(), clientIp);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(createErrorResponse(e.getMessage()));
+        }
+        catch (PasswordHashingRejectedException e) {
+            // 密码校验线程池已满，快速拒绝，返回 503 让客户端稍后重试
+            auditService.recordLogin("HASHING_REJECTED", null, loginRequest.getUsername(), clientIp);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(createErrorResponse(e.getMessage()));
+        }
         catch (Exception e) {
+            auditService.recordLogin("ERROR", null, loginRequest.getUsername(), clientIp);
             return ResponseEntity.internalServerError().body(createErrorResponse("登录失败:" + e.getMessage()));
         }
     }
@@ -75,6 +128,8 @@ public class AuthController {
     /**
      * 验证 Token 接口
      * 用于检查 Token 是否有效
+     * 只根据 Token 中的声明和内存中的 Token 版本号判断，不查询数据库；
+     * 旧格式的 Token（没有用户 ID 和版本号）无法判断账户是否已禁用或删除，不再接受，用户需要重新登录
      */
     @PostMapping("/validate")
     public ResponseEntity<?> validateToken(@RequestBody TokenRequest tokenRequest) {
@@ -85,25 +140,27 @@ public class AuthController {
                 return ResponseEntity.badRequest().body(createErrorResponse("Token不能为空"));
             }
 
-            // 从 Token 中提取用户名
-            String username = jwtUtil.extractUsername(token);
-
-            // 验证 Token 是否有效
-            if (jwtUtil.validateToken(token, username)) {
-                // 查找用户信息
-                Optional<User> userOptional = userRepository.findByUsername(username);
-
-                if (userOptional.isPresent()) {
-                    Map<String, Object> response = new HashMap<>();
-                    response.put("success", true);
-                    response.put("message", "Token有效");
-                    response.put("user", createUserInfo(userOptional.get()));
+            // 验证 Token（先查已验证 Token 缓存，未命中时校验签名和过期时间），无效时抛出异常
+            VerifiedToken verified = jwtTokenCache.get(token);
+            if (verified == null) {
+                verified = jwtUtil.verify(token);
+                jwtTokenCache.put(token, verified);
+            }
 
-                    return ResponseEntity.ok(response);
-                }
+            if (!verified.hasUserClaims()) {
+                return ResponseEntity.badRequest().body(createErrorResponse("Token 已失效，请重新登录"));
             }
 
-            return ResponseEntity.badRequest().body(createErrorResponse("Token 无效"));
+            // 账户已禁用，或禁用/改角色/改密码后版本号已增加
+            if (!verified.getEnabled()
+                    || !tokenVersionRegistry.isCurrent(verified.getUserId(), verified.getTokenVersion())) {
+                return ResponseEntity.badRequest().body(createErrorResponse("Token 已失效"));
+            }
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Token有效");
+            response.put("user", UserInfo.from(verified));
+            return ResponseEntity.ok(response);
         }
         catch (Exception e) {
             return ResponseEntity.badRequest().body(createErrorResponse("Token 验证失败: " + e.getMessage()));
@@ -114,15 +171,8 @@ public class AuthController {
     /**
      * 创建用户信息对象（不包含敏感信息）
      */
-    private Map<String, Object> createUserInfo(User user) {
-        Map<String, Object> userInfo = new HashMap<>();
-        userInfo.put("id", user.getId());
-        userInfo.put("username", user.getUsername());
-        userInfo.put("email", user.getEmail());
-        userInfo.put("role", user.getRole());
-        userInfo.put("enabled", user.isEnabled());
-        userInfo.put("createdAt", user.getCreatedAt());
-        return userInfo;
+    private UserInfo createUserInfo(User user) {
+        return UserInfo.from(user);
     }
 
     /**
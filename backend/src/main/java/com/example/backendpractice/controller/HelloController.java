@@ -52,7 +52,7 @@ public class HelloController {
         return user;
     }
 
-    // 查询参数示例 - 搜索功能
+    // 查询参数示例 - 搜索功能（只回显参数；真正的用户搜索见 GET /api/users/search）
     @GetMapping("/search")
     public Map<String, Object> search(@RequestParam String keyword,                        // 必须参数，如果 URL 中没有会报错
                                       @RequestParam(defaultValue = "1") int page,          // 可选参数，有默认值
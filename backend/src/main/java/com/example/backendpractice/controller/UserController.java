@@ -1,10 +1,25 @@
 package com.example.backendpractice.controller;
 
+import com.example.backendpractice.dto.BatchItemResult;
+import com.example.backendpractice.dto.CursorPage;
+import com.example.backendpractice.dto.UserFieldsView;
+import com.example.backendpractice.dto.UserPatch;
+import com.example.backendpractice.dto.UserSearchPage;
 import com.example.backendpractice.entity.User;
+import com.example.backendpractice.service.AdminRequiredException;
+import com.example.backendpractice.service.PasswordHashingRejectedException;
+import com.example.backendpractice.service.UserChangeTracker;
+import com.example.backendpractice.service.UserSearchUnavailableException;
 import com.example.backendpractice.service.UserService;
+import com.example.backendpractice.service.UserVersionConflictException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.util.Optional;
 
 import java.time.LocalDateTime;
@@ -26,6 +41,9 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserChangeTracker userChangeTracker;
+
     // 添加各种 API 方法
 
     // GetMapping 用于处理 HTTP GET 请求
@@ -33,17 +51,69 @@ public class UserController {
     // 不会修改服务器数据
     // 可以被浏览器直接访问
 
+    // 获取用户列表 - GET /api/users
+    // 不带分页参数时返回全部用户（兼容旧客户端）
+    // 带 limit 或 cursor 时使用游标分页：GET /api/users?limit=50&sort=createdAt&order=desc&cursor=...
+    // 带 fields 时只查询和返回指定字段：GET /api/users?limit=50&fields=id,username
+    // 带 If-None-Match 且之后没有任何用户写入时直接返回 304，不查询也不序列化
     @GetMapping
-    public List<User> getAllUsers() {
-        // 获取所有用户方法
-        return userService.getAllUsers();
+    public ResponseEntity<?> getAllUsers(@RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false) Integer limit,
+                                         @RequestParam(defaultValue = "id") String sort,
+                                         @RequestParam(defaultValue = "asc") String order,
+                                         @RequestParam(required = false) String fields,
+                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        try {
+            // 先读表版本再查询：查询期间发生的写入会让下一次请求拿到新数据
+            long tableVersion = userChangeTracker.currentVersion();
+            String variant = "list|" + cursor + "|" + limit + "|" + sort + "|" + order + "|" + fields;
+            String matched = userChangeTracker.matchTable(ifNoneMatch, tableVersion, variant);
+            if (matched != null) {
+                return notModified(matched);
+            }
+            String etag = userChangeTracker.listETag(tableVersion, variant);
+
+            if (cursor == null && limit == null) {
+                if (fields != null) {
+                    return okWithETag(etag, userService.getAllUserFields(fields));
+                }
+                List<User> users = userService.getAllUsers();
+                return okWithETag(etag, users);
+            }
+            if (fields != null) {
+                CursorPage<UserFieldsView> page = userService.getUserFieldsPage(cursor, limit, sort, order, fields);
+                return okWithETag(etag, page);
+            }
+            CursorPage<User> page = userService.getUsersPage(cursor, limit, sort, order);
+            return okWithETag(etag, page);
+        }
+        catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
     }
 
+    // 流式导出全部用户 - GET /api/users/export
+    // 响应为 NDJSON，每行一个用户，边查边写，不在内存中汇总
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        StreamingResponseBody body = outputStream -> userService.exportUsers(outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    // 创建用户 - POST /api/users
+    // 公开的注册接口：新用户的角色总是 USER，请求中的 role 被忽略
+    // 可以带 Idempotency-Key 请求头：超时重试时使用同一个键，不会重复创建用户
     @PostMapping
-    public ResponseEntity<?> createUser(@RequestBody User user) {
+    public ResponseEntity<?> createUser(@RequestBody User user,
+                                        @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
 
         try {
-            User savedUser = userService.createUser(user);
+            User savedUser = userService.createUser(user, idempotencyKey);
             return ResponseEntity.ok(savedUser);
         }
         catch (IllegalArgumentException e) {
@@ -53,15 +123,120 @@ public class UserController {
             errorResponse.put("message", e.getMessage());
             return ResponseEntity.badRequest().body(errorResponse);
         }
+        catch (PasswordHashingRejectedException e) {
+            // 密码哈希线程池已满，返回 503 让客户端稍后重试
+            return serviceUnavailable(e);
+        }
+    }
+
+    // 批量创建用户 - POST /api/users/batch
+    // 请求体为用户数组，响应中 results 按下标给出每个用户的结果
+    @PostMapping("/batch")
+    public ResponseEntity<?> createUsers(@RequestBody List<User> users) {
+        try {
+            List<BatchItemResult> results = userService.createUsers(users);
+            long created = results.stream().filter(BatchItemResult::isSuccess).count();
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", created == results.size());
+            response.put("total", results.size());
+            response.put("created", created);
+            response.put("failed", results.size() - created);
+            response.put("results", results);
+            return ResponseEntity.ok(response);
+        }
+        catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+        catch (PasswordHashingRejectedException e) {
+            return serviceUnavailable(e);
+        }
     }
     
+    // 检查用户名 / 邮箱是否可用 - GET /api/users/availability?username=...&email=...
+    // 布隆过滤器判断一定不存在时不查询数据库（注册表单实时校验用）
+    @GetMapping("/availability")
+    public ResponseEntity<?> checkAvailability(@RequestParam(required = false) String username,
+                                               @RequestParam(required = false) String email) {
+        try {
+            Map<String, Boolean> availability = userService.checkAvailability(username, email);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.putAll(availability);
+            return ResponseEntity.ok(response);
+        }
+        catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+    }
+
+    // 搜索用户 - GET /api/users/search?keyword=ali&page=1&size=10
+    // 在内存索引中按用户名和邮箱搜索：1~2 个字符按前缀匹配（输入提示），3 个字符以上按包含匹配
+    @GetMapping("/search")
+    public ResponseEntity<?> searchUsers(@RequestParam String keyword,
+                                         @RequestParam(defaultValue = "1") int page,
+                                         @RequestParam(defaultValue = "10") int size) {
+        try {
+            UserSearchPage result = userService.searchUsers(keyword, page, size);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("keyword", keyword);
+            response.put("page", result.page());
+            response.put("size", result.size());
+            response.put("total", result.total());
+            response.put("results", result.results());
+            return ResponseEntity.ok(response);
+        }
+        catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+        catch (UserSearchUnavailableException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(errorResponse);
+        }
+    }
+
     // 根据 ID 获取用户 - GET /api/users/{id}
+    // 带 fields 时只查询和返回指定字段：GET /api/users/1?fields=id,username
+    // 支持 If-None-Match：之后没有任何写入，或者这个用户的 version 没变（不带 fields 时）都返回 304
     @GetMapping("/{id}")
-    public ResponseEntity<?> getUserById(@PathVariable Long id) {
+    public ResponseEntity<?> getUserById(@PathVariable Long id, @RequestParam(required = false) String fields,
+                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
+            long tableVersion = userChangeTracker.currentVersion();
+            String variant = "user|" + id + "|" + fields;
+            String matched = userChangeTracker.matchTable(ifNoneMatch, tableVersion, variant);
+            if (matched != null) {
+                return notModified(matched);
+            }
+
+            if (fields != null) {
+                Optional<UserFieldsView> view = userService.getUserFieldsById(id, fields);
+                return view.isPresent()
+                        ? okWithETag(userChangeTracker.userETag(tableVersion, variant, null), view.get())
+                        : ResponseEntity.notFound().build();
+            }
+            // 用户通常来自缓存，行版本没变时不需要序列化
             Optional<User> user = userService.getUserById(id);
             if (user.isPresent()) {
-                return ResponseEntity.ok(user.get());
+                String etag = userChangeTracker.userETag(tableVersion, variant, user.get().getVersion());
+                if (userChangeTracker.matchesRow(ifNoneMatch, variant, user.get().getVersion())) {
+                    return notModified(etag);
+                }
+                return okWithETag(etag, user.get());
             }
             else {
                 return ResponseEntity.notFound().build();
@@ -85,6 +260,7 @@ public class UserController {
     }
 
     // 更新用户 - PUT /api/users/{id}
+    // 修改 role 或 enabled 需要管理员角色，否则返回 403
     @PutMapping("/{id}")
     public ResponseEntity<?> updateUser(@PathVariable Long id, @RequestBody User user_new) {
         try {
@@ -97,14 +273,75 @@ public class UserController {
             errorResponse.put("message", e.getMessage());
             return ResponseEntity.badRequest().body(errorResponse);
         }
+        catch (UserVersionConflictException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+        }
+        catch (AdminRequiredException e) {
+            // 只有管理员可以修改角色和启用状态
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse);
+        }
+        catch (PasswordHashingRejectedException e) {
+            // 修改密码时密码哈希线程池已满，返回 503 让客户端稍后重试
+            return serviceUnavailable(e);
+        }
+    }
+
+    // 部分更新用户 - PATCH /api/users/{id}
+    // 请求体只包含要修改的字段和读取用户时拿到的 version，例如 {"email": "new@example.com", "version": 3}
+    // 版本不一致（用户已被其他请求修改）时返回 409，非管理员修改 role 或 enabled 时返回 403
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchUser(@PathVariable Long id, @RequestBody UserPatch patch) {
+        try {
+            long version = userService.patchUser(id, patch);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "用户更新成功");
+            response.put("id", id);
+            response.put("version", version);
+            return ResponseEntity.ok(response);
+        }
+        catch (PasswordHashingRejectedException e) {
+            // 修改密码时密码哈希线程池已满，返回 503 让客户端稍后重试
+            return serviceUnavailable(e);
+        }
+        catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+        catch (UserVersionConflictException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+        }
+        catch (AdminRequiredException e) {
+            // 只有管理员可以修改角色和启用状态
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse);
+        }
     }
 
     // 删除用户 - DELETE /api/users/{id}
+    // 用户不存在时返回 404
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteUser(@PathVariable Long id) {
         try {
-            userService.deleteUser(id);
             Map<String, Object> response = new HashMap<>();
+            if (!userService.deleteUser(id)) {
+                response.put("success", false);
+                response.put("message", "用户不存在, ID: " + id);
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+            }
             response.put("success", true);
             response.put("message", "用户删除成功");
             return ResponseEntity.ok(response);
@@ -117,4 +354,53 @@ public class UserController {
         }
     }
 
-}
\ No newline at end of file
+    // 批量删除用户 - DELETE /api/users
+    // 请求体为用户 ID 数组，不存在的 ID 忽略，响应中给出实际删除的数量
+    @DeleteMapping
+    public ResponseEntity<?> deleteUsers(@RequestBody List<Long> ids) {
+        try {
+            int deleted = userService.deleteUsers(ids);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("requested", ids.size());
+            response.put("deleted", deleted);
+            return ResponseEntity.ok(response);
+        }
+        catch (IllegalArgumentException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+    }
+
+    /**
+     * 带 ETag 的 200 响应
+     * Cache-Control: private, no-cache 表示客户端可以保存响应，但每次使用前都要带 If-None-Match 重新验证
+     */
+    private static ResponseEntity<Object> okWithETag(String etag, Object body) {
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(body);
+    }
+
+    private static ResponseEntity<Object> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .build();
+    }
+
+    /**
+     * 密码哈希线程池已满时的 503 响应（带 Retry-After）
+     */
+    private ResponseEntity<Map<String, Object>> serviceUnavailable(PasswordHashingRejectedException e) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("message", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+}
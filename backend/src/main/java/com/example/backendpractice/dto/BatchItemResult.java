@@ -0,0 +1,44 @@
+package com.example.backendpractice.dto;
+
+/**
+ * 批量操作中单个条目的结果
+ * index 对应请求数组中的下标
+ */
+public class BatchItemResult {
+
+    private final int index;
+    private final boolean success;
+    private final Long id;
+    private final String message;
+
+    private BatchItemResult(int index, boolean success, Long id, String message) {
+        this.index = index;
+        this.success = success;
+        this.id = id;
+        this.message = message;
+    }
+
+    public static BatchItemResult success(int index, Long id) {
+        return new BatchItemResult(index, true, id, null);
+    }
+
+    public static BatchItemResult failure(int index, String message) {
+        return new BatchItemResult(index, false, null, message);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.backendpractice.dto;
+
+import java.util.List;
+
+/**
+ * 游标分页结果
+ * items 为当前页数据，nextCursor 为下一页的不透明游标（没有下一页时为 null）
+ */
+public class CursorPage<T> {
+
+    private final List<T> items;
+    private final String nextCursor;
+    private final int limit;
+
+    public CursorPage(List<T> items, String nextCursor, int limit) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.limit = limit;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return nextCursor != null;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.backendpractice.dto;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * 可以通过 ?fields= 选择的用户字段（密码不在其中，任何情况下都不会返回）
+ */
+public enum UserField {
+
+    ID("id"),
+    USERNAME("username"),
+    EMAIL("email"),
+    ROLE("role"),
+    ENABLED("enabled"),
+    CREATED_AT("createdAt"),
+    VERSION("version");            // PATCH 时需要带上
+
+    private final String property;
+
+    UserField(String property) {
+        this.property = property;
+    }
+
+    /**
+     * 实体属性名，同时也是 JSON 字段名
+     */
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * 解析逗号分隔的字段列表，如 "id,username"
+     * 重复字段只保留一个，返回顺序固定为枚举定义的顺序
+     * @throws IllegalArgumentException 字段为空或不支持时
+     */
+    public static List<UserField> parseList(String fields) {
+        EnumSet<UserField> selected = EnumSet.noneOf(UserField.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            selected.add(fromProperty(trimmed));
+        }
+        if (selected.isEmpty()) {
+            throw new IllegalArgumentException("fields 参数不能为空！");
+        }
+        return new ArrayList<>(selected);
+    }
+
+    private static UserField fromProperty(String property) {
+        for (UserField field : values()) {
+            if (field.property.equals(property)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("不支持的字段: " + property);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.backendpractice.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 只包含部分字段的用户（?fields= 查询的结果行）
+ * 直接持有查询返回的 Object[]，序列化时只写出请求的字段，不再为每一行复制一个 Map
+ * values 的前 fields.size() 个元素与 fields 一一对应；之后可能还有分页游标需要的
+ * 额外列（id、createdAt），这些列不会被序列化
+ */
+public final class UserFieldsView implements JsonSerializable {
+
+    private final List<UserField> fields;
+    private final List<UserField> columns;
+    private final Object[] values;
+
+    /**
+     * @param fields 请求的字段（多行共享同一个列表）
+     * @param columns 实际查询的列，以 fields 开头
+     * @param values 查询结果，与 columns 一一对应
+     */
+    public UserFieldsView(List<UserField> fields, List<UserField> columns, Object[] values) {
+        this.fields = fields;
+        this.columns = columns;
+        this.values = values;
+    }
+
+    /**
+     * 取某一列的值（没有查询该列时返回 null）
+     */
+    public Object get(UserField field) {
+        int index = columns.indexOf(field);
+        return index < 0 ? null : values[index];
+    }
+
+    @Override
+    public void serialize(JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject();
+        for (int i = 0; i < fields.size(); i++) {
+            generator.writeFieldName(fields.get(i).getProperty());
+            provider.defaultSerializeValue(values[i], generator);
+        }
+        generator.writeEndObject();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator generator, SerializerProvider provider,
+                                  TypeSerializer typeSerializer) throws IOException {
+        serialize(generator, provider);
+    }
+}
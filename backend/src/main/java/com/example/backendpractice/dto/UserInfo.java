@@ -0,0 +1,29 @@
+package com.example.backendpractice.dto;
+
+import com.example.backendpractice.entity.User;
+import com.example.backendpractice.util.VerifiedToken;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+
+/**
+ * 返回给客户端的用户信息（不包含密码等敏感信息）
+ * 不可变的 record，序列化时不需要像 Map 那样为每个字段建立哈希表项
+ * 从 Token 声明得到的信息没有 createdAt，为 null 的字段不输出
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserInfo(Long id, String username, String email, String role, boolean enabled, LocalDateTime createdAt) {
+
+    public static UserInfo from(User user) {
+        return new UserInfo(user.getId(), user.getUsername(), user.getEmail(), user.getRole(),
+                user.isEnabled(), user.getCreatedAt());
+    }
+
+    /**
+     * 从带用户声明的 Token 构造（调用方需要先检查 hasUserClaims）
+     */
+    public static UserInfo from(VerifiedToken token) {
+        return new UserInfo(token.getUserId(), token.getSubject(), token.getEmail(), token.getRole(),
+                token.getEnabled(), null);
+    }
+}
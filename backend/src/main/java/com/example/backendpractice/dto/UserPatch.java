@@ -0,0 +1,15 @@
+package com.example.backendpractice.dto;
+
+/**
+ * PATCH /api/users/{id} 的请求体
+ * 为 null 的字段表示不修改；version 是客户端读取用户时拿到的版本号，必须提供
+ */
+public record UserPatch(String username, String email, String password, String role, Boolean enabled, Long version) {
+
+    /**
+     * 是否没有任何要修改的字段
+     */
+    public boolean isEmpty() {
+        return username == null && email == null && password == null && role == null && enabled == null;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.backendpractice.dto;
+
+/**
+ * 用户搜索结果中的一条记录（只返回 id、用户名和邮箱）
+ */
+public record UserSearchHit(Long id, String username, String email) {
+}
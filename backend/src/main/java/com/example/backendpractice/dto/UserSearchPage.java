@@ -0,0 +1,10 @@
+package com.example.backendpractice.dto;
+
+import java.util.List;
+
+/**
+ * 用户搜索的一页结果
+ * page 从 1 开始，total 为匹配的用户总数
+ */
+public record UserSearchPage(List<UserSearchHit> results, int page, int size, int total) {
+}
@@ -1,12 +1,23 @@
 package com.example.backendpractice.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDateTime;
 
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+    @Index(name = "idx_users_created_at_id", columnList = "created_at, id")    // 按创建时间 keyset 分页使用
+}, uniqueConstraints = {
+    @UniqueConstraint(name = User.EMAIL_UNIQUE_CONSTRAINT, columnNames = "email")   // users 表唯一的业务唯一约束（邮箱重复的判断依赖这一点，见 ConstraintViolations）
+})
 public class User {
+
+    // 邮箱唯一约束名
+    public static final String EMAIL_UNIQUE_CONSTRAINT = "uk_users_email";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -14,10 +25,11 @@ public class User {
     @Column(name = "username", nullable = false, length = 50)
     private String username;
 
-    @Column(name = "email", nullable = false, unique = true)
+    @Column(name = "email", nullable = false)
     private String email;
 
-    // 新增：密码字段
+    // 新增：密码字段（只在请求中接收，响应中不输出密码哈希）
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     @Column(name = "password", nullable = false)
     private String password;
 
@@ -32,6 +44,20 @@ public class User {
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
+    // 乐观锁版本号：每次更新加 1，更新时带上读取到的版本，版本不一致说明已被其他请求修改
+    // 已有数据库中新增这一列时用默认值 0 填充旧数据
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    // Token 版本号：禁用账户、修改角色或密码时加 1，签发时写入 JWT 的 tv 声明，
+    // 版本号小于当前值的 Token 立即失效（见 TokenVersionRegistry）；只在服务端使用，不输出到 JSON
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(name = "token_version", nullable = false)
+    private int tokenVersion;
+
     // 无参构造方法（必须有）
     public User() {}
 
@@ -67,6 +93,12 @@ public class User {
     public LocalDateTime getCreatedAt(){
         return createdAt;
     }
+    public long getVersion(){
+        return version;
+    }
+    public int getTokenVersion(){
+        return tokenVersion;
+    }
 
     // Setter 方法
     public void setUsername(String username){
@@ -87,6 +119,9 @@ public class User {
     public void setCreatedAt(LocalDateTime createdAt){
         this.createdAt = createdAt;
     }
+    public void setTokenVersion(int tokenVersion){
+        this.tokenVersion = tokenVersion;
+    }
 
     @Override
     public String toString(){
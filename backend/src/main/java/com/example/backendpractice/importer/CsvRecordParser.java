@@ -0,0 +1,128 @@
+package com.example.backendpractice.importer;
+
+import com.example.backendpractice.entity.User;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV 行解析
+ * 第一行为表头，必须包含 username、email、password 列，role、enabled 列可选（为空时为 USER / true，
+ * 导入时保留，见 UserService.importUsers），列的顺序不限
+ * 支持双引号包裹的字段和 "" 转义，逐字符扫描，不使用正则
+ */
+final class CsvRecordParser {
+
+    private final int usernameColumn;
+    private final int emailColumn;
+    private final int passwordColumn;
+    private final int roleColumn;
+    private final int enabledColumn;
+
+    private CsvRecordParser(int usernameColumn, int emailColumn, int passwordColumn, int roleColumn, int enabledColumn) {
+        this.usernameColumn = usernameColumn;
+        this.emailColumn = emailColumn;
+        this.passwordColumn = passwordColumn;
+        this.roleColumn = roleColumn;
+        this.enabledColumn = enabledColumn;
+    }
+
+    /**
+     * 根据表头创建解析器
+     * @throws IllegalArgumentException 缺少必需列时
+     */
+    static CsvRecordParser fromHeader(String headerLine) {
+        List<String> header = split(stripBom(headerLine));
+        int username = -1;
+        int email = -1;
+        int password = -1;
+        int role = -1;
+        int enabled = -1;
+        for (int i = 0; i < header.size(); i++) {
+            switch (header.get(i).trim().toLowerCase()) {
+                case "username" -> username = i;
+                case "email" -> email = i;
+                case "password" -> password = i;
+                case "role" -> role = i;
+                case "enabled" -> enabled = i;
+                default -> { }      // 忽略不认识的列
+            }
+        }
+        if (username < 0 || email < 0 || password < 0) {
+            throw new IllegalArgumentException("CSV 表头必须包含 username、email、password 列");
+        }
+        return new CsvRecordParser(username, email, password, role, enabled);
+    }
+
+    /**
+     * 解析一行数据
+     * @throws IllegalArgumentException 列数不够或 enabled 不是 true / false 时
+     */
+    User parse(byte[] bytes, int offset, int length) {
+        List<String> fields = split(new String(bytes, offset, length, StandardCharsets.UTF_8));
+        int required = Math.max(usernameColumn, Math.max(emailColumn, passwordColumn));
+        if (fields.size() <= required) {
+            throw new IllegalArgumentException("列数不足: 期望至少 " + (required + 1) + " 列，实际 " + fields.size() + " 列");
+        }
+        User user = new User();
+        user.setUsername(fields.get(usernameColumn));
+        user.setEmail(fields.get(emailColumn));
+        user.setPassword(fields.get(passwordColumn));
+        String role = optional(fields, roleColumn);
+        user.setRole(role.isEmpty() ? null : role);
+        String enabled = optional(fields, enabledColumn);
+        if (!enabled.isEmpty()) {
+            if (!enabled.equalsIgnoreCase("true") && !enabled.equalsIgnoreCase("false")) {
+                throw new IllegalArgumentException("enabled 只能是 true 或 false: " + enabled);
+            }
+            user.setEnabled(Boolean.parseBoolean(enabled));
+        }
+        return user;
+    }
+
+    // 可选列的值，没有这一列时返回空串
+    private static String optional(List<String> fields, int column) {
+        return column >= 0 && column < fields.size() ? fields.get(column).trim() : "";
+    }
+
+    // 按逗号拆分字段，处理引号
+    static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');      // "" 表示一个双引号
+                        i++;
+                    }
+                    else {
+                        quoted = false;
+                    }
+                }
+                else {
+                    field.append(c);
+                }
+            }
+            else if (c == '"') {
+                quoted = true;
+            }
+            else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            }
+            else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String stripBom(String line) {
+        return !line.isEmpty() && line.charAt(0) == '\uFEFF' ? line.substring(1) : line;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.backendpractice.importer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * 导入断点
+ * 每提交完一个批次就记录一次：已处理到的字节位置、行号和累计的成功/失败数。
+ * 导入中断后再次导入同一个文件（文件大小不变）时从断点继续
+ */
+final class ImportCheckpoint {
+
+    private final long fileSize;
+    private final long offset;
+    private final long lineNumber;
+    private final long imported;
+    private final long failed;
+
+    ImportCheckpoint(long fileSize, long offset, long lineNumber, long imported, long failed) {
+        this.fileSize = fileSize;
+        this.offset = offset;
+        this.lineNumber = lineNumber;
+        this.imported = imported;
+        this.failed = failed;
+    }
+
+    long getFileSize() {
+        return fileSize;
+    }
+
+    long getOffset() {
+        return offset;
+    }
+
+    long getLineNumber() {
+        return lineNumber;
+    }
+
+    long getImported() {
+        return imported;
+    }
+
+    long getFailed() {
+        return failed;
+    }
+
+    static Optional<ImportCheckpoint> load(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return Optional.empty();
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(path)) {
+            properties.load(in);
+        }
+        return Optional.of(new ImportCheckpoint(
+                Long.parseLong(properties.getProperty("fileSize")),
+                Long.parseLong(properties.getProperty("offset")),
+                Long.parseLong(properties.getProperty("lineNumber")),
+                Long.parseLong(properties.getProperty("imported")),
+                Long.parseLong(properties.getProperty("failed"))));
+    }
+
+    /**
+     * 先写临时文件再原子替换，进程在写入过程中崩溃也不会留下损坏的断点
+     */
+    void save(Path path) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("fileSize", String.valueOf(fileSize));
+        properties.setProperty("offset", String.valueOf(offset));
+        properties.setProperty("lineNumber", String.valueOf(lineNumber));
+        properties.setProperty("imported", String.valueOf(imported));
+        properties.setProperty("failed", String.valueOf(failed));
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            properties.store(out, "user import checkpoint");
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.backendpractice.importer;
+
+import java.time.Duration;
+
+/**
+ * 导入结果
+ */
+public class ImportReport {
+
+    private final String file;
+    private final boolean resumed;
+    private final long lines;
+    private final long imported;
+    private final long failed;
+    private final Duration elapsed;
+
+    public ImportReport(String file, boolean resumed, long lines, long imported, long failed, Duration elapsed) {
+        this.file = file;
+        this.resumed = resumed;
+        this.lines = lines;
+        this.imported = imported;
+        this.failed = failed;
+        this.elapsed = elapsed;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    // 是否从断点继续
+    public boolean isResumed() {
+        return resumed;
+    }
+
+    // 已处理的总行数（包括表头和之前中断前处理的部分）
+    public long getLines() {
+        return lines;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    // 本次运行的耗时
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportReport{" + "file=" + file + ", resumed=" + resumed + ", lines=" + lines
+                + ", imported=" + imported + ", failed=" + failed + ", elapsed=" + elapsed + "}";
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.backendpractice.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 基于 NIO 的按行读取器
+ * 用一个大缓冲区从 FileChannel 批量读取字节，直接在字节数组上查找换行符，
+ * 不逐行创建 String，也不使用正则；返回的行是缓冲区上的视图，只在下一次调用 next 之前有效
+ */
+final class UserFileReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 20;    // 1 MiB
+
+    private final FileChannel channel;
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    private long bufferFileOffset;      // buffer[0] 在文件中的位置
+    private int start;                  // 下一行的起始位置
+    private int scanFrom;               // 从这里开始继续找换行符
+    private int end;                    // 缓冲区中有效数据的结束位置
+    private boolean eof;
+
+    private int lineOffset;
+    private int lineLength;
+
+    /**
+     * @param file 文件
+     * @param startOffset 从这个字节位置开始读（断点续传时使用）
+     */
+    UserFileReader(Path file, long startOffset) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.channel.position(startOffset);
+        this.bufferFileOffset = startOffset;
+    }
+
+    /**
+     * 读取下一行（不含 \r\n）
+     * @return 是否读到一行，文件结束时返回 false
+     */
+    boolean next() throws IOException {
+        while (true) {
+            for (int i = scanFrom; i < end; i++) {
+                if (buffer[i] == '\n') {
+                    setLine(start, i);
+                    start = i + 1;
+                    scanFrom = start;
+                    return true;
+                }
+            }
+            scanFrom = end;
+
+            if (eof) {
+                if (start < end) {
+                    setLine(start, end);    // 最后一行没有换行符
+                    start = end;
+                    return true;
+                }
+                return false;
+            }
+            fill();
+        }
+    }
+
+    // 当前行所在的数组（缓冲区本身）
+    byte[] lineBytes() {
+        return buffer;
+    }
+
+    int lineOffset() {
+        return lineOffset;
+    }
+
+    int lineLength() {
+        return lineLength;
+    }
+
+    /**
+     * 已经读完的行之后的字节位置，可作为断点
+     */
+    long position() {
+        return bufferFileOffset + start;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void setLine(int from, int newline) {
+        int to = newline;
+        if (to > from && buffer[to - 1] == '\r') {
+            to--;
+        }
+        lineOffset = from;
+        lineLength = to - from;
+    }
+
+    // 把未处理的数据移到缓冲区开头，再从文件读入更多数据；一行比缓冲区还长时扩容
+    private void fill() throws IOException {
+        if (start > 0) {
+            System.arraycopy(buffer, start, buffer, 0, end - start);
+            bufferFileOffset += start;
+            end -= start;
+            scanFrom -= start;
+            start = 0;
+        }
+        if (end == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        int read = channel.read(ByteBuffer.wrap(buffer, end, buffer.length - end));
+        if (read < 0) {
+            eof = true;
+        }
+        else {
+            end += read;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.backendpractice.importer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * 启动时导入用户
+ * 用法：java -jar backend-practice.jar --app.import.file=/data/users.csv [--app.import.exit=true]
+ * - app.import.file 为空时什么也不做
+ * - app.import.exit=true 时导入结束后退出（作为一次性的管理命令），有失败记录时退出码为 1
+ */
+@Component
+public class UserImportRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportRunner.class);
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Value("${app.import.file:}")
+    private String importFile;
+
+    @Value("${app.import.exit:false}")
+    private boolean exitAfterImport;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (importFile == null || importFile.isBlank()) {
+            return;
+        }
+
+        ImportReport report = userImportService.importFile(Path.of(importFile));
+        logger.info("用户导入结束: 成功 {}, 失败 {}, 耗时 {}", report.getImported(), report.getFailed(), report.getElapsed());
+
+        if (exitAfterImport) {
+            int exitCode = SpringApplication.exit(context, () -> report.getFailed() == 0 ? 0 : 1);
+            System.exit(exitCode);
+        }
+    }
+}
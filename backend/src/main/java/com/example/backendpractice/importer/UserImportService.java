@@ -0,0 +1,339 @@
+package com.example.backendpractice.importer;
+
+import com.example.backendpractice.dto.BatchItemResult;
+import com.example.backendpractice.entity.User;
+import com.example.backendpractice.service.PasswordHashingRejectedException;
+import com.example.backendpractice.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户批量导入（CSV / NDJSON 本地文件）
+ * 流水线分两段：
+ * - 读取线程（调用方线程）：NIO 按行读取并解析，每 chunkSize 行组成一个批次
+ * - 处理线程：对批次调用 UserService.importUsers（保留文件中的角色和启用状态；校验、查重、并行加密、JDBC 批量写入），
+ *   然后写断点文件、失败记录和进度日志
+ *   批次大小不超过 UserService.INSERT_BATCH_SIZE，所以一个批次正好是一条 JDBC 批处理、一个事务，
+ *   崩溃时不会只提交半个批次
+ * 两段之间最多积压 2 个批次，读取不会无限领先于写入
+ *
+ * 旁路文件（与导入文件放在同一目录）：
+ * - xxx.checkpoint 断点，导入成功结束后删除；再次导入同一文件时从断点继续
+ * - xxx.rejected   失败的行号和原因
+ * 批次和并发请求发生邮箱冲突时会改为逐行写入（每行一个事务），只有这时崩溃才可能提交了批次中的一部分行，
+ * 这些行在续传时会因为邮箱已存在而记为失败，不会重复写入
+ */
+@Service
+public class UserImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportService.class);
+
+    private static final int MAX_IN_FLIGHT_CHUNKS = 2;
+    private static final int MAX_REJECTED_RETRIES = 30;
+
+    private final UserService userService;
+    private final ObjectReader ndjsonReader;
+    private final int chunkSize;
+
+    public UserImportService(UserService userService, ObjectMapper objectMapper,
+                             @Value("${app.import.chunk-size:500}") int chunkSize) {
+        if (chunkSize < 1 || chunkSize > UserService.INSERT_BATCH_SIZE) {
+            throw new IllegalArgumentException("app.import.chunk-size 必须在 1 到 " + UserService.INSERT_BATCH_SIZE + " 之间");
+        }
+        this.userService = userService;
+        this.ndjsonReader = objectMapper.readerFor(User.class);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * 导入文件，格式由扩展名决定（.csv 为 CSV，.ndjson / .jsonl / .json 为 NDJSON）
+     * @param file 文件路径
+     * @return 导入结果
+     */
+    public ImportReport importFile(Path file) throws IOException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        boolean csv = name.endsWith(".csv");
+        if (!csv && !name.endsWith(".ndjson") && !name.endsWith(".jsonl") && !name.endsWith(".json")) {
+            throw new IllegalArgumentException("不支持的文件格式: " + file.getFileName() + "（支持 .csv / .ndjson / .jsonl）");
+        }
+
+        Path checkpointFile = file.resolveSibling(file.getFileName() + ".checkpoint");
+        Path rejectedFile = file.resolveSibling(file.getFileName() + ".rejected");
+        long fileSize = Files.size(file);
+
+        // 1.读取 CSV 表头
+        CsvRecordParser csvParser = null;
+        long startOffset = 0;
+        long lineNumber = 0;
+        if (csv) {
+            try (UserFileReader headerReader = new UserFileReader(file, 0)) {
+                if (!headerReader.next()) {
+                    throw new IllegalArgumentException("CSV 文件为空: " + file);
+                }
+                csvParser = CsvRecordParser.fromHeader(new String(headerReader.lineBytes(),
+                        headerReader.lineOffset(), headerReader.lineLength(), StandardCharsets.UTF_8));
+                startOffset = headerReader.position();
+                lineNumber = 1;
+            }
+        }
+
+        // 2.查找断点（文件大小变化说明文件被替换，不续传）
+        ImportState state = new ImportState(file, fileSize, checkpointFile);
+        ImportCheckpoint checkpoint = ImportCheckpoint.load(checkpointFile)
+                .filter(saved -> saved.getFileSize() == fileSize)
+                .orElse(null);
+        if (checkpoint != null) {
+            startOffset = checkpoint.getOffset();
+            lineNumber = checkpoint.getLineNumber();
+            state.imported = checkpoint.getImported();
+            state.failed = checkpoint.getFailed();
+            logger.info("从断点继续导入 {}: 第 {} 行之后（字节位置 {}）", file, lineNumber, startOffset);
+        }
+        else {
+            Files.deleteIfExists(rejectedFile);
+            logger.info("开始导入 {}: {} 字节, 每批 {} 行", file, fileSize, chunkSize);
+        }
+        state.startCount = state.imported + state.failed;
+
+        // 3.读取、解析并交给处理线程
+        ExecutorService processor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "user-import"));
+        Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT_CHUNKS);
+        List<Future<?>> pending = new ArrayList<>();
+        try (UserFileReader reader = new UserFileReader(file, startOffset);
+             BufferedWriter rejected = Files.newBufferedWriter(rejectedFile, StandardCharsets.UTF_8,
+                     StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            state.rejected = rejected;
+
+            Chunk chunk = new Chunk(chunkSize);
+            while (reader.next()) {
+                lineNumber++;
+                if (reader.lineLength() == 0) {
+                    continue;       // 跳过空行
+                }
+                try {
+                    User user = csv
+                            ? csvParser.parse(reader.lineBytes(), reader.lineOffset(), reader.lineLength())
+                            : ndjsonReader.readValue(reader.lineBytes(), reader.lineOffset(), reader.lineLength());
+                    chunk.add(user, lineNumber);
+                }
+                catch (IllegalArgumentException | IOException e) {
+                    chunk.reject(lineNumber, "格式错误: " + e.getMessage());
+                }
+
+                if (chunk.size() >= chunkSize) {
+                    chunk.close(reader.position(), lineNumber);
+                    submit(processor, inFlight, pending, chunk, state);
+                    chunk = new Chunk(chunkSize);
+                }
+            }
+            chunk.close(reader.position(), lineNumber);
+            submit(processor, inFlight, pending, chunk, state);
+
+            for (Future<?> future : pending) {
+                future.get();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("导入被中断，可以从断点继续", e);
+        }
+        catch (ExecutionException e) {
+            throw new IllegalStateException("导入失败，可以从断点继续: " + e.getCause().getMessage(), e.getCause());
+        }
+        finally {
+            processor.shutdownNow();
+        }
+
+        // 4.全部完成，删除断点
+        Files.deleteIfExists(checkpointFile);
+        if (state.failed == 0) {
+            Files.deleteIfExists(rejectedFile);
+        }
+        ImportReport report = new ImportReport(file.toString(), checkpoint != null, lineNumber,
+                state.imported, state.failed, state.elapsed());
+        logger.info("导入完成: {}", report);
+        return report;
+    }
+
+    private void submit(ExecutorService processor, Semaphore inFlight, List<Future<?>> pending,
+                        Chunk chunk, ImportState state) throws InterruptedException, ExecutionException {
+        // 处理线程已经失败时不再继续读取
+        for (Future<?> future : pending) {
+            if (future.isDone()) {
+                future.get();
+            }
+        }
+        pending.removeIf(Future::isDone);
+
+        inFlight.acquire();
+        try {
+            pending.add(processor.submit(() -> {
+                try {
+                    if (!state.aborted) {
+                        process(chunk, state);
+                    }
+                }
+                catch (RuntimeException e) {
+                    state.aborted = true;
+                    throw e;
+                }
+                finally {
+                    inFlight.release();
+                }
+            }));
+        }
+        catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 处理一个批次（只在处理线程中执行）
+     */
+    private void process(Chunk chunk, ImportState state) {
+        try {
+            if (!chunk.users.isEmpty()) {
+                List<BatchItemResult> results = createWithRetry(chunk.users);
+                for (BatchItemResult result : results) {
+                    if (result.isSuccess()) {
+                        state.imported++;
+                    }
+                    else {
+                        state.failed++;
+                        writeRejected(state, chunk.lineNumbers.get(result.getIndex()), result.getMessage());
+                    }
+                }
+            }
+            for (int i = 0; i < chunk.rejectedLines.size(); i++) {
+                state.failed++;
+                writeRejected(state, chunk.rejectedLines.get(i), chunk.rejectedMessages.get(i));
+            }
+            state.rejected.flush();
+
+            new ImportCheckpoint(state.fileSize, chunk.endOffset, chunk.endLine, state.imported, state.failed)
+                    .save(state.checkpointFile);
+            state.logProgress(chunk.endOffset, chunk.endLine);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // 密码哈希线程池繁忙时等待后重试，导入不应该因为短暂的登录高峰失败
+    private List<BatchItemResult> createWithRetry(List<User> users) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return userService.importUsers(users);
+            }
+            catch (PasswordHashingRejectedException e) {
+                if (attempt >= MAX_REJECTED_RETRIES) {
+                    throw e;
+                }
+                logger.debug("密码哈希线程池繁忙，{} 秒后重试", e.getRetryAfterSeconds());
+                try {
+                    TimeUnit.SECONDS.sleep(Math.max(1, e.getRetryAfterSeconds()));
+                }
+                catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("导入被中断", ie);
+                }
+            }
+        }
+    }
+
+    private static void writeRejected(ImportState state, long lineNumber, String message) throws IOException {
+        state.rejected.write(lineNumber + "\t" + message);
+        state.rejected.newLine();
+    }
+
+    // 一个批次：解析成功的用户及其行号、解析失败的行
+    private static final class Chunk {
+        private final List<User> users;
+        private final List<Long> lineNumbers;
+        private final List<Long> rejectedLines = new ArrayList<>();
+        private final List<String> rejectedMessages = new ArrayList<>();
+        private long endOffset;
+        private long endLine;
+
+        private Chunk(int capacity) {
+            this.users = new ArrayList<>(capacity);
+            this.lineNumbers = new ArrayList<>(capacity);
+        }
+
+        private void add(User user, long lineNumber) {
+            users.add(user);
+            lineNumbers.add(lineNumber);
+        }
+
+        private void reject(long lineNumber, String message) {
+            rejectedLines.add(lineNumber);
+            rejectedMessages.add(message);
+        }
+
+        private int size() {
+            return users.size() + rejectedLines.size();
+        }
+
+        // 记录批次结束的位置，作为提交后的断点
+        private void close(long endOffset, long endLine) {
+            this.endOffset = endOffset;
+            this.endLine = endLine;
+        }
+    }
+
+    // 导入过程中的状态（计数只由处理线程修改，读取线程在 Future.get 之后读取）
+    private static final class ImportState {
+        private final Path file;
+        private final long fileSize;
+        private final Path checkpointFile;
+        private final long startNanos = System.nanoTime();
+        private BufferedWriter rejected;
+        private long startCount;
+        private long imported;
+        private long failed;
+        // 有批次失败后，已经排队的后续批次不能再执行，否则断点会越过失败的批次（只在处理线程中读写）
+        private boolean aborted;
+
+        private ImportState(Path file, long fileSize, Path checkpointFile) {
+            this.file = file;
+            this.fileSize = fileSize;
+            this.checkpointFile = checkpointFile;
+        }
+
+        private Duration elapsed() {
+            return Duration.ofNanos(System.nanoTime() - startNanos);
+        }
+
+        private void logProgress(long offset, long lineNumber) {
+            double seconds = Math.max(elapsed().toNanos() / 1e9, 1e-3);
+            double rate = (imported + failed - startCount) / seconds;
+            double percent = fileSize == 0 ? 100.0 : offset * 100.0 / fileSize;
+            logger.info("导入进度 {}: {}%, 第 {} 行, 成功 {}, 失败 {}, {} 行/秒",
+                    file.getFileName(), String.format("%.1f", percent), lineNumber, imported, failed,
+                    String.format("%.0f", rate));
+        }
+    }
+}
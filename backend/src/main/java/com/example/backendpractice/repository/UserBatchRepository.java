@@ -0,0 +1,71 @@
+package com.example.backendpractice.repository;
+
+import com.example.backendpractice.entity.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 用户批量写入
+ * User 使用 IDENTITY 主键，Hibernate 会因此关闭插入批处理，所以批量创建直接走 JDBC 批处理：
+ * 一批语句一次发给数据库（MySQL 连接串开启了 rewriteBatchedStatements，会合并成多行 INSERT），
+ * 自增主键通过 getGeneratedKeys 一次取回
+ */
+@Repository
+public class UserBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO users (username, email, password, role, enabled, created_at, version, token_version) VALUES (?, ?, ?, ?, ?, ?, 0, 0)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * 在一个事务中批量插入用户，并把生成的主键回填到 ID 列表
+     * @param users 待插入的用户（密码已加密、默认值已设置）
+     * @return 与 users 顺序一致的新用户 ID
+     */
+    @Transactional
+    public List<Long> insertAll(List<User> users) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, new String[] {"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        User user = users.get(i);
+                        ps.setString(1, user.getUsername());
+                        ps.setString(2, user.getEmail());
+                        ps.setString(3, user.getPassword());
+                        ps.setString(4, user.getRole());
+                        ps.setBoolean(5, user.isEnabled());
+                        ps.setTimestamp(6, Timestamp.valueOf(user.getCreatedAt()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return users.size();
+                    }
+                },
+                keyHolder);
+
+        List<Long> ids = new ArrayList<>(users.size());
+        for (Map<String, Object> keys : keyHolder.getKeyList()) {
+            // 不同驱动返回的键名不同（id / ID / GENERATED_KEY），取第一个值即可
+            Number id = (Number) keys.values().iterator().next();
+            ids.add(id.longValue());
+        }
+        return ids;
+    }
+}
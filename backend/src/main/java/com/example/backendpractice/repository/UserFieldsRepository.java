@@ -0,0 +1,30 @@
+package com.example.backendpractice.repository;
+
+import com.example.backendpractice.dto.UserField;
+import com.example.backendpractice.dto.UserFieldsView;
+import com.example.backendpractice.util.PageCursor;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 按需选择列的用户查询（UserRepository 的自定义片段）
+ * SELECT 子句只包含请求的列，不加载实体，也不会读取密码列
+ */
+public interface UserFieldsRepository {
+
+    /**
+     * 查询一页用户的部分字段（keyset 分页）
+     * @param fields 需要返回的字段
+     * @param sort 排序字段：id 或 createdAt
+     * @param descending 是否降序
+     * @param after 上一页最后一行的游标，第一页为 null
+     * @param limit 最多返回的行数，小于等于 0 时不限制
+     */
+    List<UserFieldsView> findFields(List<UserField> fields, String sort, boolean descending, PageCursor after, int limit);
+
+    /**
+     * 根据 ID 查询用户的部分字段
+     */
+    Optional<UserFieldsView> findFieldsById(Long id, List<UserField> fields);
+}
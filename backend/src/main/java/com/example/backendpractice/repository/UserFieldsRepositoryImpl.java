@@ -0,0 +1,103 @@
+package com.example.backendpractice.repository;
+
+import com.example.backendpractice.dto.UserField;
+import com.example.backendpractice.dto.UserFieldsView;
+import com.example.backendpractice.entity.User;
+import com.example.backendpractice.util.PageCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * UserFieldsRepository 的实现：用 Criteria API 的 multiselect 动态生成 SELECT 列表
+ * 字段组合是任意的，无法为每种组合都定义一个投影接口，所以这里按请求拼出查询，
+ * 每行结果是一个 Object[]，直接包装成 UserFieldsView
+ */
+@Transactional(readOnly = true)
+public class UserFieldsRepositoryImpl implements UserFieldsRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<UserFieldsView> findFields(List<UserField> fields, String sort, boolean descending, PageCursor after, int limit) {
+        boolean byCreatedAt = "createdAt".equals(sort);
+
+        // 生成下一页游标需要 id（按 createdAt 排序时还需要 createdAt），没有请求时额外查询
+        List<UserField> columns = new ArrayList<>(fields);
+        if (!columns.contains(UserField.ID)) {
+            columns.add(UserField.ID);
+        }
+        if (byCreatedAt && !columns.contains(UserField.CREATED_AT)) {
+            columns.add(UserField.CREATED_AT);
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<User> user = query.from(User.class);
+        query.multiselect(selections(user, columns));
+
+        Expression<Long> id = user.get("id");
+        Expression<LocalDateTime> createdAt = user.get("createdAt");
+        if (after != null) {
+            Predicate afterId = descending ? cb.lessThan(id, after.getId()) : cb.greaterThan(id, after.getId());
+            if (byCreatedAt) {
+                Predicate afterCreatedAt = descending
+                        ? cb.lessThan(createdAt, after.getCreatedAt())
+                        : cb.greaterThan(createdAt, after.getCreatedAt());
+                query.where(cb.or(afterCreatedAt, cb.and(cb.equal(createdAt, after.getCreatedAt()), afterId)));
+            }
+            else {
+                query.where(afterId);
+            }
+        }
+        if (byCreatedAt) {
+            query.orderBy(descending ? cb.desc(createdAt) : cb.asc(createdAt), descending ? cb.desc(id) : cb.asc(id));
+        }
+        else {
+            query.orderBy(descending ? cb.desc(id) : cb.asc(id));
+        }
+
+        TypedQuery<Object[]> typedQuery = entityManager.createQuery(query);
+        if (limit > 0) {
+            typedQuery.setMaxResults(limit);
+        }
+        List<Object[]> rows = typedQuery.getResultList();
+        List<UserFieldsView> views = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            views.add(new UserFieldsView(fields, columns, row));
+        }
+        return views;
+    }
+
+    @Override
+    public Optional<UserFieldsView> findFieldsById(Long id, List<UserField> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<User> user = query.from(User.class);
+        query.multiselect(selections(user, fields)).where(cb.equal(user.get("id"), id));
+
+        List<Object[]> rows = entityManager.createQuery(query).getResultList();
+        return rows.isEmpty() ? Optional.empty() : Optional.of(new UserFieldsView(fields, fields, rows.get(0)));
+    }
+
+    private static List<Selection<?>> selections(Root<User> user, List<UserField> columns) {
+        List<Selection<?>> selections = new ArrayList<>(columns.size());
+        for (UserField column : columns) {
+            selections.add(user.get(column.getProperty()));
+        }
+        return selections;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.backendpractice.repository;
+
+/**
+ * 用户的自然键投影（只查询用户名和邮箱两列）
+ */
+public interface UserNaturalKeys {
+
+    String getUsername();
+
+    String getEmail();
+}
@@ -0,0 +1,24 @@
+package com.example.backendpractice.repository;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+/**
+ * 按字段更新用户（UserRepository 的自定义片段）
+ * 不先加载实体，直接执行一条 UPDATE，只 SET 传入的列
+ */
+public interface UserPatchRepository {
+
+    /**
+     * 带版本检查的部分更新：UPDATE users SET ..., version = version + 1 WHERE id = ? AND version = ?
+     * 覆盖 UserRepository 上的只读事务，在读写事务中执行
+     * @param id 用户 ID
+     * @param expectedVersion 客户端读取到的版本号
+     * @param values 实体属性名 -> 新值（不能为空）
+     * @param revokeTokens 是否同时把 tokenVersion 加 1（让已签发的 Token 失效）
+     * @return 更新的行数：0 表示用户不存在或版本不一致
+     */
+    @Transactional
+    int patch(Long id, long expectedVersion, Map<String, Object> values, boolean revokeTokens);
+}
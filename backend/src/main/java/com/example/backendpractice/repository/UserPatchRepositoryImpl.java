@@ -0,0 +1,39 @@
+package com.example.backendpractice.repository;
+
+import com.example.backendpractice.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Root;
+
+import java.util.Map;
+
+/**
+ * UserPatchRepository 的实现：用 Criteria API 的 CriteriaUpdate 按传入的字段拼出 UPDATE
+ * 批量更新语句不经过持久化上下文，已加载的 User 实体不会自动刷新
+ */
+public class UserPatchRepositoryImpl implements UserPatchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public int patch(Long id, long expectedVersion, Map<String, Object> values, boolean revokeTokens) {
+        if (values.isEmpty()) {
+            throw new IllegalArgumentException("没有需要更新的字段！");
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<User> update = cb.createCriteriaUpdate(User.class);
+        Root<User> user = update.from(User.class);
+        values.forEach(update::set);
+        update.set(user.<Long>get("version"), cb.sum(user.<Long>get("version"), 1L));
+        if (revokeTokens) {
+            update.set(user.<Integer>get("tokenVersion"), cb.sum(user.<Integer>get("tokenVersion"), 1));
+        }
+        update.where(cb.equal(user.get("id"), id), cb.equal(user.get("version"), expectedVersion));
+
+        return entityManager.createQuery(update).executeUpdate();
+    }
+}
@@ -2,13 +2,27 @@ package com.example.backendpractice.repository;
 
 import java.util.Optional;
 import com.example.backendpractice.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+
+// 查询方法默认在只读事务中执行（开启读写分离时会走从库）；save、delete 等继承的方法保持原来的读写事务
 @Repository
-public interface UserRepository extends JpaRepository<User, Long>{
+@Transactional(readOnly = true)
+public interface UserRepository extends JpaRepository<User, Long>, UserFieldsRepository, UserPatchRepository {
     // Spring会自动提供以下基本方法：
     // save(User user) - 保存或更新用户
     // findById(Long id) - 根据ID查找用户
@@ -39,4 +53,85 @@ public interface UserRepository extends JpaRepository<User, Long>{
 
     // 根据邮箱查找用户
     Optional<User> findByEmail(String email);
-}
\ No newline at end of file
+
+    // 存在性检查（只需要知道有没有，不加载实体）
+    boolean existsByUsername(String username);
+
+    boolean existsByEmail(String email);
+
+    // 在给定邮箱中找出已经存在的（批量创建时一次查询代替逐个 findByEmail）
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    // 在给定 ID 中找出存在的（批量删除时只处理实际存在的用户）
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Keyset 分页查询
+    // 排序由 Pageable 中的 Sort 指定，返回 List 而不是 Page，避免额外的 count 查询
+    // 条件直接从上一页最后一行的排序键开始，不使用 OFFSET，翻到多深都只扫描一页数据
+
+    // 第一页
+    @Query("SELECT u FROM User u")
+    List<User> findPage(Pageable pageable);
+
+    // 按 id 升序的后续页
+    @Query("SELECT u FROM User u WHERE u.id > :id")
+    List<User> findPageAfterId(@Param("id") Long id, Pageable pageable);
+
+    // 按 id 降序的后续页
+    @Query("SELECT u FROM User u WHERE u.id < :id")
+    List<User> findPageBeforeId(@Param("id") Long id, Pageable pageable);
+
+    // 按 (createdAt, id) 升序的后续页
+    @Query("SELECT u FROM User u WHERE u.createdAt > :createdAt OR (u.createdAt = :createdAt AND u.id > :id)")
+    List<User> findPageAfterCreatedAt(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    // 按 (createdAt, id) 降序的后续页
+    @Query("SELECT u FROM User u WHERE u.createdAt < :createdAt OR (u.createdAt = :createdAt AND u.id < :id)")
+    List<User> findPageBeforeCreatedAt(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    // 按 ID 删除，返回删除的行数（0 表示用户不存在）
+    // 继承的 deleteById 会先 findById 加载实体再删除，这里直接执行一条 DELETE
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM User u WHERE u.id = :id")
+    int deleteUserById(@Param("id") Long id);
+
+    // 批量删除给定 ID 的用户，返回删除的行数（调用方负责把 ID 列表分段，避免 IN 列表过长）
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM User u WHERE u.id IN :ids")
+    int deleteUsersByIds(@Param("ids") Collection<Long> ids);
+
+    // Token 版本号大于 0 的用户（启动时加载到 TokenVersionRegistry，大多数用户的版本号是 0，不需要加载）
+    @Query("SELECT u.id AS id, u.tokenVersion AS tokenVersion FROM User u WHERE u.tokenVersion > 0")
+    List<UserTokenVersion> findRevokedTokenVersions();
+
+    // 流式读取全部用户（按 id 升序）
+    // 通过 JDBC fetch size（每批 1000 行）从游标中分批取行，不会把整张表一次性加载到内存
+    // 只读提示让 Hibernate 不保存快照；调用方必须在事务中使用，并在用完后关闭 Stream
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT u FROM User u ORDER BY u.id")
+    Stream<User> streamAll();
+
+    // 流式读取所有用户名和邮箱（构建布隆过滤器时使用，只查两列）
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u.username AS username, u.email AS email FROM User u")
+    Stream<UserNaturalKeys> streamNaturalKeys();
+
+    // 流式读取搜索索引需要的列（构建 UserSearchIndex 时使用）
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u.id AS id, u.username AS username, u.email AS email, u.version AS version FROM User u")
+    Stream<UserSearchKeys> streamSearchKeys();
+}
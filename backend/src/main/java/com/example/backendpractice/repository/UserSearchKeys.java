@@ -0,0 +1,15 @@
+package com.example.backendpractice.repository;
+
+/**
+ * 用户搜索索引投影（只查询 id、用户名、邮箱和版本号四列）
+ */
+public interface UserSearchKeys {
+
+    Long getId();
+
+    String getUsername();
+
+    String getEmail();
+
+    long getVersion();
+}
@@ -0,0 +1,11 @@
+package com.example.backendpractice.repository;
+
+/**
+ * 用户 Token 版本号投影（只查询 id 和 tokenVersion 两列）
+ */
+public interface UserTokenVersion {
+
+    Long getId();
+
+    int getTokenVersion();
+}
@@ -0,0 +1,12 @@
+package com.example.backendpractice.service;
+
+/**
+ * 非管理员尝试修改用户的角色或启用状态
+ * 控制器收到后应返回 403
+ */
+public class AdminRequiredException extends RuntimeException {
+
+    public AdminRequiredException() {
+        super("只有管理员可以修改用户的角色和启用状态！");
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.backendpractice.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * 幂等键记录（客户端通过 Idempotency-Key 请求头重试创建请求时，不会重复创建）
+ * - 第一次出现的键执行创建操作，成功后记录“请求指纹 -> 创建出的 ID”
+ * - 同一个键的重试直接返回记录的 ID；并发的重试等待第一个请求完成后拿到同一个结果
+ * - 创建失败（抛出异常）时不记录，客户端可以用同一个键重试
+ * 记录只保存在本机内存中，有容量上限和过期时间；多实例部署时需要让同一个客户端的请求落到同一个实例
+ * 创建操作在调用线程中执行，不会在缓存内部加锁时执行（BCrypt 加密比较慢）
+ */
+@Component
+public class IdempotencyStore {
+
+    // 同一个键对应的请求指纹（如邮箱）和创建结果
+    private record Entry(String fingerprint, Long id) {}
+
+    private final AsyncCache<String, Entry> entries;
+
+    public IdempotencyStore(@Value("${app.idempotency.max-size:100000}") long maxSize,
+                            @Value("${app.idempotency.ttl:24h}") Duration ttl) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .buildAsync();
+    }
+
+    /**
+     * 按幂等键执行创建操作
+     * @param key 幂等键
+     * @param fingerprint 请求指纹，同一个键只能用于指纹相同的请求
+     * @param create 创建操作，返回新记录的 ID
+     * @return 新建或之前记录的 ID
+     * @throws IllegalArgumentException 同一个键已用于另一个请求时
+     */
+    public Long execute(String key, String fingerprint, Supplier<Long> create) {
+        CompletableFuture<Entry> created = new CompletableFuture<>();
+        CompletableFuture<Entry> existing = entries.asMap().putIfAbsent(key, created);
+
+        if (existing == null) {
+            try {
+                Long id = create.get();
+                created.complete(new Entry(fingerprint, id));
+                return id;
+            }
+            catch (RuntimeException e) {
+                // 失败的结果不保留（Caffeine 会移除异常完成的 future），等待中的重试会收到同样的异常
+                created.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        Entry entry;
+        try {
+            entry = existing.join();
+        }
+        catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        if (!entry.fingerprint().equals(fingerprint)) {
+            throw new IllegalArgumentException("Idempotency-Key 已用于其他请求！");
+        }
+        return entry.id();
+    }
+}
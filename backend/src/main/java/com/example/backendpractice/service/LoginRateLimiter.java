@@ -0,0 +1,95 @@
+package com.example.backendpractice.service;
+
+import com.example.backendpractice.util.KeyedRateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * 登录限流
+ * 登录接口每次尝试都要查询用户并做一次 BCrypt 校验，撞库时会占满 CPU。
+ * 在做任何数据库查询和哈希计算之前，按客户端 IP 和用户名各用一个令牌桶限流：
+ * - IP 桶限制单个来源的总尝试次数
+ * - 用户名桶限制针对单个账户的猜测（来自多个 IP 的分布式撞库）
+ * 先检查 IP 桶，被拒绝时不消耗用户名桶的令牌
+ * 指标：auth.login.rate.limit（result=allowed / throttled，limit=ip / username）
+ */
+@Component
+public class LoginRateLimiter {
+
+    private final boolean enabled;
+    private final KeyedRateLimiter byIp;
+    private final KeyedRateLimiter byUsername;
+
+    private final Counter allowed;
+    private final Counter throttledByIp;
+    private final Counter throttledByUsername;
+
+    public LoginRateLimiter(MeterRegistry meterRegistry,
+                            @Value("${app.rate-limit.login.enabled:true}") boolean enabled,
+                            @Value("${app.rate-limit.login.ip.capacity:20}") int ipCapacity,
+                            @Value("${app.rate-limit.login.ip.refill-interval:1s}") Duration ipRefillInterval,
+                            @Value("${app.rate-limit.login.username.capacity:5}") int usernameCapacity,
+                            @Value("${app.rate-limit.login.username.refill-interval:10s}") Duration usernameRefillInterval,
+                            @Value("${app.rate-limit.login.max-keys:100000}") long maxKeys) {
+        this.enabled = enabled;
+        this.byIp = new KeyedRateLimiter(ipCapacity, ipRefillInterval, maxKeys);
+        this.byUsername = new KeyedRateLimiter(usernameCapacity, usernameRefillInterval, maxKeys);
+
+        this.allowed = counter(meterRegistry, "allowed", "none");
+        this.throttledByIp = counter(meterRegistry, "throttled", "ip");
+        this.throttledByUsername = counter(meterRegistry, "throttled", "username");
+        Gauge.builder("auth.login.rate.limit.keys", byIp, KeyedRateLimiter::size)
+                .description("登录限流桶数量")
+                .tag("limit", "ip")
+                .register(meterRegistry);
+        Gauge.builder("auth.login.rate.limit.keys", byUsername, KeyedRateLimiter::size)
+                .description("登录限流桶数量")
+                .tag("limit", "username")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 检查一次登录尝试是否允许
+     * @param clientIp 客户端 IP
+     * @param username 用户名（可以为 null，此时只按 IP 限流）
+     * @throws LoginThrottledException 超过限制时
+     */
+    public void check(String clientIp, String username) {
+        if (!enabled) {
+            return;
+        }
+        long wait = byIp.tryAcquire(clientIp);
+        if (wait > 0) {
+            throttledByIp.increment();
+            throw new LoginThrottledException(retryAfterSeconds(wait));
+        }
+        if (username != null) {
+            wait = byUsername.tryAcquire(username.trim().toLowerCase(Locale.ROOT));
+            if (wait > 0) {
+                throttledByUsername.increment();
+                throw new LoginThrottledException(retryAfterSeconds(wait));
+            }
+        }
+        allowed.increment();
+    }
+
+    // 向上取整到秒，至少 1 秒
+    private static int retryAfterSeconds(long waitNanos) {
+        long seconds = (waitNanos + 999_999_999L) / 1_000_000_000L;
+        return (int) Math.max(1, Math.min(seconds, Integer.MAX_VALUE));
+    }
+
+    private static Counter counter(MeterRegistry registry, String result, String limit) {
+        return Counter.builder("auth.login.rate.limit")
+                .description("登录限流检查次数")
+                .tag("result", result)
+                .tag("limit", limit)
+                .register(registry);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.backendpractice.service;
+
+/**
+ * 登录尝试过于频繁时抛出
+ * 控制器收到后应返回 429 并带上 Retry-After 头
+ */
+public class LoginThrottledException extends RuntimeException {
+
+    private final int retryAfterSeconds;
+
+    public LoginThrottledException(int retryAfterSeconds) {
+        super("登录尝试过于频繁，请稍后再试");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
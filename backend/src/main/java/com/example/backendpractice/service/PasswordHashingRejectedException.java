@@ -0,0 +1,19 @@
+package com.example.backendpractice.service;
+
+/**
+ * 密码哈希线程池已满时抛出
+ * 控制器收到后应返回 503 并带上 Retry-After 头，让客户端稍后重试
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    private final int retryAfterSeconds;
+
+    public PasswordHashingRejectedException(int retryAfterSeconds) {
+        super("服务繁忙，请稍后重试");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
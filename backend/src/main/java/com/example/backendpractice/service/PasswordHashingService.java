@@ -0,0 +1,201 @@
+package com.example.backendpractice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 带准入控制的密码哈希服务
+ * BCrypt 是故意设计得很慢的 CPU 密集型操作，直接在 Tomcat 请求线程上执行时，登录洪峰会占满所有 CPU，
+ * 拖慢其他所有接口。这里把 encode / matches 交给独立的固定大小线程池执行：
+ * - 线程数默认等于 CPU 核数，同时进行的哈希计算不会超过核数
+ * - 等待队列有上限，队列满时立即抛出 PasswordHashingRejectedException（对应 503 + Retry-After），不再排队
+ * 指标：password.hashing.queue.depth、password.hashing.active、password.hashing.duration、password.hashing.rejected
+ */
+public class PasswordHashingService implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final int poolSize;
+    private final int retryAfterSeconds;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejectedCounter;
+
+    /**
+     * @param delegate 实际执行哈希的编码器（如 BCryptPasswordEncoder）
+     * @param threads 线程数，小于 1 时使用 CPU 核数
+     * @param queueCapacity 等待队列容量
+     * @param retryAfterSeconds 拒绝时建议客户端等待的秒数
+     * @param meterRegistry 指标注册表
+     */
+    public PasswordHashingService(PasswordEncoder delegate, int threads, int queueCapacity,
+                                  int retryAfterSeconds, MeterRegistry meterRegistry) {
+        int poolSize = threads < 1 ? Runtime.getRuntime().availableProcessors() : threads;
+        this.delegate = delegate;
+        this.poolSize = poolSize;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.prestartAllCoreThreads();
+
+        this.encodeTimer = Timer.builder("password.hashing.duration")
+                .description("密码哈希耗时（含排队时间）")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("password.hashing.duration")
+                .description("密码哈希耗时（含排队时间）")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("password.hashing.rejected")
+                .description("因队列已满被拒绝的哈希请求数")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.queue.depth", executor, e -> e.getQueue().size())
+                .description("等待执行的哈希请求数")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("正在执行的哈希请求数")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * 并行加密一批密码（批量创建用户时使用）
+     * 同时在执行的任务数不超过线程数，不会占满等待队列，单个登录请求仍然可以排进来
+     * @param rawPasswords 明文密码
+     * @return 与输入顺序一致的加密结果
+     * @throws PasswordHashingRejectedException 等待队列已满时
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        Semaphore inFlight = new Semaphore(poolSize);
+        List<Future<String>> futures = new ArrayList<>(rawPasswords.size());
+        try {
+            for (CharSequence rawPassword : rawPasswords) {
+                inFlight.acquire();
+                try {
+                    futures.add(executor.submit(() -> {
+                        long start = System.nanoTime();
+                        try {
+                            return delegate.encode(rawPassword);
+                        }
+                        finally {
+                            encodeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                            inFlight.release();
+                        }
+                    }));
+                }
+                catch (RejectedExecutionException e) {
+                    inFlight.release();
+                    futures.forEach(future -> future.cancel(true));
+                    rejectedCounter.increment();
+                    throw new PasswordHashingRejectedException(retryAfterSeconds);
+                }
+            }
+
+            List<String> encoded = new ArrayList<>(futures.size());
+            for (Future<String> future : futures) {
+                encoded.add(await(future));
+            }
+            return encoded;
+        }
+        catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("密码哈希被中断", e);
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * 当前排队等待的请求数
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * 关闭线程池（由 Spring 在容器关闭时调用）
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T submit(Timer timer, Callable<T> task) {
+        long start = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        }
+        catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new PasswordHashingRejectedException(retryAfterSeconds);
+        }
+
+        try {
+            return await(future);
+        }
+        catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("密码哈希被中断", e);
+        }
+        finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static <T> T await(Future<T> future) throws InterruptedException {
+        try {
+            return future.get();
+        }
+        catch (ExecutionException e) {
+            // 原样抛出编码器自身的异常（如密码为 null 时的 IllegalArgumentException）
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("密码哈希失败", e.getCause());
+        }
+    }
+
+    // 线程命名为 password-hashing-N，便于在线程转储中识别
+    private static final class HashingThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
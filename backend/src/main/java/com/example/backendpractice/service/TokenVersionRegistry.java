@@ -0,0 +1,105 @@
+package com.example.backendpractice.service;
+
+import com.example.backendpractice.entity.User;
+import com.example.backendpractice.repository.UserRepository;
+import com.example.backendpractice.repository.UserTokenVersion;
+import com.example.backendpractice.util.JwtUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 用户 Token 版本号（内存中的撤销表）
+ * JWT 中带有签发时的版本号（tv 声明），认证时和这里的当前版本比较，小于当前版本的 Token 视为已撤销，
+ * 这样禁用账户、修改角色或密码后旧 Token 立即失效，而每个请求仍然只读内存，不查询数据库
+ * - 版本号持久化在 users.token_version 列，启动时只加载大于 0 的（绝大多数用户为 0，不占内存）；
+ *   在所有单例创建完成后、Web 服务器开始接受请求之前（也在 ApplicationRunner 导入数据之前）加载，
+ *   不会有已撤销的 Token 在启动期间通过认证
+ * - 删除的用户单独记录，它的所有 Token 都失效；记录保留一个 Token 有效期后自动淘汰（那时旧 Token 已全部过期）
+ *   注意：删除记录不持久化（用户行已经删掉了），只在本次运行期间有效。删除用户后重启，
+ *   它删除前签发的 Token 在剩余的有效期内（最长 JwtUtil.EXPIRATION_TIME，24 小时）仍能通过认证，
+ *   "立即失效"对删除的用户只保证到下次重启为止
+ * 表只保存在本机内存中，多实例部署时其他实例要等到 Token 过期或重启后才会感知
+ */
+@Component
+public class TokenVersionRegistry implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenVersionRegistry.class);
+
+    private final UserRepository userRepository;
+
+    // 用户 ID -> 当前 Token 版本号；不在表中的用户版本号为 0
+    private final Map<Long, Integer> versions = new ConcurrentHashMap<>();
+
+    // 已删除的用户 ID
+    private final Cache<Long, Boolean> deleted = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofMillis(JwtUtil.EXPIRATION_TIME))
+            .build();
+
+    public TokenVersionRegistry(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * 所有单例创建完成后（Web 服务器启动之前）加载
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        load();
+    }
+
+    /**
+     * 加载数据库中版本号大于 0 的用户
+     */
+    public void load() {
+        List<UserTokenVersion> revoked = userRepository.findRevokedTokenVersions();
+        for (UserTokenVersion row : revoked) {
+            advance(row.getId(), row.getTokenVersion());
+        }
+        logger.info("已加载 Token 版本号: {} 个用户", revoked.size());
+    }
+
+    /**
+     * 签发 Token 时使用的版本号（取实体和内存中较大的一个，缓存中的实体可能比内存旧）
+     */
+    public int currentVersion(User user) {
+        return Math.max(user.getTokenVersion(), versions.getOrDefault(user.getId(), 0));
+    }
+
+    /**
+     * Token 中的版本号是否仍然有效
+     */
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        return tokenVersion >= versions.getOrDefault(userId, 0) && deleted.getIfPresent(userId) == null;
+    }
+
+    /**
+     * 用户的版本号已更新为 version（只会增大，不会回退）
+     */
+    public void advance(Long userId, int version) {
+        versions.merge(userId, version, Math::max);
+    }
+
+    /**
+     * 用户的版本号在数据库中已加 1
+     */
+    public void increment(Long userId) {
+        versions.merge(userId, 1, Integer::sum);
+    }
+
+    /**
+     * 用户已被删除，它的所有 Token 都失效
+     */
+    public void revokeAll(Long userId) {
+        versions.remove(userId);
+        deleted.put(userId, Boolean.TRUE);
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.backendpractice.service;
+
+import com.example.backendpractice.entity.User;
+import com.example.backendpractice.repository.UserNaturalKeys;
+import com.example.backendpractice.repository.UserRepository;
+import com.example.backendpractice.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Locale;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * 用户名 / 邮箱可用性检查（布隆过滤器挡在数据库前面）
+ * - 过滤器说“一定不存在”时直接返回可用，不查询数据库
+ * - 过滤器说“可能存在”时再用 exists 查询确认
+ * 过滤器在应用启动后由后台线程流式读取 users 表构建，构建完成前所有检查都走数据库
+ * 创建和修改用户后加入新的用户名/邮箱；布隆过滤器不支持删除，删除或改名后旧值仍会被判为“可能存在”，
+ * 只会多查一次数据库，不会给出错误结果（需要时可以调用 rebuild 重新构建）
+ * 用户名和邮箱都先 trim + 小写再放入过滤器，比数据库的比较规则更宽，不会漏判
+ * 指标：user.availability.checks（field=username/email，result=filtered/present/absent），
+ * result=absent 表示过滤器误判后数据库确认不存在
+ */
+@Service
+public class UserAvailabilityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserAvailabilityService.class);
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long expectedInsertions;
+    private final double fpp;
+
+    private final Counter usernameFiltered;
+    private final Counter usernamePresent;
+    private final Counter usernameAbsent;
+    private final Counter emailFiltered;
+    private final Counter emailPresent;
+    private final Counter emailAbsent;
+
+    // 当前使用的过滤器；ready 为 false 时不能用来判断“一定不存在”
+    private volatile BloomFilter usernames;
+    private volatile BloomFilter emails;
+    private volatile boolean ready;
+
+    // 重建期间新增的用户名/邮箱同时写入正在构建的过滤器
+    private volatile BloomFilter buildingUsernames;
+    private volatile BloomFilter buildingEmails;
+
+    public UserAvailabilityService(UserRepository userRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.availability.expected-insertions:1000000}") long expectedInsertions,
+                                   @Value("${app.availability.fpp:0.01}") double fpp) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.expectedInsertions = expectedInsertions;
+        this.fpp = fpp;
+        this.usernames = BloomFilter.create(expectedInsertions, fpp);
+        this.emails = BloomFilter.create(expectedInsertions, fpp);
+
+        this.usernameFiltered = counter(meterRegistry, "username", "filtered");
+        this.usernamePresent = counter(meterRegistry, "username", "present");
+        this.usernameAbsent = counter(meterRegistry, "username", "absent");
+        this.emailFiltered = counter(meterRegistry, "email", "filtered");
+        this.emailPresent = counter(meterRegistry, "email", "present");
+        this.emailAbsent = counter(meterRegistry, "email", "absent");
+    }
+
+    /**
+     * 应用启动完成后在后台构建过滤器，不阻塞启动
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread.ofPlatform().name("user-availability-build").daemon().start(() -> {
+            try {
+                rebuild();
+            }
+            catch (RuntimeException e) {
+                logger.error("构建用户可用性过滤器失败，可用性检查将全部查询数据库", e);
+            }
+        });
+    }
+
+    /**
+     * 流式读取 users 表重新构建过滤器，完成后原子替换
+     * 容量取配置值和当前用户数 2 倍中较大的一个
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        long size = Math.max(expectedInsertions, userRepository.count() * 2);
+        BloomFilter newUsernames = BloomFilter.create(size, fpp);
+        BloomFilter newEmails = BloomFilter.create(size, fpp);
+        buildingUsernames = newUsernames;
+        buildingEmails = newEmails;
+
+        Long count = readOnlyTransaction.execute(status -> {
+            long n = 0;
+            try (Stream<UserNaturalKeys> stream = userRepository.streamNaturalKeys()) {
+                for (UserNaturalKeys keys : (Iterable<UserNaturalKeys>) stream::iterator) {
+                    putIfNotNull(newUsernames, keys.getUsername());
+                    putIfNotNull(newEmails, keys.getEmail());
+                    n++;
+                }
+            }
+            return n;
+        });
+
+        usernames = newUsernames;
+        emails = newEmails;
+        buildingUsernames = null;
+        buildingEmails = null;
+        ready = true;
+        logger.info("用户可用性过滤器构建完成: {} 个用户, {} 位, {} 个哈希函数, 耗时 {} ms",
+                count, newUsernames.getNumBits(), newUsernames.getNumHashes(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * 记录一个已经写入数据库的用户（必须在写入提交之后调用）
+     */
+    public void record(User user) {
+        if (user == null) {
+            return;
+        }
+        // 先读正在构建的过滤器再读当前过滤器：rebuild 先替换当前过滤器再清空构建中的引用，
+        // 这个顺序保证新值至少写进最终生效的那一个
+        BloomFilter newUsernames = buildingUsernames;
+        BloomFilter newEmails = buildingEmails;
+        put(usernames, newUsernames, user.getUsername());
+        put(emails, newEmails, user.getEmail());
+    }
+
+    /**
+     * 邮箱是否一定不存在（过滤器未就绪时返回 false）
+     */
+    public boolean isEmailDefinitelyAbsent(String email) {
+        return definitelyAbsent(emails, email);
+    }
+
+    /**
+     * 用户名是否一定不存在（过滤器未就绪时返回 false）
+     */
+    public boolean isUsernameDefinitelyAbsent(String username) {
+        return definitelyAbsent(usernames, username);
+    }
+
+    /**
+     * 用户名是否可以使用
+     */
+    public boolean isUsernameAvailable(String username) {
+        return check(usernames, username, userRepository::existsByUsername,
+                usernameFiltered, usernamePresent, usernameAbsent);
+    }
+
+    /**
+     * 邮箱是否可以使用
+     */
+    public boolean isEmailAvailable(String email) {
+        return check(emails, email, userRepository::existsByEmail,
+                emailFiltered, emailPresent, emailAbsent);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    private boolean check(BloomFilter filter, String value, Predicate<String> exists,
+                          Counter filtered, Counter present, Counter absent) {
+        if (definitelyAbsent(filter, value)) {
+            filtered.increment();
+            return true;
+        }
+        if (exists.test(value.trim())) {
+            present.increment();
+            return false;
+        }
+        absent.increment();
+        return true;
+    }
+
+    private boolean definitelyAbsent(BloomFilter filter, String value) {
+        return ready && value != null && !filter.mightContain(normalize(value));
+    }
+
+    private static void put(BloomFilter current, BloomFilter building, String value) {
+        putIfNotNull(current, value);
+        if (building != null) {
+            putIfNotNull(building, value);
+        }
+    }
+
+    private static void putIfNotNull(BloomFilter filter, String value) {
+        if (value != null) {
+            filter.put(normalize(value));
+        }
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Counter counter(MeterRegistry registry, String field, String result) {
+        return Counter.builder("user.availability.checks")
+                .tag("field", field)
+                .tag("result", result)
+                .register(registry);
+    }
+}
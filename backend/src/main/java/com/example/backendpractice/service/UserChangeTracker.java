@@ -0,0 +1,109 @@
+package com.example.backendpractice.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * users 表的变更版本号，用来生成用户查询接口的 ETag
+ * - 表版本：UserService 每次写入（创建、更新、删除）提交后加 1。
+ *   客户端带回的 ETag 中表版本等于当前值，说明之后没有任何写入，直接返回 304，不查询也不序列化
+ * - 行版本：单个用户的 @Version 列。表版本变了但这个用户没变时，根据行版本（通常来自缓存）仍然可以返回 304
+ * 表版本只保存在内存中，ETag 中带上本次启动的随机前缀，重启或其他实例生成的 ETag 不会被误判为未修改
+ * ETag 格式：W/"启动前缀-表版本-请求摘要[-行版本]"；使用弱 ETag，Tomcat 压缩响应时不会去掉它
+ */
+@Component
+public class UserChangeTracker {
+
+    private final String epoch = Long.toString(System.nanoTime() ^ System.currentTimeMillis(), 36).replace('-', 'x');
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * 记录一次写入（必须在写入提交之后调用）
+     */
+    public void changed() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * 当前表版本（查询数据之前读取，查询期间发生的写入会让下一次请求重新获取数据）
+     */
+    public long currentVersion() {
+        return version.get();
+    }
+
+    /**
+     * 列表查询的 ETag
+     * @param tableVersion 查询前读取的表版本
+     * @param variant 区分不同请求的字符串（分页、排序、字段等参数）
+     */
+    public String listETag(long tableVersion, String variant) {
+        return "W/\"" + epoch + "-" + tableVersion + "-" + digest(variant) + "\"";
+    }
+
+    /**
+     * 单个用户查询的 ETag
+     * @param rowVersion 用户的 @Version；按 fields 查询时没有行版本，传 null
+     */
+    public String userETag(long tableVersion, String variant, Long rowVersion) {
+        String tag = epoch + "-" + tableVersion + "-" + digest(variant);
+        return "W/\"" + (rowVersion == null ? tag : tag + "-" + rowVersion) + "\"";
+    }
+
+    /**
+     * 在 If-None-Match 中查找本次启动生成、表版本等于 tableVersion、摘要相同的 ETag（之后没有任何写入）
+     * @return 匹配的 ETag，没有时返回 null
+     */
+    public String matchTable(String ifNoneMatch, long tableVersion, String variant) {
+        if (ifNoneMatch == null) {
+            return null;
+        }
+        String digest = digest(variant);
+        for (String tag : parse(ifNoneMatch)) {
+            String[] parts = tag.split("-");
+            if (parts.length >= 3 && parts[0].equals(epoch)
+                    && parts[1].equals(Long.toString(tableVersion)) && parts[2].equals(digest)) {
+                return "W/\"" + tag + "\"";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * If-None-Match 中是否有摘要相同、行版本等于 rowVersion 的 ETag（这个用户没有被修改）
+     * 行版本持久化在数据库中，不要求是本次启动生成的 ETag
+     */
+    public boolean matchesRow(String ifNoneMatch, String variant, long rowVersion) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String digest = digest(variant);
+        for (String tag : parse(ifNoneMatch)) {
+            String[] parts = tag.split("-");
+            if (parts.length == 4 && parts[2].equals(digest) && parts[3].equals(Long.toString(rowVersion))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // If-None-Match 可以是逗号分隔的多个 ETag，去掉 W/ 前缀和引号
+    private static String[] parse(String ifNoneMatch) {
+        String[] tags = ifNoneMatch.split(",");
+        for (int i = 0; i < tags.length; i++) {
+            String tag = tags[i].trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+                tag = tag.substring(1, tag.length() - 1);
+            }
+            tags[i] = tag;
+        }
+        return tags;
+    }
+
+    private static String digest(String variant) {
+        return Integer.toHexString(variant.hashCode());
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.backendpractice.service;
+
+import com.example.backendpractice.entity.User;
+import com.example.backendpractice.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 用户查询缓存（UserRepository 前面的二级缓存）
+ * - byId：ID -> 用户
+ * - byUsername / byEmail：用户名、邮箱 -> ID（自然键索引）
+ * 通过自然键查到 ID 后会再核对一次用户的用户名/邮箱，不一致就丢弃这条索引，
+ * 所以只要按 ID 淘汰，旧的自然键索引也不会返回错误的用户
+ * 缓存有容量上限和写入后过期时间；不缓存“不存在”的结果
+ * 按 ID 加载在 byId 的原子计算中进行，evict 会等加载结束后再删除；按用户名/邮箱加载在缓存之外查询数据库，
+ * 加载期间发生过 evict 时丢弃加载到的用户（可能是修改前读到的旧数据），避免旧密码等数据被缓存到过期
+ * 缓存中的 User 是共享对象，调用方只能读取，修改用户必须通过 UserRepository 重新加载
+ * 命中率等指标：cache.gets / cache.evictions（cache=users.byId 等）和 user.cache.hit.ratio
+ */
+@Component
+public class UserLookupCache {
+
+    private final UserRepository userRepository;
+    private final Cache<Long, User> byId;
+    private final Cache<String, Long> byUsername;
+    private final Cache<String, Long> byEmail;
+
+    // 淘汰次数，每次 evict 先加 1 再删除条目（见 findByNaturalKey）
+    private final AtomicLong evictions = new AtomicLong();
+
+    public UserLookupCache(UserRepository userRepository, MeterRegistry meterRegistry,
+                           @Value("${app.cache.users.max-size:10000}") long maxSize,
+                           @Value("${app.cache.users.ttl:10m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.byId = build(maxSize, ttl, meterRegistry, "users.byId");
+        this.byUsername = build(maxSize, ttl, meterRegistry, "users.byUsername");
+        this.byEmail = build(maxSize, ttl, meterRegistry, "users.byEmail");
+    }
+
+    /**
+     * 根据 ID 查找用户，未命中时查询数据库并放入缓存
+     */
+    public Optional<User> findById(Long id) {
+        return Optional.ofNullable(byId.get(id, key -> userRepository.findById(key).orElse(null)));
+    }
+
+    /**
+     * 根据用户名查找用户
+     */
+    public Optional<User> findByUsername(String username) {
+        return findByNaturalKey(username, byUsername, User::getUsername, userRepository::findByUsername);
+    }
+
+    /**
+     * 根据邮箱查找用户
+     */
+    public Optional<User> findByEmail(String email) {
+        return findByNaturalKey(email, byEmail, User::getEmail, userRepository::findByEmail);
+    }
+
+    /**
+     * 淘汰一个用户的所有缓存条目
+     * @param id 用户 ID
+     * @param username 修改前的用户名（可以为 null）
+     * @param email 修改前的邮箱（可以为 null）
+     */
+    public void evict(Long id, String username, String email) {
+        evictions.incrementAndGet();
+        if (id != null) {
+            User cached = byId.getIfPresent(id);
+            if (cached != null) {
+                byUsername.invalidate(cached.getUsername());
+                byEmail.invalidate(cached.getEmail());
+            }
+            byId.invalidate(id);
+        }
+        if (username != null) {
+            byUsername.invalidate(username);
+        }
+        if (email != null) {
+            byEmail.invalidate(email);
+        }
+    }
+
+    /**
+     * 清空全部缓存
+     */
+    public void evictAll() {
+        evictions.incrementAndGet();
+        byId.invalidateAll();
+        byUsername.invalidateAll();
+        byEmail.invalidateAll();
+    }
+
+    private Optional<User> findByNaturalKey(String key, Cache<String, Long> index,
+                                            Function<User, String> keyOf,
+                                            Function<String, Optional<User>> loader) {
+        if (key == null) {
+            return Optional.empty();
+        }
+
+        Long id = index.getIfPresent(key);
+        if (id != null) {
+            User user = findById(id).orElse(null);
+            if (user != null && key.equals(keyOf.apply(user))) {
+                return Optional.of(user);
+            }
+            index.invalidate(key);      // 用户已被删除或键已被修改
+        }
+
+        // 先记下淘汰次数再查询数据库；放入缓存后次数变了，说明查询和放入之间有过淘汰，
+        // 读到的可能是修改前的数据，删除刚放入的条目（evict 先计数后删除，所以不会漏掉）
+        long generation = evictions.get();
+        Optional<User> loaded = loader.apply(key);
+        loaded.ifPresent(user -> {
+            byId.put(user.getId(), user);
+            index.put(key, user.getId());
+            if (evictions.get() != generation) {
+                byId.invalidate(user.getId());
+                index.invalidate(key);
+            }
+        });
+        return loaded;
+    }
+
+    private static <K, V> Cache<K, V> build(long maxSize, Duration ttl, MeterRegistry meterRegistry, String name) {
+        Cache<K, V> cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+        Gauge.builder("user.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("用户缓存命中率")
+                .tag("cache", name)
+                .register(meterRegistry);
+        return cache;
+    }
+}
@@ -0,0 +1,380 @@
+package com.example.backendpractice.service;
+
+import com.example.backendpractice.dto.UserSearchHit;
+import com.example.backendpractice.dto.UserSearchPage;
+import com.example.backendpractice.entity.User;
+import com.example.backendpractice.repository.UserRepository;
+import com.example.backendpractice.repository.UserSearchKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * 用户名 / 邮箱的内存搜索索引（n-gram 倒排索引）
+ * - 每个用户名和邮箱（小写）的每个 3 字符片段（trigram）都指向包含它的用户 ID
+ * - 另外为前 1、2 个字符建立前缀键（"^a"、"^ab"），1~2 个字符的查询按前缀匹配（输入提示）
+ * - 3 个字符以上的查询取查询串中倒排表最短的一个 trigram 作为候选集，再逐个确认是否包含查询串
+ * 排序：用户名完全相同 > 邮箱完全相同 > 用户名前缀 > 邮箱前缀 > 用户名包含 > 邮箱包含，
+ * 同一类中匹配位置靠前、字段较短、ID 较小的排在前面
+ * 索引在应用启动后由后台线程流式读取 users 表构建，构建完成前搜索会抛出 UserSearchUnavailableException；
+ * 用户的增删改在数据库提交之后调用 put / patch / remove 更新索引，每个用户的修改都在 entries.compute 中完成，
+ * 并按版本号只接受较新的数据，构建线程读到的旧数据不会覆盖实时写入
+ * app.search.enabled=false 时不构建索引，put / patch / remove 也什么都不做（不占用内存）
+ */
+@Service
+public class UserSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserSearchIndex.class);
+
+    // 每页最多返回的条数
+    public static final int MAX_PAGE_SIZE = 100;
+    // 最多可以翻到第几条（page * size），排序时只需要保留这么多条
+    public static final int MAX_RESULT_WINDOW = 1000;
+
+    private static final int GRAM = 3;
+    private static final String PREFIX_MARK = "^";
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    // 构建期间删除的用户，构建线程读到它们时跳过（用户 ID 不会复用，构建结束后清空）
+    private final Set<Long> deletedWhileBuilding = ConcurrentHashMap.newKeySet();
+    private volatile boolean building;
+    private volatile boolean ready;
+
+    public UserSearchIndex(UserRepository userRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.search.enabled:true}") boolean enabled) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+    }
+
+    /**
+     * 应用启动完成后在后台构建索引，不阻塞启动
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            logger.info("用户搜索索引已关闭（app.search.enabled=false）");
+            return;
+        }
+        Thread.ofPlatform().name("user-search-build").daemon().start(() -> {
+            try {
+                build();
+            }
+            catch (RuntimeException e) {
+                logger.error("构建用户搜索索引失败，搜索接口将不可用", e);
+            }
+        });
+    }
+
+    /**
+     * 流式读取 users 表构建索引
+     * 构建期间的实时写入直接进入索引，构建线程只在没有更新版本时才写入读到的数据
+     */
+    public void build() {
+        long start = System.nanoTime();
+        // 先于打开游标设置：之后提交的删除都会记入 deletedWhileBuilding，之前提交的删除游标读不到
+        building = true;
+        Long count;
+        try {
+            count = readOnlyTransaction.execute(status -> {
+                long n = 0;
+                try (Stream<UserSearchKeys> stream = userRepository.streamSearchKeys()) {
+                    for (UserSearchKeys keys : (Iterable<UserSearchKeys>) stream::iterator) {
+                        putIfNotDeleted(keys);
+                        n++;
+                    }
+                }
+                return n;
+            });
+            ready = true;
+        }
+        finally {
+            building = false;
+            deletedWhileBuilding.clear();
+        }
+        logger.info("用户搜索索引构建完成: {} 个用户, {} 个索引键, 耗时 {} ms",
+                count, postings.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * 加入或替换一个已经写入数据库的用户（必须在写入提交之后调用）
+     */
+    public void put(User user) {
+        if (enabled && user != null && user.getId() != null) {
+            put(user.getId(), user.getUsername(), user.getEmail(), user.getVersion());
+        }
+    }
+
+    /**
+     * 加入或替换一个用户；索引中已有更新的版本时忽略
+     */
+    public void put(Long id, String username, String email, long version) {
+        if (!enabled) {
+            return;
+        }
+        entries.compute(id, (key, existing) -> {
+            if (existing != null && existing.version() > version) {
+                return existing;
+            }
+            Entry entry = Entry.of(id, username, email, version);
+            reindex(id, existing, entry);
+            return entry;
+        });
+    }
+
+    /**
+     * 部分更新一个用户（PATCH 之后调用），username / email 为 null 表示没有修改
+     * 正在构建、索引中还没有这个用户时（构建线程还没读到）从数据库读取一次完整的数据；
+     * 其他时候索引中没有这个用户说明它已经被删除，不再查询数据库
+     */
+    public void patch(Long id, String username, String email, long version) {
+        if (!enabled) {
+            return;
+        }
+        Entry updated = entries.computeIfPresent(id, (key, existing) -> {
+            if (existing.version() > version) {
+                return existing;
+            }
+            Entry entry = Entry.of(id,
+                    username != null ? username : existing.username(),
+                    email != null ? email : existing.email(),
+                    version);
+            reindex(id, existing, entry);
+            return entry;
+        });
+        if (updated == null && building) {
+            userRepository.findById(id).ifPresent(this::put);
+        }
+    }
+
+    /**
+     * 删除一个用户
+     */
+    public void remove(Long id) {
+        if (!enabled) {
+            return;
+        }
+        // 先记下删除再从索引中移除：构建线程在 entries.compute 中检查这个集合，不会把删除的用户重新放回索引
+        if (building) {
+            deletedWhileBuilding.add(id);
+        }
+        entries.computeIfPresent(id, (key, existing) -> {
+            reindex(id, existing, null);
+            return null;
+        });
+    }
+
+    /**
+     * 构建线程读到的一个用户：在 entries.compute 中检查是否已经被删除，
+     * 和 remove 对同一个 key 串行执行，检查之后不会再有删除插进来
+     */
+    private void putIfNotDeleted(UserSearchKeys keys) {
+        Long id = keys.getId();
+        entries.compute(id, (key, existing) -> {
+            if (deletedWhileBuilding.contains(id)
+                    || (existing != null && existing.version() > keys.getVersion())) {
+                return existing;
+            }
+            Entry entry = Entry.of(id, keys.getUsername(), keys.getEmail(), keys.getVersion());
+            reindex(id, existing, entry);
+            return entry;
+        });
+    }
+
+    /**
+     * 搜索用户名或邮箱
+     * @param keyword 关键字（忽略大小写和首尾空格）
+     * @param page 页码，从 1 开始
+     * @param size 每页条数，1 ~ MAX_PAGE_SIZE
+     * @return 当前页的结果和匹配总数
+     * @throws IllegalArgumentException 参数无效时
+     * @throws UserSearchUnavailableException 索引还没有构建完成时
+     */
+    public UserSearchPage search(String keyword, int page, int size) {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            throw new IllegalArgumentException("搜索关键字不能为空！");
+        }
+        if (page < 1) {
+            throw new IllegalArgumentException("page 必须大于等于 1！");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("size 必须在 1 到 " + MAX_PAGE_SIZE + " 之间！");
+        }
+        if ((long) page * size > MAX_RESULT_WINDOW) {
+            throw new IllegalArgumentException("最多只能查看前 " + MAX_RESULT_WINDOW + " 条结果，请输入更精确的关键字！");
+        }
+        if (!ready) {
+            throw new UserSearchUnavailableException();
+        }
+
+        String query = normalize(keyword);
+        Set<Long> candidates = candidates(query);
+
+        // 只保留排在前 page * size 的结果（堆顶是目前保留的结果中排名最靠后的）
+        int window = page * size;
+        PriorityQueue<Hit> top = new PriorityQueue<>(Hit.ORDER.reversed());
+        int total = 0;
+        for (Long id : candidates) {
+            Entry entry = entries.get(id);
+            Hit hit = entry == null ? null : Hit.match(entry, query);
+            if (hit == null) {
+                continue;
+            }
+            total++;
+            top.add(hit);
+            if (top.size() > window) {
+                top.poll();
+            }
+        }
+
+        List<Hit> ranked = new ArrayList<>(top);
+        ranked.sort(Hit.ORDER);
+        List<UserSearchHit> results = new ArrayList<>();
+        for (int i = (page - 1) * size; i < ranked.size(); i++) {
+            Entry entry = ranked.get(i).entry();
+            results.add(new UserSearchHit(entry.id(), entry.username(), entry.email()));
+        }
+        return new UserSearchPage(results, page, size, total);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 候选用户：短查询取前缀键的倒排表，长查询取查询串中倒排表最短的 trigram
+     */
+    private Set<Long> candidates(String query) {
+        if (query.length() < GRAM) {
+            return postings.getOrDefault(PREFIX_MARK + query, Set.of());
+        }
+        Set<Long> smallest = null;
+        for (int i = 0; i + GRAM <= query.length(); i++) {
+            Set<Long> posting = postings.get(query.substring(i, i + GRAM));
+            if (posting == null) {
+                return Set.of();
+            }
+            if (smallest == null || posting.size() < smallest.size()) {
+                smallest = posting;
+            }
+        }
+        return smallest;
+    }
+
+    /**
+     * 在倒排表中删除旧数据的键、加入新数据的键（在 entries.compute 中调用，同一个用户不会并发修改）
+     */
+    private void reindex(Long id, Entry oldEntry, Entry newEntry) {
+        Set<String> oldKeys = oldEntry == null ? Set.of() : oldEntry.keys();
+        Set<String> newKeys = newEntry == null ? Set.of() : newEntry.keys();
+        for (String key : oldKeys) {
+            if (!newKeys.contains(key)) {
+                postings.computeIfPresent(key, (k, ids) -> {
+                    ids.remove(id);
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+        }
+        for (String key : newKeys) {
+            if (!oldKeys.contains(key)) {
+                postings.compute(key, (k, ids) -> {
+                    Set<Long> set = ids != null ? ids : ConcurrentHashMap.newKeySet();
+                    set.add(id);
+                    return set;
+                });
+            }
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 索引中的一个用户，同时保存小写后的用户名和邮箱用于匹配
+     */
+    private record Entry(Long id, String username, String email, long version,
+                         String usernameKey, String emailKey) {
+
+        static Entry of(Long id, String username, String email, long version) {
+            return new Entry(id, username, email, version, normalize(username), normalize(email));
+        }
+
+        Set<String> keys() {
+            Set<String> keys = new HashSet<>();
+            addKeys(keys, usernameKey);
+            addKeys(keys, emailKey);
+            return keys;
+        }
+
+        private static void addKeys(Set<String> keys, String value) {
+            for (int length = 1; length < GRAM && length <= value.length(); length++) {
+                keys.add(PREFIX_MARK + value.substring(0, length));
+            }
+            for (int i = 0; i + GRAM <= value.length(); i++) {
+                keys.add(value.substring(i, i + GRAM));
+            }
+        }
+    }
+
+    /**
+     * 一条匹配结果，rank 越小越靠前
+     */
+    private record Hit(Entry entry, int rank, int position, int length) {
+
+        static final Comparator<Hit> ORDER = Comparator.comparingInt(Hit::rank)
+                .thenComparingInt(Hit::position)
+                .thenComparingInt(Hit::length)
+                .thenComparing(hit -> hit.entry().id());
+
+        static Hit match(Entry entry, String query) {
+            Hit username = match(entry, entry.usernameKey(), query, 0);
+            Hit email = match(entry, entry.emailKey(), query, 1);
+            if (username == null) {
+                return email;
+            }
+            if (email == null) {
+                return username;
+            }
+            return ORDER.compare(username, email) <= 0 ? username : email;
+        }
+
+        // 用户名的 rank 为 0/2/4，邮箱为 1/3/5（完全相同 / 前缀 / 包含）
+        private static Hit match(Entry entry, String value, String query, int field) {
+            int position = value.indexOf(query);
+            if (position < 0) {
+                return null;
+            }
+            int kind = value.length() == query.length() ? 0 : position == 0 ? 1 : 2;
+            return new Hit(entry, kind * 2 + field, position, value.length());
+        }
+    }
+}
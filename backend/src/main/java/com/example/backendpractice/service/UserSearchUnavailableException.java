@@ -0,0 +1,12 @@
+package com.example.backendpractice.service;
+
+/**
+ * 用户搜索索引还没有构建完成（或已关闭）时抛出
+ * 控制器收到后应返回 503，让客户端稍后重试
+ */
+public class UserSearchUnavailableException extends RuntimeException {
+
+    public UserSearchUnavailableException() {
+        super("搜索索引正在构建，请稍后重试");
+    }
+}
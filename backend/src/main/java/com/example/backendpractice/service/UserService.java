@@ -1,28 +1,124 @@
 package com.example.backendpractice.service;
 
+import com.example.backendpractice.audit.AuditEventType;
+import com.example.backendpractice.audit.AuditService;
+import com.example.backendpractice.dto.BatchItemResult;
+import com.example.backendpractice.dto.CursorPage;
+import com.example.backendpractice.dto.UserField;
+import com.example.backendpractice.dto.UserFieldsView;
+import com.example.backendpractice.dto.UserPatch;
+import com.example.backendpractice.dto.UserSearchPage;
 import com.example.backendpractice.entity.User;
+import com.example.backendpractice.repository.UserBatchRepository;
 import com.example.backendpractice.repository.UserRepository;
+import com.example.backendpractice.util.ConstraintViolations;
+import com.example.backendpractice.util.PageCursor;
+import com.example.backendpractice.util.PageSpec;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+/**
+ * 用户业务逻辑
+ * 每个公开方法的耗时记录在 user.service 指标中（tag：class、method、exception）
+ */
 @Service
+@Timed(value = "user.service", description = "UserService 方法耗时")
 public class UserService {
 
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
 
+    // 分页默认大小和上限
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // 批量创建：单次请求上限、每个 JDBC 批次的行数、IN 查询每次携带的邮箱数
+    public static final int MAX_BATCH_SIZE = 10000;
+    public static final int INSERT_BATCH_SIZE = 500;
+    private static final int IN_CLAUSE_CHUNK = 1000;
+
+    // 批量删除：单次请求上限（按 IN_CLAUSE_CHUNK 分段执行）
+    public static final int MAX_DELETE_SIZE = 100000;
+
+    // 幂等键最大长度
+    public static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
+    // 导出时每写多少行刷新一次输出流
+    private static final int EXPORT_FLUSH_EVERY = 500;
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserBatchRepository userBatchRepository;
+
+    @Autowired
+    private UserLookupCache userLookupCache;
+
+    @Autowired
+    private UserAvailabilityService userAvailabilityService;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @Autowired
+    private UserChangeTracker userChangeTracker;
+
+    @Autowired
+    private UserSearchIndex userSearchIndex;
+
+    @Autowired
+    private AuditService auditService;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // 创建用户时不预先查询邮箱，直接插入并由唯一约束判断重复
+    @Value("${app.users.insert-first:true}")
+    private boolean insertFirst;
+
     // 添加业务方法
     /**
      * 创建新用户
@@ -31,13 +127,51 @@ public class UserService {
      * @throws IllegalArgumentException 当用户数据无效时报错
      */
     public User createUser(User user) {
+        return createUser(user, null);
+    }
+
+    /**
+     * 创建新用户（支持幂等键）
+     * 带幂等键时，同一个键的重试返回第一次创建的用户，不会重复插入
+     * @param user 用户信息
+     * @param idempotencyKey 幂等键，可以为 null
+     * @return 创建成功的用户
+     * @throws IllegalArgumentException 当用户数据无效、邮箱已存在或幂等键已用于其他请求时报错
+     */
+    public User createUser(User user, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return insertUser(user);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key 长度必须在 1 到 " + MAX_IDEMPOTENCY_KEY_LENGTH + " 之间！");
+        }
+        validateUserForCreation(user);
+
+        User[] created = new User[1];
+        Long id = idempotencyStore.execute(idempotencyKey, user.getEmail(), () -> {
+            created[0] = insertUser(user);
+            return created[0].getId();
+        });
+        if (created[0] != null) {
+            return created[0];
+        }
+        logger.info("幂等键重复，返回已创建的用户: ID={}", id);
+        return userLookupCache.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("ID=" + id + " 的用户已被删除！"));
+    }
+
+    private User insertUser(User user) {
         logger.info("开始创建用户: {}", user.getUsername());
 
         // 1.业务验证
         validateUserForCreation(user);
 
         // 2.检查邮箱是否已经存在
-        if (userRepository.findByEmail(user.getEmail()).isPresent()) {
+        // insert-first 模式下不预先查询，直接插入，由 email 唯一约束判断（见第 5 步）；
+        // 否则只在布隆过滤器不能确定邮箱不存在时查询
+        if (!insertFirst
+                && !userAvailabilityService.isEmailDefinitelyAbsent(user.getEmail())
+                && userRepository.findByEmail(user.getEmail()).isPresent()) {
             throw new IllegalArgumentException("邮箱已经存在，请勿重复创建！");
         }
 
@@ -47,20 +181,193 @@ public class UserService {
             user.setPassword(passwordEncoder.encode(user.getPassword()));
         }
 
-        // 4.设置默认值
+        // 4.设置默认值（注册接口是公开的，忽略请求中的角色，管理员角色只能由管理员修改）
         user.setCreatedAt(LocalDateTime.now());
-        if (user.getRole() == null ) {
-            user.setRole("USER");
-        }
+        user.setRole("USER");
         user.setEnabled(true);
 
-        // 5.保存用户
-        User savedUser = userRepository.save(user);
+        // 5.保存用户（并发创建同一个邮箱时，预先查询也挡不住，最终都由唯一约束兜底）
+        User savedUser;
+        try {
+            savedUser = userRepository.save(user);
+        }
+        catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException(constraintViolationMessage(e, "邮箱已经存在，请勿重复创建！"));
+        }
+        userChangeTracker.changed();
+        userAvailabilityService.record(savedUser);
+        userSearchIndex.put(savedUser);
+        auditService.record(AuditEventType.USER_CREATE, "SUCCESS", savedUser.getId(), savedUser.getUsername(), null);
         logger.info("用户创建成功: ID={}, 用户名={}", savedUser.getId(), savedUser.getUsername());
 
         return savedUser;
     }
 
+    /**
+     * 批量创建用户
+     * 1. 逐个校验，并检查本批次内的重复邮箱
+     * 2. 用一次（按 IN_CLAUSE_CHUNK 分段）集合查询找出数据库中已存在的邮箱
+     * 3. 并行加密密码
+     * 4. 按 INSERT_BATCH_SIZE 分批用 JDBC 批处理写入
+     * 单个用户失败不影响其他用户，每个用户的结果按请求中的下标返回
+     * 请求中的角色和启用状态被忽略，总是创建启用的普通用户
+     * @param users 待创建的用户
+     * @return 每个用户的创建结果
+     * @throws IllegalArgumentException 列表为空或超过上限时
+     */
+    public List<BatchItemResult> createUsers(List<User> users) {
+        return createUsers(users, false);
+    }
+
+    /**
+     * 导入用户（只供运维在服务器上执行的文件导入使用，见 UserImportService，不对外暴露接口）
+     * 和 createUsers 相同，但保留数据中的角色（USER / ADMIN，为空时为 USER）和启用状态
+     * @param users 待导入的用户
+     * @return 每个用户的导入结果
+     * @throws IllegalArgumentException 列表为空或超过上限时
+     */
+    public List<BatchItemResult> importUsers(List<User> users) {
+        return createUsers(users, true);
+    }
+
+    private List<BatchItemResult> createUsers(List<User> users, boolean imported) {
+        if (users == null || users.isEmpty()) {
+            throw new IllegalArgumentException("用户列表不能为空！");
+        }
+        if (users.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("单次最多创建 " + MAX_BATCH_SIZE + " 个用户！");
+        }
+        logger.info("开始批量创建用户: {} 个", users.size());
+
+        BatchItemResult[] results = new BatchItemResult[users.size()];
+
+        // 1.逐个校验，记录每个邮箱第一次出现的位置
+        Map<String, Integer> indexByEmail = new LinkedHashMap<>();
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            try {
+                validateUserForCreation(user);
+                if (user.getPassword() == null || user.getPassword().isEmpty()) {
+                    throw new IllegalArgumentException("密码不能为空！");
+                }
+                if (imported && user.getRole() != null && !user.getRole().isEmpty()
+                        && !"USER".equals(user.getRole()) && !"ADMIN".equals(user.getRole())) {
+                    throw new IllegalArgumentException("角色只能是 USER 或 ADMIN！");
+                }
+            }
+            catch (IllegalArgumentException e) {
+                results[i] = BatchItemResult.failure(i, e.getMessage());
+                continue;
+            }
+            if (indexByEmail.putIfAbsent(user.getEmail(), i) != null) {
+                results[i] = BatchItemResult.failure(i, "邮箱在本批次中重复！");
+            }
+        }
+
+        // 2.集合查询已存在的邮箱
+        Set<String> existingEmails = new HashSet<>();
+        List<String> emails = new ArrayList<>(indexByEmail.keySet());
+        for (int from = 0; from < emails.size(); from += IN_CLAUSE_CHUNK) {
+            existingEmails.addAll(userRepository.findExistingEmails(
+                    emails.subList(from, Math.min(from + IN_CLAUSE_CHUNK, emails.size()))));
+        }
+
+        List<Integer> accepted = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : indexByEmail.entrySet()) {
+            if (existingEmails.contains(entry.getKey())) {
+                results[entry.getValue()] = BatchItemResult.failure(entry.getValue(), "邮箱已经存在，请勿重复创建！");
+            }
+            else {
+                accepted.add(entry.getValue());
+            }
+        }
+
+        // 3.并行加密密码，并设置默认值
+        List<String> rawPasswords = new ArrayList<>(accepted.size());
+        for (int index : accepted) {
+            rawPasswords.add(users.get(index).getPassword());
+        }
+        List<String> encodedPasswords = encodeAll(rawPasswords);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int k = 0; k < accepted.size(); k++) {
+            User user = users.get(accepted.get(k));
+            user.setPassword(encodedPasswords.get(k));
+            user.setCreatedAt(now);
+            if (!imported) {
+                user.setRole("USER");
+                user.setEnabled(true);
+            }
+            else if (user.getRole() == null || user.getRole().isEmpty()) {
+                user.setRole("USER");
+            }
+        }
+
+        // 4.分批写入
+        for (int from = 0; from < accepted.size(); from += INSERT_BATCH_SIZE) {
+            List<Integer> chunk = accepted.subList(from, Math.min(from + INSERT_BATCH_SIZE, accepted.size()));
+            insertChunk(users, chunk, results, imported ? "import" : "batch");
+        }
+
+        if (logger.isInfoEnabled()) {
+            long created = Arrays.stream(results).filter(BatchItemResult::isSuccess).count();
+            logger.info("批量创建用户完成: 成功 {} 个, 失败 {} 个", created, users.size() - created);
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * 写入一个批次；如果和并发请求发生唯一约束冲突，整批回滚后逐个重试，找出冲突的用户
+     */
+    private void insertChunk(List<User> users, List<Integer> chunk, BatchItemResult[] results, String auditDetail) {
+        List<User> batch = new ArrayList<>(chunk.size());
+        for (int index : chunk) {
+            batch.add(users.get(index));
+        }
+
+        try {
+            List<Long> ids = userBatchRepository.insertAll(batch);
+            for (int k = 0; k < chunk.size(); k++) {
+                results[chunk.get(k)] = BatchItemResult.success(chunk.get(k), ids.get(k));
+                userAvailabilityService.record(batch.get(k));
+                userSearchIndex.put(ids.get(k), batch.get(k).getUsername(), batch.get(k).getEmail(), 0);
+                auditService.record(AuditEventType.USER_CREATE, "SUCCESS", ids.get(k), batch.get(k).getUsername(), auditDetail);
+            }
+        }
+        catch (DataIntegrityViolationException e) {
+            logger.warn("批量写入发生冲突，改为逐个写入: {}", e.getMessage());
+            for (int index : chunk) {
+                try {
+                    List<Long> ids = userBatchRepository.insertAll(List.of(users.get(index)));
+                    results[index] = BatchItemResult.success(index, ids.get(0));
+                    userAvailabilityService.record(users.get(index));
+                    userSearchIndex.put(ids.get(0), users.get(index).getUsername(), users.get(index).getEmail(), 0);
+                    auditService.record(AuditEventType.USER_CREATE, "SUCCESS", ids.get(0), users.get(index).getUsername(), auditDetail);
+                }
+                catch (DataIntegrityViolationException ex) {
+                    results[index] = BatchItemResult.failure(index, constraintViolationMessage(ex, "邮箱已经存在，请勿重复创建！"));
+                }
+            }
+        }
+        finally {
+            userChangeTracker.changed();
+        }
+    }
+
+    /**
+     * 加密一批密码：使用密码哈希线程池时并行执行，否则逐个加密
+     */
+    private List<String> encodeAll(List<String> rawPasswords) {
+        if (passwordEncoder instanceof PasswordHashingService hashingService) {
+            return hashingService.encodeAll(rawPasswords);
+        }
+        List<String> encoded = new ArrayList<>(rawPasswords.size());
+        for (String rawPassword : rawPasswords) {
+            encoded.add(passwordEncoder.encode(rawPassword));
+        }
+        return encoded;
+    }
+
     /**
      * 验证用户创建数据
      */
@@ -80,24 +387,206 @@ public class UserService {
      * 获取所有用户
      * @return 用户列表
      */
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
-        logger.info("获取所有用户列表");
+        logger.debug("获取所有用户列表");
         return userRepository.findAll();
     }
 
+    /**
+     * 游标分页获取用户（keyset 分页）
+     * 每页只查询 limit + 1 行，多出的一行用来判断是否还有下一页，查询代价与表大小无关
+     * @param cursor 上一页返回的 nextCursor，第一页传 null
+     * @param limit 每页数量，为空时使用默认值，超过上限时取上限
+     * @param sort 排序字段：id 或 createdAt
+     * @param order 排序方向：asc 或 desc
+     * @return 当前页用户和下一页游标
+     * @throws IllegalArgumentException 参数或游标无效时
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<User> getUsersPage(String cursor, Integer limit, String sort, String order) {
+        logger.debug("分页获取用户: cursor={}, limit={}, sort={}, order={}", cursor, limit, sort, order);
+        PageSpec spec = parsePageSpec(cursor, limit, sort, order);
+
+        Sort.Direction direction = spec.descending() ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort orderBy = spec.byCreatedAt() ? Sort.by(direction, "createdAt", "id") : Sort.by(direction, "id");
+        Pageable pageable = PageRequest.of(0, spec.size() + 1, orderBy);
+
+        List<User> rows;
+        PageCursor after = spec.after();
+        if (after == null) {
+            rows = userRepository.findPage(pageable);
+        }
+        else if (spec.byCreatedAt()) {
+            rows = spec.descending()
+                    ? userRepository.findPageBeforeCreatedAt(after.getCreatedAt(), after.getId(), pageable)
+                    : userRepository.findPageAfterCreatedAt(after.getCreatedAt(), after.getId(), pageable);
+        }
+        else {
+            rows = spec.descending()
+                    ? userRepository.findPageBeforeId(after.getId(), pageable)
+                    : userRepository.findPageAfterId(after.getId(), pageable);
+        }
+
+        String nextCursor = null;
+        if (rows.size() > spec.size()) {
+            rows = rows.subList(0, spec.size());
+            User last = rows.get(spec.size() - 1);
+            nextCursor = new PageCursor(spec.sortKey(), spec.descending(),
+                    spec.byCreatedAt() ? last.getCreatedAt() : null, last.getId()).encode();
+        }
+        return new CursorPage<>(rows, nextCursor, spec.size());
+    }
+
+    /**
+     * 游标分页获取用户的部分字段（?fields=id,username）
+     * SQL 只查询请求的列（以及生成游标需要的 id、createdAt），不加载实体
+     * @param fields 逗号分隔的字段列表
+     * @throws IllegalArgumentException 参数、字段或游标无效时
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<UserFieldsView> getUserFieldsPage(String cursor, Integer limit, String sort, String order, String fields) {
+        logger.debug("分页获取用户字段: cursor={}, limit={}, sort={}, order={}, fields={}", cursor, limit, sort, order, fields);
+        List<UserField> selected = UserField.parseList(fields);
+        PageSpec spec = parsePageSpec(cursor, limit, sort, order);
+
+        List<UserFieldsView> rows = userRepository.findFields(selected, spec.sortKey(), spec.descending(),
+                spec.after(), spec.size() + 1);
+
+        String nextCursor = null;
+        if (rows.size() > spec.size()) {
+            rows = rows.subList(0, spec.size());
+            UserFieldsView last = rows.get(spec.size() - 1);
+            nextCursor = new PageCursor(spec.sortKey(), spec.descending(),
+                    spec.byCreatedAt() ? (LocalDateTime) last.get(UserField.CREATED_AT) : null,
+                    (Long) last.get(UserField.ID)).encode();
+        }
+        return new CursorPage<>(rows, nextCursor, spec.size());
+    }
+
+    /**
+     * 获取所有用户的部分字段（不分页，按 id 升序）
+     * @param fields 逗号分隔的字段列表
+     * @throws IllegalArgumentException 字段无效时
+     */
+    @Transactional(readOnly = true)
+    public List<UserFieldsView> getAllUserFields(String fields) {
+        logger.debug("获取所有用户列表: fields={}", fields);
+        return userRepository.findFields(UserField.parseList(fields), "id", false, null, 0);
+    }
+
+    /**
+     * 根据 ID 获取用户的部分字段
+     * @param fields 逗号分隔的字段列表
+     * @throws IllegalArgumentException ID 为空或字段无效时
+     */
+    @Transactional(readOnly = true)
+    public Optional<UserFieldsView> getUserFieldsById(Long id, String fields) {
+        if (id == null) {
+            throw new IllegalArgumentException("用户 ID 不能为空！");
+        }
+        return userRepository.findFieldsById(id, UserField.parseList(fields));
+    }
+
+    /**
+     * 校验分页参数并解码游标
+     */
+    private static PageSpec parsePageSpec(String cursor, Integer limit, String sort, String order) {
+        return PageSpec.parse(cursor, limit, sort, order, DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * 以 NDJSON（每行一个 JSON 对象）格式流式导出全部用户
+     * 边读边写，每写完一行就把实体从持久化上下文中移除，内存占用与行数无关
+     * 导出内容不包含密码字段
+     * @param out 输出流（不会被关闭）
+     * @return 导出的用户数量
+     */
+    @Transactional(readOnly = true)
+    public long exportUsers(OutputStream out) throws IOException {
+        logger.info("开始导出用户");
+        long count = 0;
+
+        try (Stream<User> users = userRepository.streamAll();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            Iterator<User> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                User user = iterator.next();
+                generator.writeStartObject();
+                generator.writeNumberField("id", user.getId());
+                generator.writeStringField("username", user.getUsername());
+                generator.writeStringField("email", user.getEmail());
+                generator.writeStringField("role", user.getRole());
+                generator.writeBooleanField("enabled", user.isEnabled());
+                generator.writeObjectField("createdAt", user.getCreatedAt());
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                entityManager.detach(user);
+
+                count++;
+                // 第一行立即刷新，让客户端尽快收到数据，之后按批刷新
+                if (count == 1 || count % EXPORT_FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+            generator.flush();
+        }
+
+        logger.info("用户导出完成: 共 {} 条", count);
+        return count;
+    }
+
     /**
      * 根据 ID 获取用户
      * @param id 用户 ID
      * @return 用户信息，若不存在则返回空
      */
     public Optional<User> getUserById(Long id) {
-        logger.info("根据 ID 获取用户: {}", id);
+        logger.debug("根据 ID 获取用户: {}", id);
 
         if( id == null) {
             throw new IllegalArgumentException("用户 ID 不能为空!");
         }
-        
-        return userRepository.findById(id);
+
+        return userLookupCache.findById(id);
+    }
+
+    /**
+     * 检查用户名和邮箱是否可以使用（参数为 null 的不检查）
+     * @return field -> 是否可用
+     * @throws IllegalArgumentException 两个参数都为空时
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Boolean> checkAvailability(String username, String email) {
+        boolean hasUsername = username != null && !username.trim().isEmpty();
+        boolean hasEmail = email != null && !email.trim().isEmpty();
+        if (!hasUsername && !hasEmail) {
+            throw new IllegalArgumentException("用户名和邮箱至少提供一个！");
+        }
+        Map<String, Boolean> availability = new LinkedHashMap<>();
+        if (hasUsername) {
+            availability.put("username", userAvailabilityService.isUsernameAvailable(username));
+        }
+        if (hasEmail) {
+            availability.put("email", userAvailabilityService.isEmailAvailable(email));
+        }
+        return availability;
+    }
+
+    /**
+     * 按用户名或邮箱搜索用户（内存 n-gram 索引，不查询数据库）
+     * 1~2 个字符按前缀匹配，3 个字符以上按包含匹配；结果按匹配程度排序
+     * @param keyword 关键字
+     * @param page 页码，从 1 开始
+     * @param size 每页条数
+     * @return 当前页的结果和匹配总数
+     * @throws IllegalArgumentException 参数无效时
+     * @throws UserSearchUnavailableException 索引还没有构建完成时
+     */
+    public UserSearchPage searchUsers(String keyword, int page, int size) {
+        return userSearchIndex.search(keyword, page, size);
     }
 
     /**
@@ -106,6 +595,9 @@ public class UserService {
      * @param updateUser 更新的用户信息
      * @return 更新后的用户信息
      * @throws IllegalArgumentException 当用户不存在或数据无效时
+     * @throws AdminRequiredException 非管理员修改角色或启用状态时
+     * @throws UserVersionConflictException 保存时用户已被其他请求修改
+     * @throws PasswordHashingRejectedException 修改密码时密码哈希线程池已满
      */
     public User updateUser(Long id, User updateUser) {
         logger.info("更新用户信息: ID={}", id);
@@ -125,6 +617,12 @@ public class UserService {
         }
 
         User user = existingUser.get();
+        if ((!Objects.equals(user.getRole(), updateUser.getRole()) || user.isEnabled() != updateUser.isEnabled())
+                && !isAdmin()) {
+            throw new AdminRequiredException();
+        }
+        String oldUsername = user.getUsername();
+        String oldEmail = user.getEmail();
 
         // 更新用户信息
         if (updateUser.getUsername() != null && !updateUser.getUsername().trim().isEmpty()) {
@@ -132,41 +630,242 @@ public class UserService {
         }
         if (updateUser.getEmail() != null && !updateUser.getEmail().trim().isEmpty()) {
             // 检查新邮箱是否已被其他用占用
-            Optional<User> userWithEmail = userRepository.findByEmail(updateUser.getEmail());
-            if (userWithEmail.isPresent() && userWithEmail.get().getId().equals(id)) {
-                throw new IllegalArgumentException("该邮箱已被其他用户使用！");
+            if (!userAvailabilityService.isEmailDefinitelyAbsent(updateUser.getEmail())) {
+                Optional<User> userWithEmail = userRepository.findByEmail(updateUser.getEmail());
+                if (userWithEmail.isPresent() && !userWithEmail.get().getId().equals(id)) {
+                    throw new IllegalArgumentException("该邮箱已被其他用户使用！");
+                }
             }
             user.setEmail(updateUser.getEmail());
         }
-        user.setPassword(updateUser.getPassword());
+        // 请求中带了新密码时才修改密码（加密后保存），没带时保留原密码
+        boolean passwordChanged = updateUser.getPassword() != null && !updateUser.getPassword().isEmpty();
+        // 角色、启用状态或密码变化时让已签发的 Token 失效
+        if (passwordChanged
+                || !Objects.equals(user.getRole(), updateUser.getRole())
+                || user.isEnabled() != updateUser.isEnabled()) {
+            user.setTokenVersion(user.getTokenVersion() + 1);
+        }
+        if (passwordChanged) {
+            user.setPassword(passwordEncoder.encode(updateUser.getPassword()));
+        }
         user.setRole(updateUser.getRole());
         user.setEnabled(updateUser.isEnabled());
 
-        User savedUser = userRepository.save(user);
+        User savedUser;
+        try {
+            savedUser = userRepository.save(user);
+        }
+        catch (OptimisticLockingFailureException e) {
+            // 读取之后用户又被其他请求修改了
+            throw new UserVersionConflictException(id);
+        }
+        catch (DataIntegrityViolationException e) {
+            // 检查之后邮箱又被其他请求占用了，由数据库唯一约束兜底
+            throw new IllegalArgumentException(constraintViolationMessage(e, "该邮箱已被其他用户使用！"));
+        }
+        // 写入后淘汰缓存（旧用户名和邮箱的索引也一起淘汰）
+        userLookupCache.evict(id, oldUsername, oldEmail);
+        userChangeTracker.changed();
+        tokenVersionRegistry.advance(id, savedUser.getTokenVersion());
+        userAvailabilityService.record(savedUser);
+        userSearchIndex.put(savedUser);
+        auditService.record(AuditEventType.USER_UPDATE, "SUCCESS", savedUser.getId(), savedUser.getUsername(), null);
         logger.info("用户信息更新成功！ID={}, 用户名={}", savedUser.getId(), savedUser.getUsername());
     
         return savedUser;
     }
 
+    /**
+     * 部分更新用户（PATCH）
+     * 不先查询用户，直接执行一条只 SET 请求中字段的 UPDATE，并用版本号做乐观锁：
+     * - 邮箱重复由数据库唯一约束检查，不再额外查询
+     * - 更新 0 行时才查询一次用户是否存在，用来区分“不存在”和“版本冲突”
+     * @param id 用户 ID
+     * @param patch 要修改的字段和客户端读取到的版本号
+     * @return 更新后的版本号
+     * @throws IllegalArgumentException 参数无效、用户不存在或邮箱已被占用时
+     * @throws AdminRequiredException 非管理员修改角色或启用状态时
+     * @throws UserVersionConflictException 版本号不一致时
+     * @throws PasswordHashingRejectedException 修改密码时密码哈希线程池已满
+     */
+    public long patchUser(Long id, UserPatch patch) {
+        logger.info("部分更新用户: ID={}", id);
+
+        if (id == null) {
+            throw new IllegalArgumentException("用户 ID 不能为空！");
+        }
+        if (patch == null || patch.isEmpty()) {
+            throw new IllegalArgumentException("没有需要更新的字段！");
+        }
+        if (patch.version() == null) {
+            throw new IllegalArgumentException("version 不能为空！");
+        }
+        if ((patch.role() != null || patch.enabled() != null) && !isAdmin()) {
+            throw new AdminRequiredException();
+        }
+
+        Map<String, Object> values = new LinkedHashMap<>();
+        if (patch.username() != null) {
+            if (patch.username().trim().isEmpty()) {
+                throw new IllegalArgumentException("用户名不能为空！");
+            }
+            values.put("username", patch.username());
+        }
+        if (patch.email() != null) {
+            if (patch.email().trim().isEmpty()) {
+                throw new IllegalArgumentException("邮箱不能为空！");
+            }
+            values.put("email", patch.email());
+        }
+        if (patch.password() != null) {
+            if (patch.password().isEmpty()) {
+                throw new IllegalArgumentException("密码不能为空！");
+            }
+            values.put("password", passwordEncoder.encode(patch.password()));
+        }
+        if (patch.role() != null) {
+            if (patch.role().trim().isEmpty()) {
+                throw new IllegalArgumentException("角色不能为空！");
+            }
+            values.put("role", patch.role());
+        }
+        if (patch.enabled() != null) {
+            values.put("enabled", patch.enabled());
+        }
+
+        // 角色、启用状态或密码变化时同一条 UPDATE 把 tokenVersion 加 1，让已签发的 Token 失效
+        boolean revokeTokens = patch.password() != null || patch.role() != null || patch.enabled() != null;
+
+        int updated;
+        try {
+            updated = userRepository.patch(id, patch.version(), values, revokeTokens);
+        }
+        catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException(constraintViolationMessage(e, "该邮箱已被其他用户使用！"));
+        }
+        if (updated == 0) {
+            if (!userRepository.existsById(id)) {
+                throw new IllegalArgumentException("ID=" + id + " 的用户不存在！");
+            }
+            throw new UserVersionConflictException(id);
+        }
+
+        // 写入已提交，淘汰缓存（按 ID 淘汰时旧的用户名/邮箱索引会一起失效）
+        userLookupCache.evict(id, null, null);
+        userChangeTracker.changed();
+        if (revokeTokens) {
+            tokenVersionRegistry.increment(id);
+        }
+        User changed = new User();
+        changed.setUsername(patch.username());
+        changed.setEmail(patch.email());
+        userAvailabilityService.record(changed);
+
+        long newVersion = patch.version() + 1;
+        userSearchIndex.patch(id, patch.username(), patch.email(), newVersion);
+        auditService.record(AuditEventType.USER_UPDATE, "SUCCESS", id, patch.username(), "patch " + values.keySet());
+        logger.info("用户部分更新成功！ID={}, 字段={}, 版本={}", id, values.keySet(), newVersion);
+        return newVersion;
+    }
+
     /**
      * 删除用户
+     * 只执行一条 DELETE，根据删除的行数判断用户是否存在
      * @param id 用户ID
-     * @throws IllegalArgumentException 当用户不存在时
+     * @return 是否删除了用户（false 表示用户不存在）
+     * @throws IllegalArgumentException ID 为空时
      */
-    public void deleteUser(Long id) {
+    public boolean deleteUser(Long id) {
         logger.info("删除用户: ID={}", id);
     
         if (id == null) {
             throw new IllegalArgumentException("用户ID不能为空");
         }
     
-        // 检查用户是否存在
-        if (!userRepository.existsById(id)) {
-            throw new IllegalArgumentException("用户不存在, ID: " + id);
+        if (userRepository.deleteUserById(id) == 0) {
+            logger.info("要删除的用户不存在: ID={}", id);
+            return false;
         }
-    
-        userRepository.deleteById(id);
+        userLookupCache.evict(id, null, null);
+        userChangeTracker.changed();
+        tokenVersionRegistry.revokeAll(id);
+        userSearchIndex.remove(id);
+        auditService.record(AuditEventType.USER_DELETE, "SUCCESS", id, null, null);
         logger.info("用户删除成功: ID={}", id);
+        return true;
     }
 
-}
\ No newline at end of file
+    /**
+     * 批量删除用户
+     * ID 去重后按 IN_CLAUSE_CHUNK 分段，每段先查出存在的 ID，再对它们执行一条 DELETE ... WHERE id IN (...)，
+     * 各段在独立的事务中提交，避免一次删除几万行时长时间持有大量行锁；
+     * 不存在的 ID 直接忽略，只淘汰缓存、吊销 Token 实际删除的用户
+     * @param ids 要删除的用户 ID
+     * @return 实际删除的用户数
+     * @throws IllegalArgumentException 列表为空、超过上限或包含空 ID 时
+     */
+    public int deleteUsers(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("用户 ID 列表不能为空！");
+        }
+        if (ids.size() > MAX_DELETE_SIZE) {
+            throw new IllegalArgumentException("单次最多删除 " + MAX_DELETE_SIZE + " 个用户！");
+        }
+        Set<Long> unique = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (id == null) {
+                throw new IllegalArgumentException("用户 ID 不能为空！");
+            }
+            unique.add(id);
+        }
+        logger.info("开始批量删除用户: {} 个", unique.size());
+
+        List<Long> distinct = new ArrayList<>(unique);
+        int deleted = 0;
+        for (int from = 0; from < distinct.size(); from += IN_CLAUSE_CHUNK) {
+            List<Long> chunk = distinct.subList(from, Math.min(from + IN_CLAUSE_CHUNK, distinct.size()));
+            List<Long> existing = userRepository.findExistingIds(chunk);
+            if (existing.isEmpty()) {
+                continue;
+            }
+            // 只删除查到的 ID：查询之后被其他请求删掉的用户这里多吊销一次也没有影响
+            int chunkDeleted = userRepository.deleteUsersByIds(existing);
+            deleted += chunkDeleted;
+            for (Long id : existing) {
+                userLookupCache.evict(id, null, null);
+                tokenVersionRegistry.revokeAll(id);
+                userSearchIndex.remove(id);
+            }
+            userChangeTracker.changed();
+            // 每段记录一条事件，只记数量和 ID 范围，不记完整的 ID 列表
+            auditService.record(AuditEventType.USER_DELETE, "SUCCESS", null, null,
+                    "bulk requested=" + chunk.size() + " deleted=" + chunkDeleted
+                            + " minId=" + Collections.min(existing) + " maxId=" + Collections.max(existing));
+        }
+
+        logger.info("批量删除用户完成: 请求 {} 个, 删除 {} 个", unique.size(), deleted);
+        return deleted;
+    }
+
+    /**
+     * 写入时违反数据库约束的错误信息：邮箱唯一约束冲突时返回 duplicateEmailMessage，
+     * 其他约束（用户名过长、非空等）返回通用的错误信息
+     */
+    private static String constraintViolationMessage(DataIntegrityViolationException e, String duplicateEmailMessage) {
+        if (ConstraintViolations.isDuplicateEmail(e)) {
+            return duplicateEmailMessage;
+        }
+        logger.warn("写入用户时违反数据库约束: {}", e.getMostSpecificCause().getMessage());
+        return "用户数据不符合数据库约束（例如用户名超过 50 个字符）！";
+    }
+
+    /**
+     * 当前请求的用户是否为管理员（角色来自 JWT 的 role 声明）
+     */
+    private static boolean isAdmin() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.backendpractice.service;
+
+/**
+ * 更新时用户的版本号与请求中的不一致（用户已被其他请求修改）
+ * 控制器收到后应返回 409，客户端需要重新读取用户后再提交修改
+ */
+public class UserVersionConflictException extends RuntimeException {
+
+    private final Long id;
+
+    public UserVersionConflictException(Long id) {
+        super("用户已被其他请求修改，请重新获取后再更新！");
+        this.id = id;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
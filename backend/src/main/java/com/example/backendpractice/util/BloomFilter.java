@@ -0,0 +1,100 @@
+package com.example.backendpractice.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 线程安全的布隆过滤器（无锁，位数组用 AtomicLongArray 存储）
+ * mightContain 返回 false 表示一定不存在；返回 true 表示可能存在（有 fpp 的误判率）
+ * 布隆过滤器不支持删除，删除的元素会继续被判为“可能存在”，只会多查一次数据库，不会出错
+ */
+public final class BloomFilter {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final AtomicLongArray words;
+    private final long numBits;
+    private final int numHashes;
+
+    private BloomFilter(long numBits, int numHashes) {
+        this.numBits = numBits;
+        this.numHashes = numHashes;
+        this.words = new AtomicLongArray((int) ((numBits + 63) / 64));
+    }
+
+    /**
+     * 按预计元素数量和期望误判率创建
+     * @param expectedInsertions 预计元素数量
+     * @param fpp 期望误判率（0 到 1 之间，如 0.01）
+     */
+    public static BloomFilter create(long expectedInsertions, double fpp) {
+        if (expectedInsertions < 1) {
+            expectedInsertions = 1;
+        }
+        if (fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("误判率必须在 0 和 1 之间: " + fpp);
+        }
+        // m = -n * ln(p) / (ln2)^2，k = m / n * ln2
+        long numBits = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        numBits = Math.max(64, Math.min(numBits, (long) Integer.MAX_VALUE * 64));
+        int numHashes = Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+        return new BloomFilter(numBits, numHashes);
+    }
+
+    /**
+     * 加入一个元素
+     */
+    public void put(String key) {
+        long h1 = hash(key);
+        long h2 = fmix64(h1 + GOLDEN_GAMMA);
+        for (int i = 0; i < numHashes; i++) {
+            long bit = ((h1 + i * h2) & Long.MAX_VALUE) % numBits;
+            int index = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            if ((words.get(index) & mask) == 0) {
+                words.accumulateAndGet(index, mask, (current, m) -> current | m);
+            }
+        }
+    }
+
+    /**
+     * 元素是否可能存在
+     */
+    public boolean mightContain(String key) {
+        long h1 = hash(key);
+        long h2 = fmix64(h1 + GOLDEN_GAMMA);
+        for (int i = 0; i < numHashes; i++) {
+            long bit = ((h1 + i * h2) & Long.MAX_VALUE) % numBits;
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getNumBits() {
+        return numBits;
+    }
+
+    public int getNumHashes() {
+        return numHashes;
+    }
+
+    // FNV-1a 64 位哈希，再用 MurmurHash3 的 fmix64 打散
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return fmix64(h);
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
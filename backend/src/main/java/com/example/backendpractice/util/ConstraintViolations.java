@@ -0,0 +1,56 @@
+package com.example.backendpractice.util;
+
+import com.example.backendpractice.entity.User;
+
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * 判断数据库约束冲突是哪一类约束引起的
+ * users 表除了自增主键之外只有 email 一个唯一约束，所以写入用户时的"唯一键重复"就是邮箱重复；
+ * 按 SQLState / 错误码识别唯一键重复，不依赖约束名：升级前的数据库里 email 上是 Hibernate 自动命名的唯一键
+ * （MySQL 报错时给出的是旧的键名），和新的 uk_users_email 都能识别
+ * 长度超限（SQLState 22001）、非空（H2 23502，MySQL 1048）等其他约束冲突不算邮箱重复
+ * 给 users 表增加其他唯一约束时需要同时修改这里
+ */
+public final class ConstraintViolations {
+
+    // SQL 标准的唯一约束冲突（H2、PostgreSQL）
+    private static final String UNIQUE_VIOLATION_SQL_STATE = "23505";
+    // MySQL 的 ER_DUP_ENTRY / ER_DUP_ENTRY_WITH_KEY_NAME（SQLState 是笼统的 23000，需要看错误码）
+    private static final int MYSQL_DUP_ENTRY = 1062;
+    private static final int MYSQL_DUP_ENTRY_WITH_KEY_NAME = 1586;
+
+    private ConstraintViolations() {
+    }
+
+    /**
+     * 是否是 users.email 唯一约束冲突（邮箱已存在）
+     * 沿着异常链查找：JDBC 的 SQLException 按 SQLState / 错误码判断；
+     * R2DBC 等不经过 SQLException 的驱动按错误信息判断（新的约束名，或 MySQL 的 "Duplicate entry"）
+     */
+    public static boolean isDuplicateEmail(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sqlException && isDuplicateKey(sqlException)) {
+                return true;
+            }
+            String message = t.getMessage();
+            if (message != null) {
+                String lower = message.toLowerCase(Locale.ROOT);
+                if (lower.contains(User.EMAIL_UNIQUE_CONSTRAINT) || lower.startsWith("duplicate entry")) {
+                    return true;
+                }
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isDuplicateKey(SQLException e) {
+        return UNIQUE_VIOLATION_SQL_STATE.equals(e.getSQLState())
+                || e.getErrorCode() == MYSQL_DUP_ENTRY
+                || e.getErrorCode() == MYSQL_DUP_ENTRY_WITH_KEY_NAME;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.backendpractice.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * 已验证 Token 缓存
+ * 同一个 Bearer Token 第一次验签成功后放入缓存，之后的请求直接命中，不再做 HMAC 验签和 JSON 解析
+ * - 键是 Token 的 SHA-256 摘要，缓存中不保存 Token 原文
+ * - 每个条目在 Token 的 exp 时刻过期，过期的 Token 不可能命中
+ * - 条目数有上限，超出时按 Caffeine 的策略淘汰
+ * 命中/未命中/淘汰次数通过 Micrometer 暴露（cache.gets、cache.evictions，cache=jwtTokenCache）
+ */
+@Component
+public class JwtTokenCache {
+
+    private final Cache<String, VerifiedToken> cache;
+
+    public JwtTokenCache(MeterRegistry meterRegistry,
+                         @Value("${app.jwt.cache.max-size:10000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken verified, long currentTime) {
+                        return remainingNanos(verified);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken verified, long currentTime, long currentDuration) {
+                        return remainingNanos(verified);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken verified, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwtTokenCache");
+    }
+
+    /**
+     * 查询缓存中已验证的 Token
+     * @param token JWT Token
+     * @return 验证结果，未命中（或已过期）时返回 null
+     */
+    public VerifiedToken get(String token) {
+        return cache.getIfPresent(digest(token));
+    }
+
+    /**
+     * 缓存一个已经验签通过的 Token
+     * @param token JWT Token
+     * @param verified JwtUtil.verify 的结果
+     */
+    public void put(String token, VerifiedToken verified) {
+        if (verified.getExpiresAt() == null || verified.isExpired()) {
+            return;     // 没有过期时间或已经过期的 Token 不缓存
+        }
+        cache.put(digest(token), verified);
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * 缓存统计（命中、未命中、淘汰次数）
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        }
+        catch (NoSuchAlgorithmException e) {
+            // 所有 JDK 都必须支持 SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // 距离 Token 过期还剩多少纳秒
+    private static long remainingNanos(VerifiedToken verified) {
+        Duration remaining = Duration.between(Instant.now(), verified.getExpiresAt());
+        return remaining.isNegative() ? 0 : remaining.toNanos();
+    }
+}
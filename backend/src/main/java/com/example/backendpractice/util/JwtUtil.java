@@ -1,12 +1,17 @@
 package com.example.backendpractice.util;
 
+import com.example.backendpractice.entity.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.Mac;
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
 import java.util.Date;
 
 @Component
@@ -16,22 +21,91 @@ public class JwtUtil {
     private static final SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes());
 
     // Token 过期时间 （24小时）
-    private static final long EXPIRATION_TIME = 86400000;   // 24 h
+    public static final long EXPIRATION_TIME = 86400000;   // 24 h
+
+    // 共享的解析器：构建后不可变，线程安全，不需要每次解析都重新构建
+    private static final JwtParser parser = Jwts.parserBuilder()
+            .setSigningKey(key)
+            .build();
+
+    // 用户声明的名称
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_EMAIL = "email";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_ENABLED = "enabled";
+    public static final String CLAIM_TOKEN_VERSION = "tv";
+
+    // 预先编码好的 Header：{"alg":"HS256"}，每次签发直接复用
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+    private static final byte[] HEADER_PREFIX =
+            (BASE64_URL.encodeToString("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.UTF_8)) + ".")
+                    .getBytes(StandardCharsets.US_ASCII);
+
+    // 已经用密钥初始化好的 HMAC 原型，每个线程克隆一份，避免重复初始化和加锁
+    private static final Mac MAC_PROTOTYPE = createMac();
+    private static final ThreadLocal<Mac> MAC = ThreadLocal.withInitial(JwtUtil::cloneMac);
 
 
     /**
-     * 生成 JWT Token
+     * 生成只带用户名的旧格式 JWT Token
+     * 直接拼接 Header 和 Payload 并用 HmacSHA256 签名，结果与 Jwts.builder() 生成的 Token 格式相同
+     * 认证时不再接受这种 Token（无法判断账户是否已禁用），只保留给验签相关的测试和基准使用
      * @param username 用户名
      * @return JWT Token 字符串
      */
     public String generateToken(String username) {
-        return Jwts.builder()
-                .setSubject(username)                         // 设置主题（用户名)
-                .setIssuedAt(new Date())                       // 设置签发时间
-                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))     // 设置过期时间
-                .signWith(key, SignatureAlgorithm.HS256)      // 使用密钥签名
-                .compact();                                   // 生成 Token 字符串
-    }           
+        long now = System.currentTimeMillis();
+        return sign(username, null, now / 1000, (now + EXPIRATION_TIME) / 1000);
+    }
+
+    /**
+     * 生成带用户声明的 JWT Token
+     * 除 sub 外还写入 uid、email、role、enabled 和 tv（Token 版本号），
+     * 认证过滤器和 /api/auth/validate 直接从 Token 中读取，不再查询数据库
+     * @param user 用户
+     * @param tokenVersion 用户当前的 Token 版本号，见 TokenVersionRegistry
+     * @return JWT Token 字符串
+     */
+    public String generateToken(User user, int tokenVersion) {
+        return generateToken(user.getId(), user.getUsername(), user.getEmail(), user.getRole(), user.isEnabled(), tokenVersion);
+    }
+
+    /**
+     * 生成带用户声明的 JWT Token（不依赖 JPA 实体，响应式版本使用）
+     */
+    public String generateToken(Long userId, String username, String email, String role, boolean enabled, int tokenVersion) {
+        long now = System.currentTimeMillis();
+        StringBuilder claims = new StringBuilder(96);
+        claims.append(",\"uid\":").append(userId);
+        claims.append(",\"email\":");
+        appendJsonString(claims, email);
+        claims.append(",\"role\":");
+        appendJsonString(claims, role);
+        claims.append(",\"enabled\":").append(enabled);
+        claims.append(",\"tv\":").append(tokenVersion);
+        return sign(username, claims, now / 1000, (now + EXPIRATION_TIME) / 1000);
+    }
+
+    /**
+     * 验证 Token 并一次性取出其中的信息
+     * 签名、格式和过期时间只校验一次
+     * @param token JWT Token
+     * @return 验证通过的 Token 信息
+     * @throws io.jsonwebtoken.JwtException Token 无效或已过期时
+     */
+    public VerifiedToken verify(String token) {
+        Claims claims = extractClaims(token);
+        Date issuedAt = claims.getIssuedAt();
+        Date expiration = claims.getExpiration();
+        return new VerifiedToken(claims.getSubject(),
+                issuedAt == null ? null : issuedAt.toInstant(),
+                expiration == null ? null : expiration.toInstant(),
+                claims.get(CLAIM_USER_ID, Long.class),
+                claims.get(CLAIM_EMAIL, String.class),
+                claims.get(CLAIM_ROLE, String.class),
+                claims.get(CLAIM_ENABLED, Boolean.class),
+                claims.get(CLAIM_TOKEN_VERSION, Integer.class));
+    }
 
     /**
      * 从 Token 中提取用户名
@@ -39,7 +113,7 @@ public class JwtUtil {
      * @return 用户名
      */
     public String extractUsername(String token) {
-    return extractClaims(token).getSubject();
+        return extractClaims(token).getSubject();
     }
 
     /**
@@ -59,8 +133,8 @@ public class JwtUtil {
      */
     public boolean validateToken(String token, String username) {
         try {
-            String tokenUsername = extractUsername(token);
-            return tokenUsername.equals(username) && !isTokenExpired(token);
+            VerifiedToken verified = verify(token);
+            return verified.getSubject().equals(username) && !verified.isExpired();
         }
         catch (Exception e) {
             return false;
@@ -69,14 +143,91 @@ public class JwtUtil {
 
     /**
      * 解析 Token 获取 claims
+     * 会校验签名和过期时间，Token 无效或已过期时抛出 JwtException
      * @param token JWT Token
      * @return claims 对象
      */
-    private Claims extractClaims(String token) {
-        return Jwts.parserBuilder()
-            .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    public Claims extractClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * 签发 Token：base64url(header).base64url(payload).base64url(signature)
+     * @param subject 用户名
+     * @param extraClaims 追加在 sub 后面的其他声明（以逗号开头的 JSON 片段），可以为 null
+     * @param issuedAtSeconds 签发时间（秒）
+     * @param expirationSeconds 过期时间（秒）
+     */
+    private String sign(String subject, CharSequence extraClaims, long issuedAtSeconds, long expirationSeconds) {
+        StringBuilder json = new StringBuilder(64 + subject.length() + (extraClaims == null ? 0 : extraClaims.length()));
+        json.append("{\"sub\":");
+        appendJsonString(json, subject);
+        if (extraClaims != null) {
+            json.append(extraClaims);
+        }
+        json.append(",\"iat\":").append(issuedAtSeconds);
+        json.append(",\"exp\":").append(expirationSeconds);
+        json.append('}');
+
+        byte[] payload = BASE64_URL.encode(json.toString().getBytes(StandardCharsets.UTF_8));
+
+        Mac mac = MAC.get();
+        mac.update(HEADER_PREFIX);
+        mac.update(payload);
+        byte[] signature = BASE64_URL.encode(mac.doFinal());  // doFinal 之后 Mac 自动重置，可以继续复用
+
+        byte[] token = new byte[HEADER_PREFIX.length + payload.length + 1 + signature.length];
+        System.arraycopy(HEADER_PREFIX, 0, token, 0, HEADER_PREFIX.length);
+        System.arraycopy(payload, 0, token, HEADER_PREFIX.length, payload.length);
+        token[HEADER_PREFIX.length + payload.length] = '.';
+        System.arraycopy(signature, 0, token, HEADER_PREFIX.length + payload.length + 1, signature.length);
+        return new String(token, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * 以 JSON 字符串的形式追加（处理引号、反斜杠和控制字符的转义）
+     */
+    private static void appendJsonString(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    }
+                    else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    private static Mac createMac() {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac;
+        }
+        catch (GeneralSecurityException e) {
+            throw new IllegalStateException("无法初始化 HmacSHA256", e);
+        }
+    }
+
+    private static Mac cloneMac() {
+        try {
+            return (Mac) MAC_PROTOTYPE.clone();
+        }
+        catch (CloneNotSupportedException e) {
+            // 不支持克隆的实现退回到重新初始化
+            return createMac();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,77 @@
+package com.example.backendpractice.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按键（如用户名、IP）限流的令牌桶
+ * 每个桶只用一个 AtomicLong 保存“理论到达时间”（TAT，GCRA 算法，与令牌桶等价）：
+ * - 每次请求把 TAT 向后推一个令牌间隔；TAT 超出当前时间太多（桶已空）时拒绝
+ * - 更新只有一次 CAS，不加锁；不同键的桶互不影响
+ * 桶存放在 Caffeine 缓存中：
+ * - 空闲超过“从空桶恢复到满桶”的时间后自动淘汰（此时桶已经满了，淘汰后重建结果相同，不会放过多余的请求）
+ * - 桶的数量有上限，占用内存有界；超出时淘汰的桶下次按满桶重新开始
+ */
+public class KeyedRateLimiter {
+
+    private final long intervalNanos;       // 每个令牌的恢复间隔
+    private final long burstNanos;          // 允许的突发：(capacity - 1) 个令牌间隔
+    private final Ticker ticker;
+    private final Cache<String, AtomicLong> buckets;
+
+    /**
+     * @param capacity 桶容量（允许的突发请求数）
+     * @param refillInterval 恢复一个令牌需要的时间
+     * @param maxKeys 最多同时保存多少个键的桶
+     */
+    public KeyedRateLimiter(int capacity, Duration refillInterval, long maxKeys) {
+        this(capacity, refillInterval, maxKeys, Ticker.systemTicker());
+    }
+
+    public KeyedRateLimiter(int capacity, Duration refillInterval, long maxKeys, Ticker ticker) {
+        if (capacity < 1 || refillInterval.isNegative() || refillInterval.isZero()) {
+            throw new IllegalArgumentException("capacity 必须大于 0，refillInterval 必须为正数");
+        }
+        this.intervalNanos = refillInterval.toNanos();
+        this.burstNanos = intervalNanos * (capacity - 1);
+        this.ticker = ticker;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofNanos(intervalNanos * capacity))
+                .ticker(ticker)
+                .build();
+    }
+
+    /**
+     * 尝试取一个令牌
+     * @param key 限流的键
+     * @return 0 表示允许；大于 0 表示被拒绝，值为需要等待的纳秒数
+     */
+    public long tryAcquire(String key) {
+        AtomicLong tat = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        while (true) {
+            long now = ticker.read();
+            long current = tat.get();
+            long start = current == Long.MIN_VALUE ? now : Math.max(current, now);
+            long wait = start - burstNanos - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (tat.compareAndSet(current, start + intervalNanos)) {
+                return 0;
+            }
+            // CAS 失败说明有并发请求更新了同一个桶，重新读取后再试
+        }
+    }
+
+    /**
+     * 当前保存的桶数量（估计值）
+     */
+    public long size() {
+        return buckets.estimatedSize();
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.backendpractice.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset 分页游标
+ * 记录上一页最后一行的排序键（排序字段、方向、created_at、id），编码为 URL 安全的 Base64 字符串，
+ * 对客户端来说是不透明的，只需原样传回即可
+ */
+public final class PageCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final String sort;
+    private final boolean descending;
+    private final LocalDateTime createdAt;  // 仅按 createdAt 排序时有值
+    private final long id;
+
+    public PageCursor(String sort, boolean descending, LocalDateTime createdAt, long id) {
+        this.sort = sort;
+        this.descending = descending;
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * 编码为不透明字符串
+     */
+    public String encode() {
+        String raw = sort + SEPARATOR + (descending ? "desc" : "asc") + SEPARATOR
+                + (createdAt == null ? "" : createdAt.toString()) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码游标
+     * @throws IllegalArgumentException 游标格式不正确时
+     */
+    public static PageCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("无效的分页游标！");
+            }
+            LocalDateTime createdAt = parts[2].isEmpty() ? null : LocalDateTime.parse(parts[2]);
+            return new PageCursor(parts[0], "desc".equals(parts[1]), createdAt, Long.parseLong(parts[3]));
+        }
+        catch (DateTimeParseException | IllegalArgumentException e) {
+            // NumberFormatException 也是 IllegalArgumentException 的子类
+            throw new IllegalArgumentException("无效的分页游标！");
+        }
+    }
+}
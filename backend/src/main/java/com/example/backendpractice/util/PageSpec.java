@@ -0,0 +1,49 @@
+package com.example.backendpractice.util;
+
+/**
+ * 校验后的游标分页参数（每页数量、排序字段、排序方向和解码后的游标）
+ * MVC 和响应式两个版本的用户列表共用同一套校验规则
+ */
+public record PageSpec(int size, String sortKey, boolean descending, PageCursor after) {
+
+    public boolean byCreatedAt() {
+        return "createdAt".equals(sortKey);
+    }
+
+    /**
+     * 校验分页参数并解码游标
+     * @param limit 每页数量，为空时使用 defaultSize，超过 maxSize 时取 maxSize
+     * @param sort 排序字段：id 或 createdAt
+     * @param order 排序方向：asc 或 desc
+     * @throws IllegalArgumentException 参数或游标无效时
+     */
+    public static PageSpec parse(String cursor, Integer limit, String sort, String order, int defaultSize, int maxSize) {
+        int size = limit == null ? defaultSize : limit;
+        if (size < 1) {
+            throw new IllegalArgumentException("每页数量必须大于 0！");
+        }
+        size = Math.min(size, maxSize);
+
+        String sortKey = sort == null ? "id" : sort;
+        if (!"id".equals(sortKey) && !"createdAt".equals(sortKey)) {
+            throw new IllegalArgumentException("不支持的排序字段: " + sort);
+        }
+        boolean byCreatedAt = "createdAt".equals(sortKey);
+
+        if (order != null && !"asc".equalsIgnoreCase(order) && !"desc".equalsIgnoreCase(order)) {
+            throw new IllegalArgumentException("不支持的排序方向: " + order);
+        }
+        boolean descending = "desc".equalsIgnoreCase(order);
+
+        PageCursor after = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            after = PageCursor.decode(cursor);
+            // 游标必须和本次请求的排序方式一致
+            if (!sortKey.equals(after.getSort()) || after.isDescending() != descending
+                    || (byCreatedAt && after.getCreatedAt() == null)) {
+                throw new IllegalArgumentException("分页游标与排序方式不匹配！");
+            }
+        }
+        return new PageSpec(size, sortKey, descending, after);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.backendpractice.util;
+
+import java.time.Instant;
+
+/**
+ * 验签通过的 Token 信息（不可变）
+ * 由 JwtUtil.verify 一次解析得到，之后读取用户名、签发时间和过期时间都不需要再次解析 Token
+ * 新签发的 Token 还带有用户 ID、邮箱、角色、启用状态和 Token 版本号，认证时不需要再查询数据库；
+ * 旧格式的 Token 没有这些声明，对应字段为 null（见 hasUserClaims），认证时一律视为失效
+ */
+public final class VerifiedToken {
+
+    private final String subject;
+    private final Instant issuedAt;
+    private final Instant expiresAt;
+    private final Long userId;
+    private final String email;
+    private final String role;
+    private final Boolean enabled;
+    private final Integer tokenVersion;
+
+    public VerifiedToken(String subject, Instant issuedAt, Instant expiresAt) {
+        this(subject, issuedAt, expiresAt, null, null, null, null, null);
+    }
+
+    public VerifiedToken(String subject, Instant issuedAt, Instant expiresAt,
+                         Long userId, String email, String role, Boolean enabled, Integer tokenVersion) {
+        this.subject = subject;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+        this.userId = userId;
+        this.email = email;
+        this.role = role;
+        this.enabled = enabled;
+        this.tokenVersion = tokenVersion;
+    }
+
+    // 用户名
+    public String getSubject() {
+        return subject;
+    }
+
+    public Instant getIssuedAt() {
+        return issuedAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public Boolean getEnabled() {
+        return enabled;
+    }
+
+    public Integer getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public boolean isExpired() {
+        return expiresAt != null && !expiresAt.isAfter(Instant.now());
+    }
+
+    /**
+     * 是否带有用户声明（uid、role、enabled、tv），旧格式的 Token 返回 false
+     */
+    public boolean hasUserClaims() {
+        return userId != null && role != null && enabled != null && tokenVersion != null;
+    }
+
+    @Override
+    public String toString() {
+        return "VerifiedToken{" + "subject=" + subject + ", userId=" + userId + ", role=" + role
+                + ", enabled=" + enabled + ", tokenVersion=" + tokenVersion
+                + ", issuedAt=" + issuedAt + ", expiresAt=" + expiresAt + "}";
+    }
+}
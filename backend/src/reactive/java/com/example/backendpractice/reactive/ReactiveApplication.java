@@ -0,0 +1,29 @@
+package com.example.backendpractice.reactive;
+
+import com.example.backendpractice.service.LoginRateLimiter;
+import com.example.backendpractice.util.JwtTokenCache;
+import com.example.backendpractice.util.JwtUtil;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Import;
+
+/**
+ * 响应式版本的启动类（WebFlux + R2DBC，只在 -Preactive 构建中存在）
+ * 只扫描 reactive 包，JWT 签发/验证、Token 缓存和登录限流直接复用 MVC 版本的组件
+ * MVC 版本扫描到这个包时，@ConditionalOnWebApplication 让这里的所有配置和控制器都不生效
+ */
+@SpringBootApplication
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Import({JwtUtil.class, JwtTokenCache.class, LoginRateLimiter.class})
+public class ReactiveApplication {
+
+    public static void main(String[] args) {
+        SpringApplication application = new SpringApplication(ReactiveApplication.class);
+        // classpath 中同时有 Tomcat 和 Netty，明确使用响应式的 Netty 服务器
+        application.setWebApplicationType(WebApplicationType.REACTIVE);
+        application.setAdditionalProfiles("reactive");
+        application.run(args);
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.backendpractice.reactive;
+
+import com.example.backendpractice.controller.AuthController.LoginRequest;
+import com.example.backendpractice.controller.AuthController.TokenRequest;
+import com.example.backendpractice.dto.UserInfo;
+import com.example.backendpractice.service.LoginRateLimiter;
+import com.example.backendpractice.service.LoginThrottledException;
+import com.example.backendpractice.service.PasswordHashingRejectedException;
+import com.example.backendpractice.util.JwtTokenCache;
+import com.example.backendpractice.util.JwtUtil;
+import com.example.backendpractice.util.VerifiedToken;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 响应式版本的登录和 Token 验证接口，请求和响应格式与 AuthController 相同
+ * 密码校验在 ReactivePasswordHashing 的调度器上执行，查询用户和 Token 版本号都不阻塞事件循环线程
+ */
+@RestController
+@RequestMapping("/api/auth")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAuthController {
+
+    @Autowired
+    private ReactiveUserService userService;
+
+    @Autowired
+    private ReactivePasswordHashing passwordHashing;
+
+    @Autowired
+    private ReactiveTokenVersions tokenVersions;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private JwtTokenCache jwtTokenCache;
+
+    @Autowired
+    private LoginRateLimiter loginRateLimiter;
+
+    /**
+     * 用户登录接口
+     */
+    @PostMapping("/login")
+    public Mono<ResponseEntity<Map<String, Object>>> login(@RequestBody LoginRequest loginRequest, ServerHttpRequest request) {
+        String username = loginRequest.getUsername();
+        String password = loginRequest.getPassword();
+
+        // 按 IP 和用户名限流，在查询用户和校验密码之前执行
+        try {
+            loginRateLimiter.check(clientIp(request), username);
+        }
+        catch (LoginThrottledException e) {
+            return Mono.just(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(createErrorResponse(e.getMessage())));
+        }
+
+        if (username == null || username.trim().isEmpty()) {
+            return Mono.just(ResponseEntity.badRequest().body(createErrorResponse("用户名不能为空")));
+        }
+
+        return userService.findByUsername(username)
+                .flatMap(user -> passwordHashing.matches(password, user.password())
+                        .map(matches -> {
+                            if (!matches) {
+                                return ResponseEntity.badRequest().body(createErrorResponse("密码错误"));
+                            }
+                            if (!user.enabled()) {
+                                return ResponseEntity.badRequest().body(createErrorResponse("账户已被禁用"));
+                            }
+                            String token = jwtUtil.generateToken(user.id(), user.username(), user.email(),
+                                    user.role(), user.enabled(), user.tokenVersion());
+
+                            Map<String, Object> response = new HashMap<>();
+                            response.put("success", true);
+                            response.put("message", "登录成功");
+                            response.put("token", token);
+                            response.put("user", new UserInfo(user.id(), user.username(), user.email(),
+                                    user.role(), user.enabled(), user.createdAt()));
+                            return ResponseEntity.ok(response);
+                        }))
+                .defaultIfEmpty(ResponseEntity.badRequest().body(createErrorResponse("用户不存在")))
+                .onErrorResume(PasswordHashingRejectedException.class, e -> Mono.just(
+                        ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                                .body(createErrorResponse(e.getMessage()))))
+                .onErrorResume(e -> Mono.just(ResponseEntity.internalServerError()
+                        .body(createErrorResponse("登录失败:" + e.getMessage()))));
+    }
+
+    /**
+     * 验证 Token 接口
+     * 新格式的 Token 根据声明和 Token 版本号判断；旧格式的 Token（没有用户 ID 和版本号）无法判断账户是否已禁用或删除，不再接受，用户需要重新登录
+     */
+    @PostMapping("/validate")
+    public Mono<ResponseEntity<Map<String, Object>>> validateToken(@RequestBody TokenRequest tokenRequest) {
+        String token = tokenRequest.getToken();
+        if (token == null || token.trim().isEmpty()) {
+            return Mono.just(ResponseEntity.badRequest().body(createErrorResponse("Token不能为空")));
+        }
+
+        VerifiedToken verified;
+        try {
+            verified = jwtTokenCache.get(token);
+            if (verified == null) {
+                verified = jwtUtil.verify(token);
+                jwtTokenCache.put(token, verified);
+            }
+        }
+        catch (Exception e) {
+            return Mono.just(ResponseEntity.badRequest().body(createErrorResponse("Token 验证失败: " + e.getMessage())));
+        }
+
+        // 旧格式的 Token 不再接受，需要重新登录
+        if (!verified.hasUserClaims()) {
+            return Mono.just(ResponseEntity.badRequest().body(createErrorResponse("Token 已失效，请重新登录")));
+        }
+        VerifiedToken claims = verified;
+        Mono<Boolean> active = claims.getEnabled()
+                ? tokenVersions.isCurrent(claims.getUserId(), claims.getTokenVersion())
+                : Mono.just(false);
+        return active.map(isActive -> {
+            if (!isActive) {
+                return ResponseEntity.badRequest().body(createErrorResponse("Token 已失效"));
+            }
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Token有效");
+            response.put("user", UserInfo.from(claims));
+            return ResponseEntity.ok(response);
+        });
+    }
+
+    private static String clientIp(ServerHttpRequest request) {
+        InetSocketAddress address = request.getRemoteAddress();
+        if (address == null) {
+            return "unknown";
+        }
+        return address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString();
+    }
+
+    /**
+     * 创建错误响应
+     */
+    private static Map<String, Object> createErrorResponse(String message) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("success", false);
+        error.put("message", message);
+        return error;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.backendpractice.reactive;
+
+import com.example.backendpractice.service.PasswordHashingRejectedException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 响应式版本的密码哈希
+ * BCrypt 是 CPU 密集型的阻塞计算，绝不能在事件循环线程上执行。这里交给独立的有界调度器，
+ * 规则与 PasswordHashingService 相同：线程数默认等于 CPU 核数，等待队列满时立即失败（对应 503 + Retry-After）
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePasswordHashing implements DisposableBean {
+
+    private final PasswordEncoder delegate;
+    private final Scheduler scheduler;
+    private final int retryAfterSeconds;
+
+    public ReactivePasswordHashing(@Value("${app.security.bcrypt.strength:10}") int strength,
+                                   @Value("${app.security.hashing.threads:0}") int threads,
+                                   @Value("${app.security.hashing.queue-capacity:64}") int queueCapacity,
+                                   @Value("${app.security.hashing.retry-after-seconds:1}") int retryAfterSeconds) {
+        int poolSize = threads < 1 ? Runtime.getRuntime().availableProcessors() : threads;
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.scheduler = Schedulers.newBoundedElastic(poolSize, queueCapacity, "password-hashing");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public Mono<String> encode(CharSequence rawPassword) {
+        return submit(Mono.fromCallable(() -> delegate.encode(rawPassword)));
+    }
+
+    public Mono<Boolean> matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(Mono.fromCallable(() -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    private <T> Mono<T> submit(Mono<T> task) {
+        return task.subscribeOn(scheduler)
+                .onErrorMap(RejectedExecutionException.class,
+                        e -> new PasswordHashingRejectedException(retryAfterSeconds));
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.dispose();
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.backendpractice.reactive;
+
+import com.example.backendpractice.util.JwtTokenCache;
+import com.example.backendpractice.util.JwtUtil;
+import com.example.backendpractice.util.VerifiedToken;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.web.server.WebFilter;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * 响应式版本的安全配置，访问规则与 SecurityConfig 相同
+ * JWT 过滤器与 JwtAuthenticationFilter 的行为一致：Token 无效或已失效时不设置认证信息，
+ * 公开接口照常访问，受保护的接口返回 403
+ */
+@Configuration
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSecurityConfig {
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, JwtUtil jwtUtil, JwtTokenCache jwtTokenCache,
+                                                         ReactiveTokenVersions tokenVersions) {
+        return http
+                .csrf(csrf -> csrf.disable())
+                .cors(cors -> cors.disable())
+                .formLogin(form -> form.disable())
+                .httpBasic(basic -> basic.disable())
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())   // 无状态（适合 JWT）
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.FORBIDDEN)))
+                .authorizeExchange(exchanges -> exchanges
+                        .pathMatchers("/api/auth/**").permitAll()
+                        .pathMatchers(HttpMethod.DELETE, "/api/users", "/api/users/").hasRole("ADMIN")
+                        .pathMatchers("/api/users", "/api/users/").permitAll()
+                        .pathMatchers("/actuator/health").permitAll()
+                        .pathMatchers("/actuator/prometheus").permitAll()
+                        .anyExchange().authenticated())
+                .addFilterAt(jwtAuthenticationWebFilter(jwtUtil, jwtTokenCache, tokenVersions),
+                        SecurityWebFiltersOrder.AUTHENTICATION)
+                .build();
+    }
+
+    /**
+     * 从 Authorization: Bearer 头中读取 JWT
+     * 验签结果放在 JwtTokenCache 中（只做 CPU 计算，不阻塞），Token 版本号通过 ReactiveTokenVersions 异步检查
+     * 不注册为 Bean：WebFilter 类型的 Bean 会被 WebFlux 自动加到全局过滤器链中，变成执行两次
+     */
+    private static WebFilter jwtAuthenticationWebFilter(JwtUtil jwtUtil, JwtTokenCache jwtTokenCache,
+                                                        ReactiveTokenVersions tokenVersions) {
+        return (exchange, chain) -> {
+            String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+            if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+                return chain.filter(exchange);
+            }
+            VerifiedToken verified;
+            try {
+                String token = authHeader.substring(7);
+                verified = jwtTokenCache.get(token);
+                if (verified == null) {
+                    verified = jwtUtil.verify(token);
+                    jwtTokenCache.put(token, verified);
+                }
+            }
+            catch (Exception e) {
+                // Token 无效，不设置认证信息
+                return chain.filter(exchange);
+            }
+
+            // 旧格式的 Token（没有用户 ID 和版本号）无法判断账户是否已禁用或删除，视为失效
+            VerifiedToken token = verified;
+            Mono<Boolean> active = token.hasUserClaims() && token.getEnabled()
+                    ? tokenVersions.isCurrent(token.getUserId(), token.getTokenVersion())
+                    : Mono.just(false);
+            return active.flatMap(isActive -> {
+                if (!isActive) {
+                    return chain.filter(exchange);
+                }
+                // 认证主体名使用用户 ID（与 Servlet 版本相同），改名后旧 Token 不会被当成同名的新用户
+                UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(String.valueOf(token.getUserId()), null, authorities(token));
+                return chain.filter(exchange)
+                        .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
+            });
+        };
+    }
+
+    private static List<GrantedAuthority> authorities(VerifiedToken verified) {
+        if (verified.getRole() == null) {
+            return List.of();
+        }
+        return List.of(new SimpleGrantedAuthority("ROLE_" + verified.getRole()));
+    }
+}
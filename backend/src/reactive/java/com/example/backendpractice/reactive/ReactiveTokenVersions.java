@@ -0,0 +1,52 @@
+package com.example.backendpractice.reactive;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * 响应式版本的 Token 版本号检查
+ * MVC 版本的 TokenVersionRegistry 只在自己的进程内存中，响应式版本是独立的进程，
+ * 所以从数据库读取 token_version，并在本机缓存 app.reactive.token-version-ttl；
+ * 同一个用户的并发请求共享一次查询，缓存期内不再访问数据库
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTokenVersions {
+
+    // 用户已被删除
+    private static final int DELETED = -1;
+
+    private final AsyncLoadingCache<Long, Integer> versions;
+
+    public ReactiveTokenVersions(ReactiveUserRepository userRepository,
+                                 @Value("${app.reactive.token-version-ttl:5s}") Duration ttl,
+                                 @Value("${app.cache.users.max-size:10000}") long maxSize) {
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .buildAsync((id, executor) -> userRepository.findTokenVersion(id)
+                        .defaultIfEmpty(DELETED)
+                        .toFuture());
+    }
+
+    /**
+     * Token 中的版本号是否仍然有效（用户存在，且版本号不低于当前版本）
+     */
+    public Mono<Boolean> isCurrent(Long userId, int tokenVersion) {
+        return Mono.fromFuture(() -> versions.get(userId))
+                .map(current -> current != DELETED && tokenVersion >= current);
+    }
+
+    /**
+     * 删除用户后立即让缓存失效
+     */
+    public void invalidate(Long userId) {
+        versions.synchronous().invalidate(userId);
+    }
+}
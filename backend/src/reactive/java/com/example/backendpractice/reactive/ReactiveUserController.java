@@ -0,0 +1,121 @@
+package com.example.backendpractice.reactive;
+
+import com.example.backendpractice.dto.UserInfo;
+import com.example.backendpractice.entity.User;
+import com.example.backendpractice.service.PasswordHashingRejectedException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 响应式版本的用户接口，路径、参数和响应格式与 UserController 相同
+ * 目前提供读取、创建和删除；PUT / PATCH、批量接口、fields 参数和 ETag 仍然只在 MVC 版本中
+ */
+@RestController
+@RequestMapping("/api/users")
+@CrossOrigin(origins = "*")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserController {
+
+    @Autowired
+    private ReactiveUserService userService;
+
+    // 获取用户列表 - GET /api/users
+    // 不带分页参数时以 JSON 数组返回全部用户：一边从数据库游标中读取一边写出，
+    // 客户端读得慢时 Netty 的写缓冲区满了就暂停读取（背压），内存占用与行数无关
+    // 带 limit 或 cursor 时使用游标分页
+    @GetMapping
+    public Mono<ResponseEntity<?>> getAllUsers(@RequestParam(required = false) String cursor,
+                                               @RequestParam(required = false) Integer limit,
+                                               @RequestParam(defaultValue = "id") String sort,
+                                               @RequestParam(defaultValue = "asc") String order,
+                                               @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return Mono.just(badRequest("响应式接口暂不支持 fields 参数"));
+        }
+        if (cursor == null && limit == null) {
+            return Mono.just(ResponseEntity.ok(userService.getAllUsers()));
+        }
+        return userService.getUsersPage(cursor, limit, sort, order)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(badRequest(e.getMessage())));
+    }
+
+    // 流式导出全部用户 - GET /api/users/export
+    // 响应为 NDJSON，每行一个用户，按客户端的读取速度从数据库中取行
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public Flux<UserInfo> exportUsers() {
+        return userService.getAllUsers()
+                .map(user -> new UserInfo(user.id(), user.username(), user.email(), user.role(),
+                        user.enabled(), user.createdAt()));
+    }
+
+    // 创建用户 - POST /api/users
+    @PostMapping
+    public Mono<ResponseEntity<?>> createUser(@RequestBody User user) {
+        return userService.createUser(user)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(badRequest(e.getMessage())))
+                .onErrorResume(PasswordHashingRejectedException.class, e -> Mono.just(serviceUnavailable(e)));
+    }
+
+    // 根据 ID 获取用户 - GET /api/users/{id}
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<?>> getUserById(@PathVariable Long id) {
+        return userService.getUserById(id)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/profile")
+    public ResponseEntity<?> getUserProfile() {
+        // 该接口应该只有登录的用户可以访问
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "这是受保护的用户资料接口");
+        response.put("timestamp", LocalDateTime.now());
+        return ResponseEntity.ok(response);
+    }
+
+    // 删除用户 - DELETE /api/users/{id}
+    // 用户不存在时返回 404
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<?>> deleteUser(@PathVariable Long id) {
+        return userService.deleteUser(id)
+                .map(deleted -> {
+                    Map<String, Object> response = new HashMap<>();
+                    if (!deleted) {
+                        response.put("success", false);
+                        response.put("message", "用户不存在, ID: " + id);
+                        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+                    }
+                    response.put("success", true);
+                    response.put("message", "用户删除成功");
+                    return ResponseEntity.ok(response);
+                });
+    }
+
+    private static ResponseEntity<?> badRequest(String message) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("message", message);
+        return ResponseEntity.badRequest().body(errorResponse);
+    }
+
+    private static ResponseEntity<?> serviceUnavailable(PasswordHashingRejectedException e) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("message", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+}
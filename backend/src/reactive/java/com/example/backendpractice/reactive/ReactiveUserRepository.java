@@ -0,0 +1,106 @@
+package com.example.backendpractice.reactive;
+
+import com.example.backendpractice.util.PageCursor;
+import com.example.backendpractice.util.PageSpec;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * users 表的 R2DBC 访问（非阻塞，SQL 与 UserRepository 中的 JPQL 一一对应）
+ * 返回的 Flux 按订阅方的需求从游标中取行，下游处理不过来时不会继续读取
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserRepository {
+
+    private static final String SELECT = "SELECT " + UserRow.COLUMNS + " FROM users";
+
+    private final DatabaseClient client;
+
+    public ReactiveUserRepository(DatabaseClient client) {
+        this.client = client;
+    }
+
+    // 全部用户（按 id 升序）
+    public Flux<UserRow> findAll() {
+        return client.sql(SELECT + " ORDER BY id")
+                .map(UserRow::from)
+                .all();
+    }
+
+    // keyset 分页：查询 limit 行，排序和游标条件与 UserRepository.findPage* 相同
+    public Flux<UserRow> findPage(PageSpec spec, int limit) {
+        String direction = spec.descending() ? "DESC" : "ASC";
+        String compare = spec.descending() ? "<" : ">";
+        PageCursor after = spec.after();
+
+        StringBuilder sql = new StringBuilder(SELECT);
+        if (after != null) {
+            sql.append(spec.byCreatedAt()
+                    ? " WHERE created_at " + compare + " :createdAt OR (created_at = :createdAt AND id " + compare + " :id)"
+                    : " WHERE id " + compare + " :id");
+        }
+        sql.append(spec.byCreatedAt()
+                ? " ORDER BY created_at " + direction + ", id " + direction
+                : " ORDER BY id " + direction);
+        sql.append(" LIMIT ").append(limit);
+
+        DatabaseClient.GenericExecuteSpec statement = client.sql(sql.toString());
+        if (after != null) {
+            statement = statement.bind("id", after.getId());
+            if (spec.byCreatedAt()) {
+                statement = statement.bind("createdAt", after.getCreatedAt());
+            }
+        }
+        return statement.map(UserRow::from).all();
+    }
+
+    public Mono<UserRow> findById(Long id) {
+        return client.sql(SELECT + " WHERE id = :id")
+                .bind("id", id)
+                .map(UserRow::from)
+                .one();
+    }
+
+    // 用户名没有唯一约束，和 JPA 版本一样取 id 最小的一个
+    public Mono<UserRow> findByUsername(String username) {
+        return client.sql(SELECT + " WHERE username = :username ORDER BY id LIMIT 1")
+                .bind("username", username)
+                .map(UserRow::from)
+                .one();
+    }
+
+    // 插入用户，返回自增 id；邮箱重复时抛出 DataIntegrityViolationException
+    public Mono<Long> insert(UserRow user) {
+        return client.sql("INSERT INTO users (username, email, password, role, enabled, created_at, version, token_version)"
+                        + " VALUES (:username, :email, :password, :role, :enabled, :createdAt, 0, 0)")
+                .bind("username", user.username())
+                .bind("email", user.email())
+                .bind("password", user.password())
+                .bind("role", user.role())
+                .bind("enabled", user.enabled())
+                .bind("createdAt", user.createdAt())
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .map(row -> row.get("id", Long.class))
+                .one();
+    }
+
+    // 删除用户，返回删除的行数
+    public Mono<Long> deleteById(Long id) {
+        return client.sql("DELETE FROM users WHERE id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    // 用户当前的 Token 版本号（用户不存在时为空）
+    public Mono<Integer> findTokenVersion(Long id) {
+        return client.sql("SELECT token_version FROM users WHERE id = :id")
+                .bind("id", id)
+                .map(row -> row.get("token_version", Integer.class))
+                .one();
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.backendpractice.reactive;
+
+import com.example.backendpractice.dto.CursorPage;
+import com.example.backendpractice.entity.User;
+import com.example.backendpractice.service.UserService;
+import com.example.backendpractice.util.ConstraintViolations;
+import com.example.backendpractice.util.PageCursor;
+import com.example.backendpractice.util.PageSpec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 响应式版本的用户业务逻辑
+ * 校验规则、默认值和错误信息与 UserService 相同，参数无效时以 IllegalArgumentException 结束
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveUserService.class);
+
+    private final ReactiveUserRepository userRepository;
+    private final ReactivePasswordHashing passwordHashing;
+    private final ReactiveTokenVersions tokenVersions;
+
+    public ReactiveUserService(ReactiveUserRepository userRepository,
+                               ReactivePasswordHashing passwordHashing,
+                               ReactiveTokenVersions tokenVersions) {
+        this.userRepository = userRepository;
+        this.passwordHashing = passwordHashing;
+        this.tokenVersions = tokenVersions;
+    }
+
+    /**
+     * 全部用户，逐行从数据库游标中取出，按下游的需求推送
+     */
+    public Flux<UserRow> getAllUsers() {
+        return userRepository.findAll();
+    }
+
+    /**
+     * 游标分页获取用户（keyset 分页），与 UserService.getUsersPage 的参数和结果相同
+     * @throws IllegalArgumentException 参数或游标无效时（以错误信号返回）
+     */
+    public Mono<CursorPage<UserRow>> getUsersPage(String cursor, Integer limit, String sort, String order) {
+        return Mono.fromCallable(() -> PageSpec.parse(cursor, limit, sort, order,
+                        UserService.DEFAULT_PAGE_SIZE, UserService.MAX_PAGE_SIZE))
+                .flatMap(spec -> userRepository.findPage(spec, spec.size() + 1)
+                        .collectList()
+                        .map(rows -> toPage(spec, rows)));
+    }
+
+    private static CursorPage<UserRow> toPage(PageSpec spec, List<UserRow> rows) {
+        String nextCursor = null;
+        if (rows.size() > spec.size()) {
+            rows = rows.subList(0, spec.size());
+            UserRow last = rows.get(spec.size() - 1);
+            nextCursor = new PageCursor(spec.sortKey(), spec.descending(),
+                    spec.byCreatedAt() ? last.createdAt() : null, last.id()).encode();
+        }
+        return new CursorPage<>(rows, nextCursor, spec.size());
+    }
+
+    public Mono<UserRow> getUserById(Long id) {
+        return userRepository.findById(id);
+    }
+
+    public Mono<UserRow> findByUsername(String username) {
+        return userRepository.findByUsername(username);
+    }
+
+    /**
+     * 创建新用户：校验、在哈希调度器上加密密码、插入，重复邮箱由唯一约束判断
+     * @throws IllegalArgumentException 用户数据无效或邮箱已存在时（以错误信号返回）
+     */
+    public Mono<UserRow> createUser(User user) {
+        if (user == null) {
+            return Mono.error(new IllegalArgumentException("用户信息不能为空！"));
+        }
+        if (user.getUsername() == null || user.getUsername().trim().isEmpty()) {
+            return Mono.error(new IllegalArgumentException("用户名不能为空！"));
+        }
+        if (user.getEmail() == null || user.getEmail().trim().isEmpty()) {
+            return Mono.error(new IllegalArgumentException("邮箱不能为空！"));
+        }
+        if (user.getPassword() == null || user.getPassword().isEmpty()) {
+            return Mono.error(new IllegalArgumentException("密码不能为空！"));
+        }
+        logger.info("开始创建用户: {}", user.getUsername());
+
+        // 注册接口是公开的，忽略请求中的角色
+        String role = "USER";
+        LocalDateTime createdAt = LocalDateTime.now();
+        return passwordHashing.encode(user.getPassword())
+                .map(hash -> new UserRow(null, user.getUsername(), user.getEmail(), hash, role, true, createdAt, 0, 0))
+                .flatMap(row -> userRepository.insert(row)
+                        .map(id -> new UserRow(id, row.username(), row.email(), row.password(), row.role(),
+                                row.enabled(), row.createdAt(), 0, 0)))
+                .onErrorMap(DataIntegrityViolationException.class,
+                        e -> new IllegalArgumentException(ConstraintViolations.isDuplicateEmail(e)
+                                ? "邮箱已经存在，请勿重复创建！"
+                                : "用户数据不符合数据库约束（例如用户名超过 50 个字符）！"))
+                .doOnNext(saved -> logger.info("用户创建成功: ID={}, 用户名={}", saved.id(), saved.username()));
+    }
+
+    /**
+     * 删除用户
+     * @return 是否删除了用户（false 表示用户不存在）
+     */
+    public Mono<Boolean> deleteUser(Long id) {
+        return userRepository.deleteById(id)
+                .map(deleted -> deleted > 0)
+                .doOnNext(deleted -> {
+                    if (deleted) {
+                        tokenVersions.invalidate(id);
+                        logger.info("用户删除成功: ID={}", id);
+                    }
+                });
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.backendpractice.reactive;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.r2dbc.spi.Readable;
+
+import java.time.LocalDateTime;
+
+/**
+ * users 表的一行（R2DBC 读取结果）
+ * JSON 格式与 MVC 版本的 User 实体相同：不输出密码哈希和 Token 版本号
+ */
+public record UserRow(Long id, String username, String email,
+                      @JsonIgnore String password,
+                      String role, boolean enabled, LocalDateTime createdAt, long version,
+                      @JsonIgnore int tokenVersion) {
+
+    // SELECT 的列，与 from 的读取顺序无关
+    static final String COLUMNS = "id, username, email, password, role, enabled, created_at, version, token_version";
+
+    static UserRow from(Readable row) {
+        Boolean enabled = row.get("enabled", Boolean.class);
+        Long version = row.get("version", Long.class);
+        Integer tokenVersion = row.get("token_version", Integer.class);
+        return new UserRow(row.get("id", Long.class),
+                row.get("username", String.class),
+                row.get("email", String.class),
+                row.get("password", String.class),
+                row.get("role", String.class),
+                enabled != null && enabled,
+                row.get("created_at", LocalDateTime.class),
+                version == null ? 0 : version,
+                tokenVersion == null ? 0 : tokenVersion);
+    }
+}
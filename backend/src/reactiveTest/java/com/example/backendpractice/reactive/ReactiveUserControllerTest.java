@@ -0,0 +1,152 @@
+package com.example.backendpractice.reactive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = ReactiveApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.main.web-application-type=reactive",
+                "spring.r2dbc.url=r2dbc:h2:mem:///reactive-test;DB_CLOSE_DELAY=-1",
+                "spring.r2dbc.username=sa",
+                "spring.r2dbc.password=",
+                "app.security.bcrypt.strength=4",
+                "app.rate-limit.login.enabled=false"
+        })
+@ActiveProfiles("reactive")
+@DisplayName("响应式用户接口测试")
+public class ReactiveUserControllerTest {
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void setUp() {
+        // 表结构与 JPA 为 User 实体生成的一致
+        databaseClient.sql("DROP TABLE IF EXISTS users").then().block();
+        databaseClient.sql("CREATE TABLE users (id BIGINT AUTO_INCREMENT PRIMARY KEY, username VARCHAR(50) NOT NULL,"
+                + " email VARCHAR(255) NOT NULL CONSTRAINT uk_users_email UNIQUE, password VARCHAR(255) NOT NULL, role VARCHAR(255) NOT NULL,"
+                + " enabled BOOLEAN NOT NULL, created_at TIMESTAMP NOT NULL, version BIGINT DEFAULT 0 NOT NULL,"
+                + " token_version INT DEFAULT 0 NOT NULL)").then().block();
+    }
+
+    @Test
+    @DisplayName("创建用户后可以按 ID、列表、分页和导出读取，响应中不包含密码")
+    public void shouldCreateAndReadUsers() {
+        long aliceId = createUser("alice", "alice@example.com");
+        createUser("bob", "bob@example.com");
+        createUser("carol", "carol@example.com");
+        String bearer = "Bearer " + login("alice");
+
+        client.get().uri("/api/users/{id}", aliceId).header(HttpHeaders.AUTHORIZATION, bearer).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.username").isEqualTo("alice")
+                .jsonPath("$.version").isEqualTo(0)
+                .jsonPath("$.password").doesNotExist();
+        client.get().uri("/api/users/{id}", 999).header(HttpHeaders.AUTHORIZATION, bearer).exchange()
+                .expectStatus().isNotFound();
+
+        client.get().uri("/api/users").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.length()").isEqualTo(3);
+
+        Map<?, ?> firstPage = client.get().uri("/api/users?limit=2").exchange()
+                .expectStatus().isOk()
+                .expectBody(Map.class).returnResult().getResponseBody();
+        assertNotNull(firstPage);
+        assertEquals(2, ((List<?>) firstPage.get("items")).size());
+        assertEquals(true, firstPage.get("hasMore"));
+        client.get().uri("/api/users?limit=2&cursor={cursor}", firstPage.get("nextCursor")).exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items[0].username").isEqualTo("carol")
+                .jsonPath("$.nextCursor").doesNotExist();
+
+        List<String> lines = client.get().uri("/api/users/export").header(HttpHeaders.AUTHORIZATION, bearer)
+                .accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class).getResponseBody().collectList().block();
+        assertNotNull(lines);
+        assertEquals(3, lines.size());
+    }
+
+    @Test
+    @DisplayName("重复邮箱和无效的分页参数返回 400")
+    public void shouldRejectInvalidRequests() {
+        createUser("alice", "alice@example.com");
+
+        client.post().uri("/api/users").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("username", "alice2", "email", "alice@example.com", "password", "Passw0rd!"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("邮箱已经存在，请勿重复创建！");
+
+        client.get().uri("/api/users?limit=2&sort=email").exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.success").isEqualTo(false);
+    }
+
+    @Test
+    @DisplayName("登录后带 Token 访问受保护接口，用户删除后 Token 失效")
+    public void shouldAuthenticateWithJwt() {
+        long id = createUser("alice", "alice@example.com");
+
+        client.get().uri("/api/users/profile").exchange().expectStatus().isForbidden();
+        client.post().uri("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("username", "alice", "password", "wrong"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("密码错误");
+
+        String token = login("alice");
+
+        client.get().uri("/api/users/profile").header(HttpHeaders.AUTHORIZATION, "Bearer " + token).exchange()
+                .expectStatus().isOk();
+        client.post().uri("/api/auth/validate").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("token", token))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.user.username").isEqualTo("alice");
+
+        client.delete().uri("/api/users/{id}", id).header(HttpHeaders.AUTHORIZATION, "Bearer " + token).exchange()
+                .expectStatus().isOk();
+        client.get().uri("/api/users/profile").header(HttpHeaders.AUTHORIZATION, "Bearer " + token).exchange()
+                .expectStatus().isForbidden();
+    }
+
+    private String login(String username) {
+        Map<?, ?> body = client.post().uri("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("username", username, "password", "Passw0rd!"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Map.class).returnResult().getResponseBody();
+        assertNotNull(body);
+        return (String) body.get("token");
+    }
+
+    private long createUser(String username, String email) {
+        Map<?, ?> body = client.post().uri("/api/users").contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("username", username, "email", email, "password", "Passw0rd!"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(Map.class).returnResult().getResponseBody();
+        assertNotNull(body);
+        return ((Number) body.get("id")).longValue();
+    }
+}
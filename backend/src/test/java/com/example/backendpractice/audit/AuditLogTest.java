@@ -0,0 +1,195 @@
+package com.example.backendpractice.audit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("审计日志测试")
+public class AuditLogTest {
+
+    private static final int SEGMENT_SIZE = AuditLog.MIN_SEGMENT_SIZE;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("写入的事件可以按序号原样读出")
+    public void shouldRoundTripEvents() throws IOException {
+        try (AuditLog log = AuditLog.open(directory, SEGMENT_SIZE)) {
+            long last = log.append(List.of(
+                    AuditEvent.of(AuditEventType.USER_CREATE, "SUCCESS", 1L, "alice", "admin", null, "batch"),
+                    AuditEvent.of(AuditEventType.LOGIN, "BAD_PASSWORD", null, "张三", null, "127.0.0.1", null)));
+            assertEquals(2, last);
+        }
+
+        List<AuditEvent> events = new AuditLogReader(directory).read(1, 10);
+
+        assertEquals(2, events.size());
+        AuditEvent created = events.get(0);
+        assertEquals(1, created.sequence());
+        assertEquals(AuditEventType.USER_CREATE, created.type());
+        assertEquals(1L, created.userId());
+        assertEquals("admin", created.actor());
+        assertEquals("batch", created.detail());
+        AuditEvent login = events.get(1);
+        assertEquals(2, login.sequence());
+        assertEquals("BAD_PASSWORD", login.outcome());
+        assertNull(login.userId());
+        assertEquals("张三", login.username());
+        assertEquals("127.0.0.1", login.clientIp());
+        assertEquals(List.of(2L), sequences(new AuditLogReader(directory).read(2, 10)));
+    }
+
+    @Test
+    @DisplayName("重新打开后序号接着上次继续")
+    public void shouldContinueSequenceAfterReopen() throws IOException {
+        try (AuditLog log = AuditLog.open(directory, SEGMENT_SIZE)) {
+            log.append(events(3, ""));
+        }
+        try (AuditLog log = AuditLog.open(directory, SEGMENT_SIZE)) {
+            assertEquals(3, log.lastSequence());
+            assertEquals(5, log.append(events(2, "")));
+        }
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), sequences(new AuditLogReader(directory).read(1, 10)));
+    }
+
+    @Test
+    @DisplayName("段写满后切换到新的段，读取时跨段连续")
+    public void shouldRollOverSegments() throws IOException {
+        String detail = "x".repeat(20_000);
+        try (AuditLog log = AuditLog.open(directory, SEGMENT_SIZE)) {
+            log.append(events(120, detail));
+        }
+
+        List<Path> segments = AuditLog.segments(directory);
+        assertTrue(segments.size() > 1);
+        assertEquals(1, AuditLog.baseSequence(segments.get(0)));
+
+        List<Long> sequences = new ArrayList<>();
+        long next = new AuditLogReader(directory).replay(1, event -> sequences.add(event.sequence()));
+        assertEquals(120, sequences.size());
+        assertEquals(1, sequences.get(0));
+        assertEquals(120, sequences.get(119));
+        assertEquals(121, next);
+
+        // 从后面的段开始读取
+        long base = AuditLog.baseSequence(segments.get(1));
+        assertEquals(List.of(base, base + 1), sequences(new AuditLogReader(directory).read(base, 2)));
+    }
+
+    @Test
+    @DisplayName("崩溃时写了一半的记录被丢弃，并从它的位置继续写")
+    public void shouldDiscardTornRecord() throws IOException {
+        try (AuditLog log = AuditLog.open(directory, SEGMENT_SIZE)) {
+            log.append(events(2, ""));
+        }
+        // 模拟崩溃：在最后一条记录后面写入长度，但内容和 CRC 不完整
+        Path segment = AuditLog.segments(directory).get(0);
+        int end = endOfRecords(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            ByteBuffer torn = ByteBuffer.allocate(12);
+            torn.putInt(40).putInt(12345).putInt(7).flip();
+            channel.write(torn, end);
+        }
+        assertEquals(2, new AuditLogReader(directory).read(1, 10).size());
+
+        try (AuditLog log = AuditLog.open(directory, SEGMENT_SIZE)) {
+            assertEquals(2, log.lastSequence());
+            log.append(events(1, "after crash"));
+        }
+
+        List<AuditEvent> events = new AuditLogReader(directory).read(1, 10);
+        assertEquals(List.of(1L, 2L, 3L), sequences(events));
+        assertEquals("after crash", events.get(2).detail());
+    }
+
+    @Test
+    @DisplayName("Tailer 持续读到新写入的记录，并跟随写入端切换段")
+    public void shouldTailNewRecords() throws IOException {
+        AuditLogReader reader = new AuditLogReader(directory);
+        try (AuditLog log = AuditLog.open(directory, SEGMENT_SIZE);
+             AuditLogReader.Tailer tailer = reader.tail(1)) {
+            assertTrue(tailer.poll(10).isEmpty());
+
+            log.append(events(3, ""));
+            assertEquals(List.of(1L, 2L), sequences(tailer.poll(2)));
+            assertEquals(List.of(3L), sequences(tailer.poll(10)));
+            assertTrue(tailer.poll(10).isEmpty());
+
+            log.append(events(100, "y".repeat(20_000)));
+            List<AuditEvent> tailed = new ArrayList<>();
+            List<AuditEvent> polled;
+            while (!(polled = tailer.poll(16)).isEmpty()) {
+                tailed.addAll(polled);
+            }
+            assertTrue(AuditLog.segments(directory).size() > 1);
+            assertEquals(100, tailed.size());
+            assertEquals(103, tailed.get(99).sequence());
+            assertEquals(104, tailer.nextSequence());
+        }
+    }
+
+    @Test
+    @DisplayName("同一个读取端分页读取时从检查点开始，结果和从头读取一致")
+    public void shouldPageFromCheckpoints() throws IOException {
+        int total = AuditLogReader.CHECKPOINT_INTERVAL * 3 + 10;
+        try (AuditLog log = AuditLog.open(directory, SEGMENT_SIZE)) {
+            log.append(events(total, ""));
+        }
+
+        AuditLogReader reader = new AuditLogReader(directory);
+        long from = 1;
+        List<AuditEvent> page;
+        List<Long> sequences = new ArrayList<>();
+        while (!(page = reader.read(from, 1000)).isEmpty()) {
+            sequences.addAll(sequences(page));
+            from = page.get(page.size() - 1).sequence() + 1;
+        }
+        assertEquals(total, sequences.size());
+        assertEquals(total, sequences.get(total - 1));
+
+        // 检查点之后的任意位置都能准确定位
+        long target = AuditLogReader.CHECKPOINT_INTERVAL * 2L + 7;
+        List<AuditEvent> events = reader.read(target, 2);
+        assertEquals(List.of(target, target + 1), sequences(events));
+        assertEquals("user" + (target - 1), events.get(0).username());
+    }
+
+    private static List<AuditEvent> events(int count, String detail) {
+        List<AuditEvent> events = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            events.add(AuditEvent.of(AuditEventType.USER_UPDATE, "SUCCESS", (long) i, "user" + i, null, null, detail));
+        }
+        return events;
+    }
+
+    private static List<Long> sequences(List<AuditEvent> events) {
+        return events.stream().map(AuditEvent::sequence).toList();
+    }
+
+    /**
+     * 段中最后一条记录之后的位置
+     */
+    private static int endOfRecords(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int position = AuditLog.SEGMENT_HEADER;
+            int length;
+            while ((length = buffer.getInt(position)) > 0) {
+                position += AuditRecordCodec.FRAME_HEADER + length;
+            }
+            return position;
+        }
+    }
+}
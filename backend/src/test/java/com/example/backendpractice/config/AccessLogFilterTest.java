@@ -0,0 +1,65 @@
+package com.example.backendpractice.config;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("访问日志测试")
+public class AccessLogFilterTest {
+
+    private final Logger accessLogger = (Logger) LoggerFactory.getLogger("ACCESS");
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void setUp() {
+        appender.start();
+        accessLogger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        accessLogger.detachAppender(appender);
+    }
+
+    @Test
+    @DisplayName("抽样比例为 0 时只记录 5xx 请求")
+    public void shouldOnlyLogErrorsWhenSampleRateIsZero() throws Exception {
+        // 1.准备测试数据
+        AccessLogFilter filter = new AccessLogFilter(true, 0.0, Duration.ofMinutes(1));
+        MockHttpServletResponse error = new MockHttpServletResponse();
+        error.setStatus(503);
+
+        // 2.执行测试操作：一个正常请求，一个 503
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/users/1"), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/auth/login"), error, new MockFilterChain());
+
+        // 3.验证结果
+        assertEquals(1, appender.list.size());
+        String line = appender.list.get(0).getFormattedMessage();
+        assertTrue(line.contains("\"path\":\"/api/auth/login\""));
+        assertTrue(line.contains("\"status\":503"));
+        assertTrue(line.contains("\"reason\":\"error\""));
+    }
+
+    @Test
+    @DisplayName("关闭时不记录任何请求")
+    public void shouldNotLogWhenDisabled() throws Exception {
+        AccessLogFilter filter = new AccessLogFilter(false, 1.0, Duration.ofMinutes(1));
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/users"), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertTrue(appender.list.isEmpty());
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.backendpractice.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("读写分离数据源测试")
+public class ReadWriteRoutingDataSourceTest {
+
+    private HikariDataSource replicaPool;
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @AfterEach
+    void tearDown() {
+        routingDataSource.close();
+    }
+
+    // 两个独立的 H2 内存库，各有一张 marker 表，用来区分查询落在哪个库
+    private JdbcTemplate setUp(Duration lagWindow) {
+        DriverManagerDataSource primary = new DriverManagerDataSource(
+                "jdbc:h2:mem:primary-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        replicaPool = new HikariDataSource();
+        replicaPool.setJdbcUrl("jdbc:h2:mem:replica-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        replicaPool.setUsername("sa");
+        createMarker(primary, "primary");
+        createMarker(replicaPool, "replica");
+
+        routingDataSource = new ReadWriteRoutingDataSource(primary,
+                List.of(new ReadWriteRoutingDataSource.Replica("replica-0", replicaPool, 1)),
+                ReadWriteRoutingDataSource.Balancing.LEAST_CONNECTIONS, lagWindow, new SimpleMeterRegistry());
+        return new JdbcTemplate(new LazyConnectionDataSourceProxy(routingDataSource));
+    }
+
+    private static void createMarker(DataSource dataSource, String name) {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE marker (name VARCHAR(20))");
+        jdbc.update("INSERT INTO marker VALUES (?)", name);
+    }
+
+    private static String readMarker(JdbcTemplate jdbc, boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(jdbc.getDataSource()));
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status -> jdbc.queryForObject("SELECT name FROM marker", String.class));
+    }
+
+    @Test
+    @DisplayName("只读事务走从库，写事务和没有事务的访问走主库")
+    public void shouldRouteReadOnlyTransactionsToReplica() {
+        JdbcTemplate jdbc = setUp(Duration.ZERO);
+
+        assertEquals("replica", readMarker(jdbc, true));
+        assertEquals("primary", readMarker(jdbc, false));
+        assertEquals("primary", jdbc.queryForObject("SELECT name FROM marker", String.class));
+    }
+
+    @Test
+    @DisplayName("写事务之后的延迟窗口内，只读事务也走主库")
+    public void shouldReadFromPrimaryRightAfterWrite() {
+        JdbcTemplate jdbc = setUp(Duration.ofMinutes(1));
+        assertEquals("replica", readMarker(jdbc, true));
+
+        // 执行一次写事务
+        readMarker(jdbc, false);
+
+        assertEquals("primary", readMarker(jdbc, true));
+    }
+
+    @Test
+    @DisplayName("从库不可用时回退到主库")
+    public void shouldFallBackToPrimaryWhenReplicaIsDown() {
+        JdbcTemplate jdbc = setUp(Duration.ZERO);
+        replicaPool.close();
+
+        assertEquals("primary", readMarker(jdbc, true));
+    }
+}
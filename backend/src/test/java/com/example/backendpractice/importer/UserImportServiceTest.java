@@ -0,0 +1,116 @@
+package com.example.backendpractice.importer;
+
+import com.example.backendpractice.dto.BatchItemResult;
+import com.example.backendpractice.entity.User;
+import com.example.backendpractice.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@DisplayName("用户导入测试")
+public class UserImportServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final UserService userService = mock(UserService.class);
+    private final List<String> importedUsernames = new ArrayList<>();
+
+    private final List<User> importedUsers = new ArrayList<>();
+
+    // 模拟 importUsers：全部成功，记录导入的用户
+    private void acceptAll() {
+        when(userService.importUsers(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            List<BatchItemResult> results = new ArrayList<>();
+            for (int i = 0; i < users.size(); i++) {
+                importedUsernames.add(users.get(i).getUsername());
+                importedUsers.add(users.get(i));
+                results.add(BatchItemResult.success(i, (long) importedUsernames.size()));
+            }
+            return results;
+        });
+    }
+
+    @Test
+    @DisplayName("应该按批次导入 CSV，并记录格式错误的行")
+    public void shouldImportCsvInChunks() throws Exception {
+        // 1.准备测试数据：表头顺序打乱、带引号字段、空行和一行缺列的数据
+        Path file = tempDir.resolve("users.csv");
+        Files.writeString(file, String.join("\r\n",
+                "email,username,password,role,enabled",
+                "a@example.com,alice,pw1,ADMIN,false",
+                "\"b,1@example.com\",\"bob \"\"the\"\" builder\",pw2,,",
+                "",
+                "broken-line",
+                "c@example.com,carol,pw3"), StandardCharsets.UTF_8);
+        acceptAll();
+        UserImportService importService = new UserImportService(userService, new ObjectMapper(), 2);
+
+        // 2.执行测试操作
+        ImportReport report = importService.importFile(file);
+
+        // 3.验证结果
+        assertEquals(List.of("alice", "bob \"the\" builder", "carol"), importedUsernames);
+        assertEquals("ADMIN", importedUsers.get(0).getRole());     // 导入保留文件中的角色和启用状态
+        assertFalse(importedUsers.get(0).isEnabled());
+        assertNull(importedUsers.get(1).getRole());
+        assertTrue(importedUsers.get(2).isEnabled());
+        assertEquals(3, report.getImported());
+        assertEquals(1, report.getFailed());
+        assertFalse(report.isResumed());
+        assertTrue(Files.readString(tempDir.resolve("users.csv.rejected")).startsWith("5\t格式错误"));
+        assertFalse(Files.exists(tempDir.resolve("users.csv.checkpoint")));    // 完成后删除断点
+    }
+
+    @Test
+    @DisplayName("导入中断后再次导入应该从断点继续")
+    public void shouldResumeNdjsonImportFromCheckpoint() throws Exception {
+        // 1.准备测试数据：5 行，每批 2 行
+        Path file = tempDir.resolve("users.ndjson");
+        StringBuilder content = new StringBuilder();
+        for (int i = 1; i <= 5; i++) {
+            content.append("{\"username\":\"user").append(i).append("\",\"email\":\"user").append(i)
+                    .append("@example.com\",\"password\":\"pw\"}\n");
+        }
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        UserImportService importService = new UserImportService(userService, new ObjectMapper(), 2);
+
+        // 2.第一次导入：第二个批次时数据库故障
+        List<BatchItemResult> firstChunk = List.of(BatchItemResult.success(0, 1L), BatchItemResult.success(1, 2L));
+        when(userService.importUsers(anyList()))
+                .thenReturn(firstChunk)
+                .thenThrow(new IllegalStateException("数据库连接断开"));
+        assertThrows(IllegalStateException.class, () -> importService.importFile(file));
+        assertTrue(Files.exists(tempDir.resolve("users.ndjson.checkpoint")));
+
+        // 3.第二次导入：从第 3 行继续
+        reset(userService);
+        acceptAll();
+        ImportReport report = importService.importFile(file);
+
+        assertTrue(report.isResumed());
+        assertEquals(List.of("user3", "user4", "user5"), importedUsernames);
+        assertEquals(5, report.getImported());
+        assertEquals(0, report.getFailed());
+    }
+
+    @Test
+    @DisplayName("批次大小不能超过一条 JDBC 批处理的行数")
+    public void shouldRejectChunkLargerThanInsertBatch() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new UserImportService(userService, new ObjectMapper(), UserService.INSERT_BATCH_SIZE + 1));
+        assertThrows(IllegalArgumentException.class, () -> new UserImportService(userService, new ObjectMapper(), 0));
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.backendpractice.perf;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 基准程序参数
+ * 从命令行的 key=value 参数读取，没有时再读取同名的 bench.key 系统属性，最后使用默认值
+ */
+public final class BenchmarkOptions {
+
+    private final Map<String, String> values = new HashMap<>();
+
+    public BenchmarkOptions(String[] args) {
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("参数格式应为 key=value: " + arg);
+            }
+            values.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+    }
+
+    public String get(String key, String defaultValue) {
+        String value = values.get(key);
+        if (value == null) {
+            value = System.getProperty("bench." + key);
+        }
+        return value == null ? defaultValue : value;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        return Integer.parseInt(get(key, String.valueOf(defaultValue)));
+    }
+
+    public boolean has(String key) {
+        return values.containsKey(key) || System.getProperty("bench." + key) != null;
+    }
+}
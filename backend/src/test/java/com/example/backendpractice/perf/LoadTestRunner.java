@@ -0,0 +1,353 @@
+package com.example.backendpractice.perf;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 端到端 HTTP 压测（固定到达率，开环）
+ * 在 H2 内存库上启动完整应用，写入测试用户，然后按固定速率发送登录、按 ID 查询、分页列表和更新用户的混合请求
+ * 每个请求由一个新的虚拟线程在计划时间发出，服务端变慢不会让客户端少发请求；
+ * 延迟从“计划发送时间”开始计算（修正协调遗漏），同时记录从实际发送开始计算的服务时间作为对照
+ * 延迟用 HdrHistogram 记录（随 Micrometer 引入），每个操作的完整分布写入 target/loadtest/*.hgrm，
+ * 可以用 HdrHistogram 的 plotter 画图或在两次运行之间对比
+ *
+ * 运行：mvn -Pperf test-compile exec:exec -Dperf.main=com.example.backendpractice.perf.LoadTestRunner -Dperf.args="rate=500 duration=30"
+ * 参数：
+ * - users       预先写入的用户数（默认 1000）
+ * - rate        每秒发送的请求数（默认 200）
+ * - duration    压测秒数（默认 30），warmup 预热秒数（默认 5，结果丢弃）
+ * - mix         操作比例（默认 login:5,get:60,list:25,put:10）
+ * - maxInFlight 同时未完成请求的上限（默认 5000），超过时请求不再发送，记为 dropped，避免压垮客户端自身；
+ *               dropped 的请求按"直到压测结束都没有完成"计入延迟分布（延迟 = 所有请求完成的时间 - 计划发送时间），
+ *               过载时最慢的请求不会从 p99 / p99.9 中消失
+ * - output      分布文件目录（默认 target/loadtest）
+ * - datasource.url / datasource.username / datasource.password 指向真实 MySQL
+ */
+public final class LoadTestRunner {
+
+    private static final String PASSWORD = "perf-password";
+    private static final Pattern TOKEN_PATTERN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    // 最长记录 1 小时，3 位有效数字
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.HOURS.toNanos(1);
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkOptions options = new BenchmarkOptions(args);
+        int users = options.getInt("users", 1000);
+        int rate = options.getInt("rate", 200);
+        Duration duration = Duration.ofSeconds(options.getInt("duration", 30));
+        Duration warmup = Duration.ofSeconds(options.getInt("warmup", 5));
+        int maxInFlight = options.getInt("maxInFlight", 5000);
+        Path output = Path.of(options.get("output", "target/loadtest"));
+        Map<String, Integer> weights = parseMix(options.get("mix", "login:5,get:60,list:25,put:10"));
+
+        try (PerfApplication app = PerfApplication.start(options, Map.of());
+             ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(clientExecutor)
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+
+            System.out.println("==> 写入 " + users + " 个测试用户");
+            List<Long> ids = app.seedUsers(users, PASSWORD);
+            // 前一半用户用来登录，后一半用来更新（PUT 会覆盖密码，不能影响登录）
+            int loginUsers = Math.max(1, users / 2);
+            String token = login(client, app.getBaseUrl(), PerfApplication.usernameOf(0));
+
+            List<Operation> operations = operations(app.getBaseUrl(), ids, loginUsers, token, weights);
+
+            System.out.println("==> 预热 " + warmup.toSeconds() + " 秒");
+            run(client, clientExecutor, operations, rate, warmup, maxInFlight);
+
+            System.out.println("==> 压测 " + duration.toSeconds() + " 秒, 目标速率 " + rate + " req/s");
+            long dropped = run(client, clientExecutor, operations, rate, duration, maxInFlight);
+
+            report(operations, duration, dropped, output);
+        }
+    }
+
+    private static List<Operation> operations(String baseUrl, List<Long> ids, int loginUsers, String token,
+                                              Map<String, Integer> weights) {
+        List<Operation> operations = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            Function<ThreadLocalRandom, HttpRequest> request = switch (entry.getKey()) {
+                case "login" -> random -> HttpRequest.newBuilder()
+                        .uri(URI.create(baseUrl + "/api/auth/login"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\""
+                                + PerfApplication.usernameOf(random.nextInt(loginUsers))
+                                + "\",\"password\":\"" + PASSWORD + "\"}"))
+                        .build();
+                case "get" -> random -> HttpRequest.newBuilder()
+                        .uri(URI.create(baseUrl + "/api/users/" + ids.get(random.nextInt(ids.size()))))
+                        .header("Authorization", "Bearer " + token)
+                        .GET().build();
+                case "list" -> random -> HttpRequest.newBuilder()
+                        .uri(URI.create(baseUrl + "/api/users?limit=20"))
+                        .GET().build();
+                case "put" -> random -> {
+                    int index = loginUsers + random.nextInt(Math.max(1, ids.size() - loginUsers));
+                    int safeIndex = Math.min(index, ids.size() - 1);
+                    return HttpRequest.newBuilder()
+                            .uri(URI.create(baseUrl + "/api/users/" + ids.get(safeIndex)))
+                            .header("Authorization", "Bearer " + token)
+                            .header("Content-Type", "application/json")
+                            .PUT(HttpRequest.BodyPublishers.ofString("{\"username\":\""
+                                    + PerfApplication.usernameOf(safeIndex)
+                                    + "\",\"password\":\"updated\",\"role\":\"USER\",\"enabled\":true}"))
+                            .build();
+                };
+                default -> throw new IllegalArgumentException("未知的操作: " + entry.getKey() + "（支持 login/get/list/put）");
+            };
+            operations.add(new Operation(entry.getKey(), entry.getValue(), request));
+        }
+        return operations;
+    }
+
+    /**
+     * 按固定到达率发送请求，直到时间结束，并等待所有请求完成
+     * 第 i 个请求的计划发送时间是 start + i / rate；调度线程落后时会立即补发，不会跳过
+     * 因为未完成请求过多而放弃的请求在结束时按结束时间计入延迟分布
+     * @return 因为未完成请求过多而放弃的请求数
+     */
+    private static long run(HttpClient client, ExecutorService executor, List<Operation> operations,
+                            int rate, Duration duration, int maxInFlight) throws InterruptedException {
+        for (Operation operation : operations) {
+            operation.reset();
+        }
+        int totalWeight = operations.stream().mapToInt(Operation::weight).sum();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long total = duration.toSeconds() * rate;
+        AtomicInteger inFlight = new AtomicInteger();
+        long dropped = 0;
+
+        long start = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long intended = start + i * intervalNanos;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = pick(operations, totalWeight);
+            if (inFlight.get() >= maxInFlight) {
+                dropped++;
+                operation.drop(intended);
+                continue;
+            }
+            inFlight.incrementAndGet();
+            executor.execute(() -> {
+                try {
+                    long sent = System.nanoTime();
+                    boolean ok;
+                    try {
+                        HttpResponse<Void> response = client.send(operation.request.apply(ThreadLocalRandom.current()),
+                                HttpResponse.BodyHandlers.discarding());
+                        ok = response.statusCode() < 400;
+                    }
+                    catch (IOException e) {
+                        ok = false;
+                    }
+                    catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    long end = System.nanoTime();
+                    operation.record(intended, sent, end, ok);
+                }
+                finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        }
+
+        // 等待剩余请求完成
+        while (inFlight.get() > 0) {
+            Thread.sleep(10);
+        }
+        long end = System.nanoTime();
+        for (Operation operation : operations) {
+            operation.recordDropped(end);
+        }
+        return dropped;
+    }
+
+    private static Operation pick(List<Operation> operations, int totalWeight) {
+        int r = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Operation operation : operations) {
+            r -= operation.weight;
+            if (r < 0) {
+                return operation;
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+
+    private static void report(List<Operation> operations, Duration duration, long dropped, Path output)
+            throws IOException {
+        Files.createDirectories(output);
+        Histogram all = new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+        Histogram allService = new Histogram(HIGHEST_TRACKABLE_NANOS, 3);
+        long errors = 0;
+
+        System.out.println();
+        System.out.println("延迟（毫秒，从计划发送时间计算，已修正协调遗漏，包含 dropped 的请求；括号内为服务时间）");
+        System.out.println(header());
+        for (Operation operation : operations) {
+            all.add(operation.responseTime);
+            allService.add(operation.serviceTime);
+            errors += operation.errors.get();
+            System.out.println(line(operation.name, operation.responseTime, operation.serviceTime,
+                    operation.errors.get(), operation.dropped.get(), duration));
+            writeDistribution(output.resolve(operation.name + ".hgrm"), operation.responseTime);
+            writeDistribution(output.resolve(operation.name + "-service.hgrm"), operation.serviceTime);
+        }
+        System.out.println(line("total", all, allService, errors, dropped, duration));
+        writeDistribution(output.resolve("total.hgrm"), all);
+        System.out.println();
+        System.out.println("完整分布已写入 " + output.toAbsolutePath());
+    }
+
+    private static String header() {
+        return String.format("%-6s %8s %7s %7s %9s %17s %17s %17s %17s %17s",
+                "op", "sent", "errors", "dropped", "req/s", "p50", "p95", "p99", "p99.9", "max");
+    }
+
+    private static String line(String name, Histogram response, Histogram service, long errors, long dropped,
+                               Duration duration) {
+        return String.format("%-6s %8d %7d %7d %9.1f %17s %17s %17s %17s %17s",
+                name, service.getTotalCount(), errors, dropped,
+                service.getTotalCount() / (double) duration.toSeconds(),
+                pair(response, service, 50), pair(response, service, 95), pair(response, service, 99),
+                pair(response, service, 99.9), pair(response, service, 100));
+    }
+
+    private static String pair(Histogram response, Histogram service, double percentile) {
+        return String.format("%.2f (%.2f)", millis(response, percentile), millis(service, percentile));
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        long nanos = percentile >= 100 ? histogram.getMaxValue() : histogram.getValueAtPercentile(percentile);
+        return nanos / 1_000_000.0;
+    }
+
+    private static void writeDistribution(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8)) {
+            histogram.outputPercentileDistribution(out, 1_000_000.0);     // 以毫秒输出
+        }
+    }
+
+    // "login:5,get:60" -> {login=5, get=60}（保持顺序）
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("mix 格式应为 操作:权重,...: " + mix);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                weights.put(pair[0].trim(), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("mix 中至少需要一个权重大于 0 的操作: " + mix);
+        }
+        return weights;
+    }
+
+    private static String login(HttpClient client, String baseUrl, String username) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"username\":\"" + username + "\",\"password\":\"" + PASSWORD + "\"}"))
+                .build();
+        String body = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        Matcher matcher = TOKEN_PATTERN.matcher(body);
+        if (!matcher.find()) {
+            throw new IllegalStateException("登录失败: " + body);
+        }
+        return matcher.group(1);
+    }
+
+    // 一种操作：名称、权重、请求构造器和统计
+    private static final class Operation {
+        private final String name;
+        private final int weight;
+        private final Function<ThreadLocalRandom, HttpRequest> request;
+        private final Histogram responseTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+        private final Histogram serviceTime = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3);
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        // 放弃发送的请求的计划发送时间（只由调度线程读写）
+        private final List<Long> droppedIntended = new ArrayList<>();
+
+        private Operation(String name, int weight, Function<ThreadLocalRandom, HttpRequest> request) {
+            this.name = name;
+            this.weight = weight;
+            this.request = request;
+        }
+
+        private int weight() {
+            return weight;
+        }
+
+        private void record(long intended, long sent, long end, boolean ok) {
+            responseTime.recordValue(Math.min(end - intended, HIGHEST_TRACKABLE_NANOS));
+            serviceTime.recordValue(Math.min(end - sent, HIGHEST_TRACKABLE_NANOS));
+            if (!ok) {
+                errors.incrementAndGet();
+            }
+        }
+
+        private void drop(long intended) {
+            droppedIntended.add(intended);
+            dropped.incrementAndGet();
+        }
+
+        // 放弃的请求只计入延迟分布，不计入服务时间（没有发送）
+        private void recordDropped(long end) {
+            for (long intended : droppedIntended) {
+                responseTime.recordValue(Math.min(end - intended, HIGHEST_TRACKABLE_NANOS));
+            }
+            droppedIntended.clear();
+        }
+
+        private void reset() {
+            responseTime.reset();
+            serviceTime.reset();
+            errors.set(0);
+            dropped.set(0);
+            droppedIntended.clear();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.backendpractice.perf;
+
+import com.example.backendpractice.BackendPracticeApplication;
+import com.example.backendpractice.entity.User;
+import com.example.backendpractice.repository.UserRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 性能测试用的应用实例
+ * 在随机端口启动完整的应用（Tomcat + Security + JPA），数据库使用 H2 内存库，
+ * 也可以通过 datasource.url 等参数指向真实的 MySQL
+ */
+public final class PerfApplication implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+    private final int port;
+
+    private PerfApplication(ConfigurableApplicationContext context) {
+        this.context = context;
+        this.port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    /**
+     * 启动应用
+     * @param options 基准参数（datasource.url / datasource.username / datasource.password 可覆盖默认的 H2）
+     * @param properties 额外的 Spring 配置
+     */
+    public static PerfApplication start(BenchmarkOptions options, Map<String, Object> properties) {
+        Map<String, Object> defaults = new HashMap<>();
+        defaults.put("server.port", 0);
+        defaults.put("spring.datasource.url", options.get("datasource.url",
+                "jdbc:h2:mem:perf-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"));
+        defaults.put("spring.datasource.username", options.get("datasource.username", "sa"));
+        defaults.put("spring.datasource.password", options.get("datasource.password", ""));
+        defaults.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+        defaults.put("spring.jpa.show-sql", false);
+        defaults.put("logging.level.root", "WARN");
+        defaults.put("logging.level.com.example.backendpractice", "WARN");
+        defaults.put("logging.level.org.springframework.security", "WARN");
+        defaults.put("logging.level.org.hibernate.SQL", "WARN");
+        defaults.put("logging.level.org.hibernate.type.descriptor.sql.BasicBinder", "WARN");
+        // 压测的登录请求全部来自本机，关闭登录限流，否则测到的是 429
+        defaults.put("app.rate-limit.login.enabled", false);
+        // 审计日志写到临时目录，每次压测从空日志开始
+        defaults.put("app.audit.dir", options.get("audit.dir",
+                System.getProperty("java.io.tmpdir") + "/perf-audit-" + UUID.randomUUID()));
+        defaults.putAll(properties);
+
+        // 以命令行参数的形式传入，优先级高于 application.properties
+        String[] args = defaults.entrySet().stream()
+                .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                .toArray(String[]::new);
+
+        // DevTools 的自动重启必须在应用启动前通过系统属性关闭
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendPracticeApplication.class)
+                .run(args);
+        return new PerfApplication(context);
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + port;
+    }
+
+    public ConfigurableApplicationContext getContext() {
+        return context;
+    }
+
+    /**
+     * 批量写入测试用户（所有用户使用同一个密码，只做一次 BCrypt，写入很快）
+     * 用户名为 perfuser0、perfuser1 ...，邮箱为 perfuser0@example.com ...
+     * @return 新用户的 ID 列表
+     */
+    public List<Long> seedUsers(int count, String rawPassword) {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        String encoded = new BCryptPasswordEncoder().encode(rawPassword);
+        List<Long> ids = new ArrayList<>(count);
+        List<User> batch = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            batch.add(new User(usernameOf(i), usernameOf(i) + "@example.com", encoded, "USER", true, LocalDateTime.now()));
+            if (batch.size() == 500 || i == count - 1) {
+                for (User saved : userRepository.saveAll(batch)) {
+                    ids.add(saved.getId());
+                }
+                batch.clear();
+            }
+        }
+        return ids;
+    }
+
+    public static String usernameOf(int index) {
+        return "perfuser" + index;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.backendpractice.perf;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 平台线程 vs 虚拟线程 对比基准
+ * 分别以 spring.threads.virtual.enabled=false / true 启动应用，用相同的并发压测同一组接口，
+ * 输出每种模式下的吞吐量和延迟分位数
+ *
+ * 运行：mvn -Pperf test-compile exec:exec -Dperf.args="concurrency=400 duration=10"
+ * 参数：
+ * - users       预先写入的用户数（默认 1000）
+ * - concurrency 读接口的并发客户端数（默认 400，超过 Tomcat 默认的 200 个线程）
+ * - loginConcurrency 登录接口的并发客户端数（默认 32，登录受 BCrypt 线程池限制）
+ * - duration    每个场景的压测秒数（默认 10），warmup 预热秒数（默认 3）
+ * - datasource.url / datasource.username / datasource.password 指向真实 MySQL，
+ *   H2 内存库几乎没有 IO 等待，用 MySQL 才能体现虚拟线程在等待数据库时的优势
+ */
+public final class ThreadModeBenchmark {
+
+    private static final String PASSWORD = "perf-password";
+    private static final Pattern TOKEN_PATTERN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    private ThreadModeBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkOptions options = new BenchmarkOptions(args);
+        int users = options.getInt("users", 1000);
+        int concurrency = options.getInt("concurrency", 400);
+        int loginConcurrency = options.getInt("loginConcurrency", 32);
+        Duration duration = Duration.ofSeconds(options.getInt("duration", 10));
+        Duration warmup = Duration.ofSeconds(options.getInt("warmup", 3));
+
+        List<String> report = new ArrayList<>();
+        report.add(String.format("%-9s %-28s %8s %7s %10s %9s %9s %9s",
+                "mode", "scenario", "requests", "errors", "req/s", "p50(ms)", "p99(ms)", "max(ms)"));
+
+        for (boolean virtual : new boolean[] {false, true}) {
+            String mode = virtual ? "virtual" : "platform";
+            System.out.println("==> 启动应用: " + mode + " 线程模式");
+
+            try (PerfApplication app = PerfApplication.start(options, Map.of("spring.threads.virtual.enabled", virtual));
+                 ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+                HttpClient client = HttpClient.newBuilder()
+                        .executor(clientExecutor)
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .connectTimeout(Duration.ofSeconds(5))
+                        .build();
+
+                List<Long> ids = app.seedUsers(users, PASSWORD);
+                String token = login(client, app.getBaseUrl(), PerfApplication.usernameOf(0));
+
+                for (Scenario scenario : scenarios(app.getBaseUrl(), ids, token, concurrency, loginConcurrency)) {
+                    run(client, clientExecutor, scenario, warmup);                      // 预热，结果丢弃
+                    Result result = run(client, clientExecutor, scenario, duration);
+                    String line = String.format("%-9s %-28s %8d %7d %10.1f %9.2f %9.2f %9.2f",
+                            mode, scenario.name, result.requests, result.errors, result.throughput(),
+                            result.percentileMillis(50), result.percentileMillis(99), result.percentileMillis(100));
+                    System.out.println(line);
+                    report.add(line);
+                }
+            }
+        }
+
+        System.out.println();
+        System.out.println("==> 对比结果");
+        report.forEach(System.out::println);
+    }
+
+    private static List<Scenario> scenarios(String baseUrl, List<Long> ids, String token,
+                                            int concurrency, int loginConcurrency) {
+        String loginBody = "{\"username\":\"" + PerfApplication.usernameOf(0) + "\",\"password\":\"" + PASSWORD + "\"}";
+        String validateBody = "{\"token\":\"" + token + "\"}";
+        return List.of(
+                new Scenario("GET /api/users/{id}", concurrency, () -> HttpRequest.newBuilder()
+                        .uri(URI.create(baseUrl + "/api/users/" + ids.get(ThreadLocalRandom.current().nextInt(ids.size()))))
+                        .header("Authorization", "Bearer " + token)
+                        .GET().build()),
+                new Scenario("GET /api/users?limit=20", concurrency, () -> HttpRequest.newBuilder()
+                        .uri(URI.create(baseUrl + "/api/users?limit=20"))
+                        .GET().build()),
+                new Scenario("POST /api/auth/validate", concurrency, () -> HttpRequest.newBuilder()
+                        .uri(URI.create(baseUrl + "/api/auth/validate"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(validateBody)).build()),
+                new Scenario("POST /api/auth/login", loginConcurrency, () -> HttpRequest.newBuilder()
+                        .uri(URI.create(baseUrl + "/api/auth/login"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(loginBody)).build()));
+    }
+
+    /**
+     * 闭环压测：concurrency 个客户端各自循环发送请求，直到时间结束
+     */
+    private static Result run(HttpClient client, ExecutorService executor, Scenario scenario, Duration duration)
+            throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<ClientStats>> futures = new ArrayList<>();
+        for (int i = 0; i < scenario.concurrency; i++) {
+            futures.add(executor.submit(() -> {
+                ClientStats stats = new ClientStats();
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(scenario.request.get(), HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() >= 400) {
+                            stats.errors++;
+                        }
+                    }
+                    catch (IOException e) {
+                        stats.errors++;
+                    }
+                    stats.record(System.nanoTime() - start);
+                }
+                return stats;
+            }));
+        }
+
+        Result result = new Result(duration);
+        for (Future<ClientStats> future : futures) {
+            result.merge(future.get());
+        }
+        result.finish();
+        return result;
+    }
+
+    private static String login(HttpClient client, String baseUrl, String username) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"username\":\"" + username + "\",\"password\":\"" + PASSWORD + "\"}"))
+                .build();
+        String body = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        Matcher matcher = TOKEN_PATTERN.matcher(body);
+        if (!matcher.find()) {
+            throw new IllegalStateException("登录失败: " + body);
+        }
+        return matcher.group(1);
+    }
+
+    // 压测场景：名称、并发数、请求构造器
+    private record Scenario(String name, int concurrency, Supplier<HttpRequest> request) {
+    }
+
+    // 单个客户端的统计（只被一个线程写入）
+    private static final class ClientStats {
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        private void record(long nanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+    }
+
+    // 汇总结果
+    private static final class Result {
+        private final Duration duration;
+        private long[] latencies = new long[0];
+        private long requests;
+        private long errors;
+
+        private Result(Duration duration) {
+            this.duration = duration;
+        }
+
+        private void merge(ClientStats stats) {
+            int offset = latencies.length;
+            latencies = Arrays.copyOf(latencies, offset + stats.count);
+            System.arraycopy(stats.latencies, 0, latencies, offset, stats.count);
+            requests += stats.count;
+            errors += stats.errors;
+        }
+
+        private void finish() {
+            Arrays.sort(latencies);
+        }
+
+        private double throughput() {
+            return requests / (duration.toMillis() / 1000.0);
+        }
+
+        private double percentileMillis(double percentile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * latencies.length) - 1;
+            return latencies[Math.max(0, Math.min(index, latencies.length - 1))] / 1_000_000.0;
+        }
+    }
+}
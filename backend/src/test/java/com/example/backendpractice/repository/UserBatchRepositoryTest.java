@@ -0,0 +1,58 @@
+package com.example.backendpractice.repository;
+
+import com.example.backendpractice.entity.User;
+import com.example.backendpractice.util.ConstraintViolations;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(UserBatchRepository.class)
+@DisplayName("用户批量写入测试")
+public class UserBatchRepositoryTest {
+
+    @Autowired
+    private UserBatchRepository userBatchRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    @DisplayName("批量插入后应该按顺序返回生成的 ID")
+    public void shouldInsertAllAndReturnIdsInOrder() {
+        // 1.准备测试数据
+        List<User> users = List.of(
+                new User("batch1", "batch1@example.com", "hash", "USER", true, LocalDateTime.now()),
+                new User("batch2", "batch2@example.com", "hash", "ADMIN", true, LocalDateTime.now()),
+                new User("batch3", "batch3@example.com", "hash", "USER", false, LocalDateTime.now()));
+
+        // 2.执行测试操作
+        List<Long> ids = userBatchRepository.insertAll(users);
+
+        // 3.验证结果
+        assertEquals(3, ids.size());
+        assertEquals("batch1", userRepository.findById(ids.get(0)).orElseThrow().getUsername());
+        assertEquals("ADMIN", userRepository.findById(ids.get(1)).orElseThrow().getRole());
+        assertFalse(userRepository.findById(ids.get(2)).orElseThrow().isEnabled());
+        assertEquals(List.of("batch2@example.com"), userRepository.findExistingEmails(List.of("batch2@example.com", "none@example.com")));
+    }
+
+    @Test
+    @DisplayName("批次中有重复邮箱时应该抛出唯一约束异常")
+    public void shouldFailOnDuplicateEmail() {
+        List<User> users = List.of(
+                new User("dup1", "dup@example.com", "hash", "USER", true, LocalDateTime.now()),
+                new User("dup2", "dup@example.com", "hash", "USER", true, LocalDateTime.now()));
+
+        DataIntegrityViolationException e = assertThrows(DataIntegrityViolationException.class, () -> userBatchRepository.insertAll(users));
+        assertTrue(ConstraintViolations.isDuplicateEmail(e));
+    }
+}
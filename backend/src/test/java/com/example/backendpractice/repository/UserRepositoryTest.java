@@ -1,15 +1,26 @@
 package com.example.backendpractice.repository;
 
+import com.example.backendpractice.dto.UserField;
+import com.example.backendpractice.dto.UserFieldsView;
 import com.example.backendpractice.entity.User;
+import com.example.backendpractice.util.ConstraintViolations;
+import com.example.backendpractice.util.PageCursor;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.example.backendpractice.repository.UserRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import java.time.LocalDateTime;
 
 import java.util.Optional;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -147,4 +158,178 @@ public class UserRepositoryTest {
         assertEquals(3, foundUsers.size());
         assertTrue(foundUsers.stream().allMatch(u -> "commonuser".equals(u.getUsername())));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("应该能够按 id 进行 keyset 分页")
+    public void shouldPageUsersByIdKeyset() {
+        // 1.准备测试数据
+        for (int i = 0; i < 5; i++) {
+            userRepository.save(new User("page" + i, "page" + i + "@example.com", "password123", "USER", true, LocalDateTime.now()));
+        }
+
+        // 2.执行测试操作：每页 2 条，从第一页最后一行的 id 继续
+        PageRequest pageable = PageRequest.of(0, 2, Sort.by(Sort.Direction.ASC, "id"));
+        List<User> firstPage = userRepository.findPage(pageable);
+        List<User> secondPage = userRepository.findPageAfterId(firstPage.get(1).getId(), pageable);
+
+        // 3.验证结果
+        assertEquals(2, firstPage.size());
+        assertEquals(2, secondPage.size());
+        assertTrue(secondPage.get(0).getId() > firstPage.get(1).getId());
+        assertEquals("page2", secondPage.get(0).getUsername());
+    }
+
+    @Test
+    @DisplayName("按创建时间分页时，相同创建时间的用户不应该丢失")
+    public void shouldPageUsersByCreatedAtWithTies() {
+        // 1.准备测试数据：三个用户创建时间相同
+        LocalDateTime sameTime = LocalDateTime.of(2024, 1, 1, 12, 0);
+        User user1 = userRepository.save(new User("tie1", "tie1@example.com", "password123", "USER", true, sameTime));
+        User user2 = userRepository.save(new User("tie2", "tie2@example.com", "password123", "USER", true, sameTime));
+        User user3 = userRepository.save(new User("tie3", "tie3@example.com", "password123", "USER", true, sameTime));
+
+        // 2.执行测试操作
+        PageRequest pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "createdAt", "id"));
+        List<User> rest = userRepository.findPageAfterCreatedAt(sameTime, user1.getId(), pageable);
+
+        // 3.验证结果
+        assertEquals(2, rest.size());
+        assertEquals(user2.getId(), rest.get(0).getId());
+        assertEquals(user3.getId(), rest.get(1).getId());
+    }
+
+    @Test
+    @DisplayName("应该能够按 id 顺序流式读取所有用户")
+    public void shouldStreamAllUsersInIdOrder() {
+        // 1.准备测试数据
+        userRepository.save(new User("stream1", "stream1@example.com", "password123", "USER", true, LocalDateTime.now()));
+        userRepository.save(new User("stream2", "stream2@example.com", "password123", "USER", true, LocalDateTime.now()));
+
+        // 2.执行测试操作（@DataJpaTest 默认在事务中运行）
+        List<String> usernames;
+        try (Stream<User> users = userRepository.streamAll()) {
+            usernames = users.map(User::getUsername).collect(Collectors.toList());
+        }
+
+        // 3.验证结果
+        assertEquals(List.of("stream1", "stream2"), usernames);
+    }
+
+    @Test
+    @DisplayName("流式读取用户名和邮箱，并检查用户名、邮箱是否存在")
+    public void shouldStreamNaturalKeysAndCheckExistence() {
+        // 1.准备测试数据
+        userRepository.save(new User("keys1", "keys1@example.com", "password123", "USER", true, LocalDateTime.now()));
+
+        // 2.执行测试操作
+        List<String> emails;
+        try (Stream<UserNaturalKeys> keys = userRepository.streamNaturalKeys()) {
+            emails = keys.map(UserNaturalKeys::getEmail).collect(Collectors.toList());
+        }
+
+        // 3.验证结果
+        assertEquals(List.of("keys1@example.com"), emails);
+        assertTrue(userRepository.existsByUsername("keys1"));
+        assertFalse(userRepository.existsByEmail("nobody@example.com"));
+    }
+
+    @Test
+    @DisplayName("按字段查询 - 只返回请求的字段，并支持 keyset 翻页")
+    public void shouldSelectOnlyRequestedFields() throws Exception {
+        // 1.准备测试数据
+        User first = userRepository.save(new User("fields1", "fields1@example.com", "password123", "USER", true, LocalDateTime.now()));
+        userRepository.save(new User("fields2", "fields2@example.com", "password123", "USER", true, LocalDateTime.now()));
+        List<UserField> fields = UserField.parseList("username");
+
+        // 2.执行测试操作：第一页取 1 行，再从第一行之后继续
+        List<UserFieldsView> page1 = userRepository.findFields(fields, "id", false, null, 1);
+        PageCursor cursor = new PageCursor("id", false, null, (Long) page1.get(0).get(UserField.ID));
+        List<UserFieldsView> page2 = userRepository.findFields(fields, "id", false, cursor, 1);
+
+        // 3.验证结果：游标需要的 id 被额外查询，但不会被序列化
+        assertEquals(first.getId(), page1.get(0).get(UserField.ID));
+        assertEquals("{\"username\":\"fields1\"}", new ObjectMapper().writeValueAsString(page1.get(0)));
+        assertEquals("fields2", page2.get(0).get(UserField.USERNAME));
+    }
+
+    @Test
+    @DisplayName("按字段查询 - 根据 ID 查询，不存在时返回空")
+    public void shouldFindFieldsById() {
+        // 1.准备测试数据
+        User saved = userRepository.save(new User("fields3", "fields3@example.com", "password123", "ADMIN", true, LocalDateTime.now()));
+
+        // 2.执行测试操作
+        Optional<UserFieldsView> found = userRepository.findFieldsById(saved.getId(), UserField.parseList("id,role"));
+        Optional<UserFieldsView> missing = userRepository.findFieldsById(-1L, UserField.parseList("id"));
+
+        // 3.验证结果
+        assertTrue(found.isPresent());
+        assertEquals("ADMIN", found.get().get(UserField.ROLE));
+        assertNull(found.get().get(UserField.EMAIL));
+        assertTrue(missing.isEmpty());
+    }
+
+    @Test
+    @DisplayName("按字段查询 - 不支持的字段（如 password）应该抛出异常")
+    public void shouldRejectUnknownFields() {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> UserField.parseList("id,password"));
+        assertEquals("不支持的字段: password", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("部分更新 - 只修改传入的字段并增加版本号，版本不一致时不更新")
+    public void shouldPatchOnlyGivenFieldsWithVersionCheck() {
+        // 1.准备测试数据
+        User saved = userRepository.saveAndFlush(new User("patch1", "patch1@example.com", "password123", "USER", true, LocalDateTime.now()));
+        long version = saved.getVersion();
+
+        // 2.执行测试操作：第一次使用正确的版本号，第二次仍使用旧版本号
+        int updated = userRepository.patch(saved.getId(), version, Map.of("email", "patched@example.com"), false);
+        int conflicted = userRepository.patch(saved.getId(), version, Map.of("role", "ADMIN"), true);
+
+        // 3.验证结果（UPDATE 不经过持久化上下文，需要按字段重新查询）
+        UserFieldsView row = userRepository.findFieldsById(saved.getId(),
+                UserField.parseList("username,email,role,version")).orElseThrow();
+        assertEquals(1, updated);
+        assertEquals(0, conflicted);
+        assertEquals("patch1", row.get(UserField.USERNAME));
+        assertEquals("patched@example.com", row.get(UserField.EMAIL));
+        assertEquals("USER", row.get(UserField.ROLE));
+        assertEquals(version + 1, row.get(UserField.VERSION));
+    }
+
+    @Test
+    @DisplayName("删除 - 单条 DELETE 返回删除的行数，批量删除忽略不存在的 ID")
+    public void shouldDeleteByIdAndInBulk() {
+        // 1.准备测试数据
+        User first = userRepository.save(new User("delete1", "delete1@example.com", "password123", "USER", true, LocalDateTime.now()));
+        User second = userRepository.save(new User("delete2", "delete2@example.com", "password123", "USER", true, LocalDateTime.now()));
+        User third = userRepository.save(new User("delete3", "delete3@example.com", "password123", "USER", true, LocalDateTime.now()));
+
+        // 2.执行测试操作
+        int deleted = userRepository.deleteUserById(first.getId());
+        int deletedAgain = userRepository.deleteUserById(first.getId());
+        int bulkDeleted = userRepository.deleteUsersByIds(List.of(second.getId(), third.getId(), -1L));
+
+        // 3.验证结果
+        assertEquals(1, deleted);
+        assertEquals(0, deletedAgain);
+        assertEquals(2, bulkDeleted);
+        assertEquals(0, userRepository.count());
+    }
+
+    @Test
+    @DisplayName("约束冲突可以区分邮箱重复和其他约束")
+    public void shouldDistinguishDuplicateEmailFromOtherViolations() {
+        userRepository.saveAndFlush(new User("first", "same@example.com", "hash", "USER", true, LocalDateTime.now()));
+
+        DataIntegrityViolationException duplicate = assertThrows(DataIntegrityViolationException.class,
+                () -> userRepository.saveAndFlush(new User("second", "same@example.com", "hash", "USER", true, LocalDateTime.now())));
+        assertTrue(ConstraintViolations.isDuplicateEmail(duplicate));
+
+        DataIntegrityViolationException tooLong = assertThrows(DataIntegrityViolationException.class,
+                () -> userRepository.saveAndFlush(new User("x".repeat(51), "long@example.com", "hash", "USER", true, LocalDateTime.now())));
+        assertFalse(ConstraintViolations.isDuplicateEmail(tooLong));
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.backendpractice.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("幂等键记录测试")
+public class IdempotencyStoreTest {
+
+    private final IdempotencyStore store = new IdempotencyStore(100, Duration.ofMinutes(10));
+
+    @Test
+    @DisplayName("同一个键的重试返回第一次的结果，不再执行创建")
+    public void shouldReturnRecordedIdOnRetry() {
+        AtomicInteger calls = new AtomicInteger();
+
+        Long first = store.execute("key-1", "a@example.com", () -> 100L + calls.incrementAndGet());
+        Long retry = store.execute("key-1", "a@example.com", () -> 100L + calls.incrementAndGet());
+
+        assertEquals(101L, first);
+        assertEquals(101L, retry);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("同一个键用于不同请求时应该抛出异常")
+    public void shouldRejectKeyReusedForAnotherRequest() {
+        store.execute("key-2", "a@example.com", () -> 1L);
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> store.execute("key-2", "b@example.com", () -> 2L));
+        assertEquals("Idempotency-Key 已用于其他请求！", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("创建失败不记录，同一个键可以再次尝试")
+    public void shouldNotRecordFailures() {
+        assertThrows(IllegalArgumentException.class, () -> store.execute("key-3", "a@example.com", () -> {
+            throw new IllegalArgumentException("邮箱已经存在，请勿重复创建！");
+        }));
+
+        assertEquals(3L, store.execute("key-3", "a@example.com", () -> 3L));
+    }
+
+    @Test
+    @DisplayName("并发的重试等待第一个请求完成，只创建一次")
+    public void shouldRunCreationOnceForConcurrentRetries() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Long> first = executor.submit(() -> store.execute("key-4", "a@example.com", () -> {
+                calls.incrementAndGet();
+                started.countDown();
+                await(release);
+                return 4L;
+            }));
+            started.await();
+            Future<Long> retry = executor.submit(() -> store.execute("key-4", "a@example.com", () -> {
+                calls.incrementAndGet();
+                return 5L;
+            }));
+            release.countDown();
+
+            assertEquals(4L, first.get());
+            assertEquals(4L, retry.get());
+            assertEquals(1, calls.get());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
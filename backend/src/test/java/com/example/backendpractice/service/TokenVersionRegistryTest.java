@@ -0,0 +1,51 @@
+package com.example.backendpractice.service;
+
+import com.example.backendpractice.entity.User;
+import com.example.backendpractice.repository.UserRepository;
+import com.example.backendpractice.repository.UserTokenVersion;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Token 版本号测试")
+public class TokenVersionRegistryTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final TokenVersionRegistry registry = new TokenVersionRegistry(userRepository);
+
+    @Test
+    @DisplayName("版本号增加后旧 Token 失效，新签发的 Token 使用新版本号")
+    public void shouldRejectTokensWithOlderVersion() {
+        User user = mock(User.class);
+        when(user.getId()).thenReturn(1L);
+        when(user.getTokenVersion()).thenReturn(0);
+
+        assertTrue(registry.isCurrent(1L, 0));
+
+        registry.increment(1L);
+
+        assertFalse(registry.isCurrent(1L, 0));
+        assertEquals(1, registry.currentVersion(user));
+        assertTrue(registry.isCurrent(1L, 1));
+    }
+
+    @Test
+    @DisplayName("启动时加载数据库中的版本号，删除的用户所有 Token 失效")
+    public void shouldLoadVersionsAndRevokeDeletedUsers() {
+        UserTokenVersion row = mock(UserTokenVersion.class);
+        when(row.getId()).thenReturn(2L);
+        when(row.getTokenVersion()).thenReturn(5);
+        when(userRepository.findRevokedTokenVersions()).thenReturn(List.of(row));
+
+        registry.load();
+        registry.revokeAll(3L);
+
+        assertFalse(registry.isCurrent(2L, 4));
+        assertTrue(registry.isCurrent(2L, 5));
+        assertFalse(registry.isCurrent(3L, Integer.MAX_VALUE));
+    }
+}
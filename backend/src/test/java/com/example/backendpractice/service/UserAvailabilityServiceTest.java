@@ -0,0 +1,78 @@
+package com.example.backendpractice.service;
+
+import com.example.backendpractice.entity.User;
+import com.example.backendpractice.repository.UserNaturalKeys;
+import com.example.backendpractice.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@DisplayName("用户名/邮箱可用性检查测试")
+public class UserAvailabilityServiceTest {
+
+    private UserRepository userRepository;
+    private UserAvailabilityService availabilityService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        availabilityService = new UserAvailabilityService(userRepository, mock(PlatformTransactionManager.class),
+                new SimpleMeterRegistry(), 1000, 0.01);
+    }
+
+    @Test
+    @DisplayName("过滤器构建完成前应该查询数据库")
+    public void shouldQueryDatabaseBeforeReady() {
+        when(userRepository.existsByEmail("alice@example.com")).thenReturn(true);
+
+        assertFalse(availabilityService.isEmailDefinitelyAbsent("alice@example.com"));
+        assertFalse(availabilityService.isEmailAvailable("alice@example.com"));
+        verify(userRepository).existsByEmail("alice@example.com");
+    }
+
+    @Test
+    @DisplayName("过滤器判断一定不存在时不查询数据库，可能存在时再查询确认")
+    public void shouldOnlyQueryDatabaseOnPossibleMatch() {
+        // 1.准备测试数据：数据库中有 alice
+        UserNaturalKeys alice = mock(UserNaturalKeys.class);
+        when(alice.getUsername()).thenReturn("alice");
+        when(alice.getEmail()).thenReturn("Alice@Example.com");
+        when(userRepository.streamNaturalKeys()).thenReturn(Stream.of(alice));
+        when(userRepository.existsByUsername("alice")).thenReturn(true);
+
+        // 2.构建过滤器
+        availabilityService.rebuild();
+
+        // 3.验证结果
+        assertTrue(availabilityService.isUsernameAvailable("bob"));
+        assertTrue(availabilityService.isEmailDefinitelyAbsent("bob@example.com"));
+        assertFalse(availabilityService.isEmailDefinitelyAbsent("alice@example.com"));  // 忽略大小写
+        assertFalse(availabilityService.isUsernameAvailable("alice"));
+
+        verify(userRepository, never()).existsByUsername("bob");
+        verify(userRepository, never()).existsByEmail(anyString());
+        verify(userRepository).existsByUsername("alice");
+    }
+
+    @Test
+    @DisplayName("新创建的用户应该被加入过滤器")
+    public void shouldRecordNewUsers() {
+        when(userRepository.streamNaturalKeys()).thenReturn(Stream.empty());
+        availabilityService.rebuild();
+        assertTrue(availabilityService.isUsernameDefinitelyAbsent("carol"));
+
+        availabilityService.record(new User("carol", "carol@example.com", "hash", "USER", true, LocalDateTime.now()));
+
+        assertFalse(availabilityService.isUsernameDefinitelyAbsent("carol"));
+        assertFalse(availabilityService.isEmailDefinitelyAbsent("carol@example.com"));
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.backendpractice.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("用户变更版本号测试")
+public class UserChangeTrackerTest {
+
+    private final UserChangeTracker tracker = new UserChangeTracker();
+
+    @Test
+    @DisplayName("没有写入时 ETag 匹配，写入后不再匹配，不同请求参数的 ETag 互不匹配")
+    public void shouldMatchTableVersionUntilNextWrite() {
+        long version = tracker.currentVersion();
+        String etag = tracker.listETag(version, "list|a");
+
+        assertEquals(etag, tracker.matchTable(etag, version, "list|a"));
+        assertEquals(etag, tracker.matchTable("\"other\", " + etag, version, "list|a"));
+        assertNull(tracker.matchTable(etag, version, "list|b"));
+
+        tracker.changed();
+
+        assertNull(tracker.matchTable(etag, tracker.currentVersion(), "list|a"));
+        assertNull(tracker.matchTable(null, tracker.currentVersion(), "list|a"));
+    }
+
+    @Test
+    @DisplayName("表版本变化后，用户的行版本没变时仍然按行版本匹配")
+    public void shouldFallBackToRowVersion() {
+        String etag = tracker.userETag(tracker.currentVersion(), "user|1|null", 3L);
+        tracker.changed();
+
+        assertNull(tracker.matchTable(etag, tracker.currentVersion(), "user|1|null"));
+        assertTrue(tracker.matchesRow(etag, "user|1|null", 3L));
+        assertFalse(tracker.matchesRow(etag, "user|1|null", 4L));
+        assertFalse(tracker.matchesRow(etag, "user|2|null", 3L));
+    }
+}
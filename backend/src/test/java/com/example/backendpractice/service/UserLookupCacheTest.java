@@ -0,0 +1,108 @@
+package com.example.backendpractice.service;
+
+import com.example.backendpractice.entity.User;
+import com.example.backendpractice.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("用户查询缓存测试")
+public class UserLookupCacheTest {
+
+    private UserRepository userRepository;
+    private UserLookupCache userLookupCache;
+    private User alice;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        userLookupCache = new UserLookupCache(userRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+
+        alice = mock(User.class);
+        when(alice.getId()).thenReturn(1L);
+        when(alice.getUsername()).thenReturn("alice");
+        when(alice.getEmail()).thenReturn("alice@example.com");
+    }
+
+    @Test
+    @DisplayName("重复查询同一个用户只访问一次数据库")
+    public void shouldHitCacheOnRepeatedLookups() {
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(alice));
+
+        assertSame(alice, userLookupCache.findByUsername("alice").orElseThrow());
+        assertSame(alice, userLookupCache.findByUsername("alice").orElseThrow());
+        assertSame(alice, userLookupCache.findById(1L).orElseThrow());          // 按用户名加载时已经放入 ID 缓存
+
+        verify(userRepository, times(1)).findByUsername("alice");
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    @DisplayName("淘汰后应该重新查询数据库，旧用户名不能再查到该用户")
+    public void shouldReloadAfterEviction() {
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(alice));
+        userLookupCache.findByUsername("alice");
+
+        // 用户名被修改为 alice2
+        User renamed = new User("alice2", "alice@example.com", "hash", "USER", true, LocalDateTime.now());
+        User renamedWithId = spy(renamed);
+        when(renamedWithId.getId()).thenReturn(1L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(renamedWithId));
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.empty());
+        userLookupCache.evict(1L, "alice", "alice@example.com");
+
+        assertEquals("alice2", userLookupCache.findById(1L).orElseThrow().getUsername());
+        assertTrue(userLookupCache.findByUsername("alice").isEmpty());
+    }
+
+    @Test
+    @DisplayName("不存在的用户不应该被缓存")
+    public void shouldNotCacheMissingUser() {
+        when(userRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertTrue(userLookupCache.findById(99L).isEmpty());
+        assertTrue(userLookupCache.findById(99L).isEmpty());
+
+        verify(userRepository, times(2)).findById(99L);
+    }
+
+    @Test
+    @DisplayName("按用户名加载期间被淘汰时，不应该缓存加载到的旧数据")
+    public void shouldNotCacheUserLoadedBeforeConcurrentEviction() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch evicted = new CountDownLatch(1);
+        User changed = mock(User.class);
+        when(changed.getId()).thenReturn(1L);
+        when(changed.getUsername()).thenReturn("alice");
+        when(changed.getEmail()).thenReturn("alice@example.com");
+        // 第一次查询读到修改前的数据，并且在返回之前等待另一个线程完成修改和淘汰
+        when(userRepository.findByUsername("alice"))
+                .thenAnswer(invocation -> {
+                    loading.countDown();
+                    assertTrue(evicted.await(5, TimeUnit.SECONDS));
+                    return Optional.of(alice);
+                })
+                .thenReturn(Optional.of(changed));
+
+        CompletableFuture<Optional<User>> stale = CompletableFuture.supplyAsync(() -> userLookupCache.findByUsername("alice"));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        userLookupCache.evict(1L, "alice", "alice@example.com");     // 修改密码后淘汰
+        evicted.countDown();
+        assertSame(alice, stale.get(5, TimeUnit.SECONDS).orElseThrow());
+
+        // 旧数据没有留在缓存中，再次查询读到修改后的数据
+        assertSame(changed, userLookupCache.findByUsername("alice").orElseThrow());
+        verify(userRepository, times(2)).findByUsername("alice");
+    }
+}
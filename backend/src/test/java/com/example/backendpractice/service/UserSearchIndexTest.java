@@ -0,0 +1,163 @@
+package com.example.backendpractice.service;
+
+import com.example.backendpractice.dto.UserSearchHit;
+import com.example.backendpractice.dto.UserSearchPage;
+import com.example.backendpractice.repository.UserRepository;
+import com.example.backendpractice.repository.UserSearchKeys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("用户搜索索引测试")
+public class UserSearchIndexTest {
+
+    private UserRepository userRepository;
+    private UserSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        searchIndex = new UserSearchIndex(userRepository, mock(PlatformTransactionManager.class), true);
+    }
+
+    @Test
+    @DisplayName("索引构建完成前搜索应该抛出不可用异常")
+    public void shouldRejectSearchBeforeReady() {
+        assertThrows(UserSearchUnavailableException.class, () -> searchIndex.search("alice", 1, 10));
+    }
+
+    @Test
+    @DisplayName("构建时读取 users 表，构建期间删除的用户不进入索引")
+    public void shouldBuildFromTableAndSkipDeletedUsers() {
+        UserSearchKeys alice = keys(1L, "alice", "alice@example.com", 0);
+        UserSearchKeys bob = keys(2L, "bob", "bob@example.com", 0);
+        // 构建线程读到 alice 之后、读到 bob 之前，bob 被删除
+        when(userRepository.streamSearchKeys()).thenReturn(Stream.of(alice, bob)
+                .peek(keys -> {
+                    if (keys == alice) {
+                        searchIndex.remove(2L);
+                    }
+                }));
+
+        searchIndex.build();
+
+        assertTrue(searchIndex.isReady());
+        assertEquals(1, searchIndex.size());
+        assertEquals(List.of(1L), ids(searchIndex.search("example", 1, 10)));
+    }
+
+    @Test
+    @DisplayName("结果按完全相同、前缀、包含排序，用户名优先于邮箱")
+    public void shouldRankExactThenPrefixThenSubstring() {
+        buildEmpty();
+        searchIndex.put(1L, "malice", "m@example.com", 0);
+        searchIndex.put(2L, "bob", "alice@example.com", 0);
+        searchIndex.put(3L, "alice2", "a2@example.com", 0);
+        searchIndex.put(4L, "alice", "a@example.com", 0);
+        searchIndex.put(5L, "carol", "carol@example.com", 0);
+
+        UserSearchPage page = searchIndex.search("ALICE", 1, 10);
+
+        assertEquals(4, page.total());
+        assertEquals(List.of(4L, 3L, 2L, 1L), ids(page));
+    }
+
+    @Test
+    @DisplayName("1~2 个字符按前缀匹配")
+    public void shouldMatchShortQueriesByPrefix() {
+        buildEmpty();
+        searchIndex.put(1L, "alice", "x@example.com", 0);
+        searchIndex.put(2L, "bob", "al@example.com", 0);
+        searchIndex.put(3L, "sal", "s@example.com", 0);
+
+        assertEquals(List.of(1L, 2L), ids(searchIndex.search("al", 1, 10)));
+        assertEquals(List.of(1L, 2L), ids(searchIndex.search("a", 1, 10)));
+    }
+
+    @Test
+    @DisplayName("分页返回当前页的结果和总数")
+    public void shouldPaginate() {
+        buildEmpty();
+        for (long id = 1; id <= 25; id++) {
+            searchIndex.put(id, "user" + id, "user" + id + "@example.com", 0);
+        }
+
+        UserSearchPage page = searchIndex.search("user", 3, 10);
+
+        assertEquals(25, page.total());
+        assertEquals(5, page.results().size());
+        assertThrows(IllegalArgumentException.class, () -> searchIndex.search("user", 1, UserSearchIndex.MAX_PAGE_SIZE + 1));
+        assertThrows(IllegalArgumentException.class, () -> searchIndex.search("user", 11, 100));
+        assertThrows(IllegalArgumentException.class, () -> searchIndex.search(" ", 1, 10));
+    }
+
+    @Test
+    @DisplayName("修改和删除后旧的用户名不再匹配，旧版本不会覆盖新版本")
+    public void shouldMaintainIndexIncrementally() {
+        buildEmpty();
+        searchIndex.put(1L, "alice", "alice@example.com", 0);
+
+        searchIndex.patch(1L, "alicia", null, 1);
+        assertTrue(searchIndex.search("alice", 1, 10).results().stream()
+                .allMatch(hit -> hit.username().equals("alicia")));
+        assertEquals("alicia", searchIndex.search("alicia", 1, 10).results().get(0).username());
+
+        // 构建线程读到的旧数据（版本 0）不覆盖
+        searchIndex.put(1L, "alice", "alice@example.com", 0);
+        assertEquals(0, searchIndex.search("alice", 1, 10).results().stream()
+                .filter(hit -> hit.username().equals("alice")).count());
+
+        searchIndex.remove(1L);
+        assertEquals(0, searchIndex.search("ali", 1, 10).total());
+        assertEquals(0, searchIndex.size());
+    }
+
+    @Test
+    @DisplayName("构建完成后索引中没有的用户被 PATCH 时不再查询数据库")
+    public void shouldNotLoadMissingUserOnPatchAfterBuild() {
+        buildEmpty();
+
+        searchIndex.patch(1L, "alice", null, 1);
+
+        verify(userRepository, never()).findById(anyLong());
+        assertEquals(0, searchIndex.size());
+    }
+
+    @Test
+    @DisplayName("关闭搜索时写入不进入索引")
+    public void shouldIgnoreWritesWhenDisabled() {
+        UserSearchIndex disabled = new UserSearchIndex(userRepository, mock(PlatformTransactionManager.class), false);
+
+        disabled.put(1L, "alice", "alice@example.com", 0);
+        disabled.patch(2L, "bob", null, 1);
+        disabled.remove(3L);
+
+        assertEquals(0, disabled.size());
+        verifyNoInteractions(userRepository);
+    }
+
+    private void buildEmpty() {
+        when(userRepository.streamSearchKeys()).thenReturn(Stream.empty());
+        searchIndex.build();
+    }
+
+    private static List<Long> ids(UserSearchPage page) {
+        return page.results().stream().map(UserSearchHit::id).toList();
+    }
+
+    private static UserSearchKeys keys(Long id, String username, String email, long version) {
+        UserSearchKeys keys = mock(UserSearchKeys.class);
+        when(keys.getId()).thenReturn(id);
+        when(keys.getUsername()).thenReturn(username);
+        when(keys.getEmail()).thenReturn(email);
+        when(keys.getVersion()).thenReturn(version);
+        return keys;
+    }
+}
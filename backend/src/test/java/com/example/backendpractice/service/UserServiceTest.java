@@ -1,19 +1,36 @@
 package com.example.backendpractice.service;
 
+import com.example.backendpractice.audit.AuditEventType;
+import com.example.backendpractice.audit.AuditService;
 import com.example.backendpractice.entity.User;
+import com.example.backendpractice.repository.UserBatchRepository;
 import com.example.backendpractice.repository.UserRepository;
+import com.example.backendpractice.dto.BatchItemResult;
+import com.example.backendpractice.dto.UserPatch;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import com.example.backendpractice.dto.CursorPage;
+import com.example.backendpractice.util.PageCursor;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Optional;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -32,6 +49,27 @@ public class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserBatchRepository userBatchRepository;
+
+    @Mock
+    private UserLookupCache userLookupCache;
+
+    @Mock
+    private UserAvailabilityService userAvailabilityService;
+
+    @Mock
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    @Mock
+    private UserChangeTracker userChangeTracker;
+
+    @Mock
+    private UserSearchIndex userSearchIndex;
+
+    @Mock
+    private AuditService auditService;
+
     @Mock
     private PasswordEncoder passwordEncoder;
 
@@ -59,6 +97,11 @@ public class UserServiceTest {
         testUser.setPassword("rawPassword");
     }
 
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
     // 添加测试方法
     @Test
     @DisplayName("应该能够成功创建用户")
@@ -88,6 +131,25 @@ public class UserServiceTest {
         verify(userRepository).save(any(User.class));
     }
 
+    @Test
+    @DisplayName("布隆过滤器判断邮箱一定不存在时不应该查询数据库")
+    public void shouldSkipEmailLookupWhenFilterSaysAbsent() {
+        // 1.准备测试数据
+        User savedUser = new User("testuser","test@example.com","encodedPassword","USER",true,LocalDateTime.now());
+
+        // 2.设置 Mock 行为
+        when(userAvailabilityService.isEmailDefinitelyAbsent("test@example.com")).thenReturn(true);
+        when(passwordEncoder.encode("rawPassword")).thenReturn("encodedPassword");
+        when(userRepository.save(any(User.class))).thenReturn(savedUser);
+
+        // 3.执行测试操作
+        userService.createUser(testUser);
+
+        // 4.验证没有查询邮箱，并且新用户被加入过滤器
+        verify(userRepository, never()).findByEmail(anyString());
+        verify(userAvailabilityService).record(savedUser);
+    }
+
     @Test
     @DisplayName("当邮箱已经存在时应该抛出异常")
     public void shouldThrowExceptionWhenEmailExists() {
@@ -182,4 +244,292 @@ public class UserServiceTest {
     
         assertEquals("邮箱不能为空！", exception.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("分页获取用户 - 超过上限的 limit 应该被截断，并返回下一页游标")
+    public void shouldCapPageSizeAndReturnNextCursor() {
+        // 1.准备测试数据：仓库返回 MAX_PAGE_SIZE + 1 行，表示还有下一页
+        List<User> rows = new ArrayList<>();
+        for (int i = 0; i <= UserService.MAX_PAGE_SIZE; i++) {
+            rows.add(mock(User.class));
+        }
+        when(rows.get(UserService.MAX_PAGE_SIZE - 1).getId()).thenReturn(42L);
+        when(userRepository.findPage(any(Pageable.class))).thenReturn(rows);
+
+        // 2.执行测试操作
+        CursorPage<User> page = userService.getUsersPage(null, 10_000, "id", "asc");
+
+        // 3.验证结果
+        ArgumentCaptor<Pageable> pageableCaptor = ArgumentCaptor.forClass(Pageable.class);
+        verify(userRepository).findPage(pageableCaptor.capture());
+        assertEquals(UserService.MAX_PAGE_SIZE + 1, pageableCaptor.getValue().getPageSize());
+        assertEquals(UserService.MAX_PAGE_SIZE, page.getItems().size());
+        assertTrue(page.isHasMore());
+        assertEquals(42L, PageCursor.decode(page.getNextCursor()).getId());
+    }
+
+    @Test
+    @DisplayName("分页获取用户 - 游标与排序方式不匹配时应该抛出异常")
+    public void shouldRejectCursorWithDifferentSort() {
+        String cursor = new PageCursor("id", false, null, 10L).encode();
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> userService.getUsersPage(cursor, 20, "createdAt", "asc"));
+
+        assertEquals("分页游标与排序方式不匹配！", exception.getMessage());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("批量创建用户 - 无效、重复和已存在的用户应该单独失败，其余用户批量写入")
+    public void shouldCreateUsersInBatchWithPerItemResults() {
+        // 1.准备测试数据
+        User valid = new User("new1", "new1@example.com", "pw1", null, false, null);
+        User noEmail = new User("new2", "", "pw2", null, true, null);
+        User existing = new User("new3", "taken@example.com", "pw3", null, true, null);
+        User duplicate = new User("new4", "new1@example.com", "pw4", null, true, null);
+        User valid2 = new User("new5", "new5@example.com", "pw5", "ADMIN", true, null);
+
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(List.of("taken@example.com"));
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> "encoded-" + invocation.getArgument(0));
+        when(userBatchRepository.insertAll(anyList())).thenReturn(List.of(101L, 105L));
+
+        // 2.执行测试操作
+        List<BatchItemResult> results = userService.createUsers(List.of(valid, noEmail, existing, duplicate, valid2));
+
+        // 3.验证结果
+        assertTrue(results.get(0).isSuccess());
+        assertEquals(101L, results.get(0).getId());
+        assertEquals("邮箱不能为空！", results.get(1).getMessage());
+        assertEquals("邮箱已经存在，请勿重复创建！", results.get(2).getMessage());
+        assertEquals("邮箱在本批次中重复！", results.get(3).getMessage());
+        assertEquals(105L, results.get(4).getId());
+
+        // 只查询一次已存在的邮箱，只写入一个批次
+        verify(userRepository, times(1)).findExistingEmails(anyCollection());
+        verify(userRepository, never()).findByEmail(anyString());
+        verify(userBatchRepository, times(1)).insertAll(anyList());
+        assertEquals("encoded-pw1", valid.getPassword());
+        assertEquals("USER", valid.getRole());
+        assertTrue(valid.isEnabled());
+        assertEquals("USER", valid2.getRole());         // 请求中的角色被忽略
+    }
+
+    @Test
+    @DisplayName("导入用户 - 保留数据中的角色和启用状态，拒绝未知角色")
+    public void shouldKeepRoleAndStatusOnImport() {
+        User admin = new User("admin1", "admin1@example.com", "pw1", "ADMIN", false, null);
+        User plain = new User("user1", "user1@example.com", "pw2", null, true, null);
+        User unknown = new User("root1", "root1@example.com", "pw3", "ROOT", true, null);
+
+        when(passwordEncoder.encode(anyString())).thenAnswer(invocation -> "encoded-" + invocation.getArgument(0));
+        when(userBatchRepository.insertAll(anyList())).thenReturn(List.of(1L, 2L));
+
+        List<BatchItemResult> results = userService.importUsers(List.of(admin, plain, unknown));
+
+        assertTrue(results.get(0).isSuccess());
+        assertTrue(results.get(1).isSuccess());
+        assertEquals("角色只能是 USER 或 ADMIN！", results.get(2).getMessage());
+        assertEquals("ADMIN", admin.getRole());
+        assertFalse(admin.isEnabled());
+        assertEquals("USER", plain.getRole());
+    }
+
+    @Test
+    @DisplayName("部分更新 - 版本号不一致时应该抛出冲突异常")
+    public void shouldThrowConflictWhenPatchVersionIsStale() {
+        // 1.准备模拟行为：UPDATE 没有更新任何行，但用户存在
+        when(userRepository.patch(eq(1L), eq(3L), anyMap(), eq(false))).thenReturn(0);
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        // 2.执行和验证
+        assertThrows(UserVersionConflictException.class,
+                () -> userService.patchUser(1L, new UserPatch(null, "new@example.com", null, null, null, 3L)));
+        verify(userRepository, never()).findById(any());
+        verify(userLookupCache, never()).evict(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("部分更新 - 只把请求中的字段交给 UPDATE，修改角色时撤销已签发的 Token")
+    public void shouldPatchOnlyGivenFields() {
+        // 1.准备模拟行为
+        ArgumentCaptor<Map<String, Object>> values = ArgumentCaptor.forClass(Map.class);
+        when(userRepository.patch(eq(1L), eq(3L), values.capture(), eq(true))).thenReturn(1);
+
+        loginAs("ADMIN");
+
+        // 2.执行测试操作
+        long version = userService.patchUser(1L, new UserPatch(null, null, null, "ADMIN", false, 3L));
+
+        // 3.验证结果
+        assertEquals(4L, version);
+        assertEquals(Map.of("role", "ADMIN", "enabled", false), values.getValue());
+        verify(userRepository, never()).findById(any());
+        verify(userLookupCache).evict(1L, null, null);
+        verify(tokenVersionRegistry).increment(1L);
+        verify(userChangeTracker).changed();
+    }
+
+    @Test
+    @DisplayName("批量删除 - ID 去重后按 1000 个一段执行 DELETE")
+    public void shouldDeleteUsersInChunks() {
+        // 1.准备测试数据：2500 个不同的 ID，外加一个重复 ID；只有奇数 ID 的用户存在
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 2500; id++) {
+            ids.add(id);
+        }
+        ids.add(1L);
+        when(userRepository.findExistingIds(anyCollection())).thenAnswer(invocation ->
+                invocation.<List<Long>>getArgument(0).stream().filter(id -> id % 2 == 1).toList());
+        when(userRepository.deleteUsersByIds(anyCollection())).thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+
+        // 2.执行测试操作
+        int deleted = userService.deleteUsers(ids);
+
+        // 3.验证结果：1000 + 1000 + 500 个 ID，共三条 DELETE；只处理实际存在的 1250 个用户
+        assertEquals(1250, deleted);
+        verify(userRepository, times(3)).deleteUsersByIds(anyCollection());
+        verify(userLookupCache, times(1250)).evict(anyLong(), isNull(), isNull());
+        verify(tokenVersionRegistry, times(1250)).revokeAll(anyLong());
+        verify(tokenVersionRegistry, never()).revokeAll(2L);
+        verify(auditService).record(AuditEventType.USER_DELETE, "SUCCESS", null, null,
+                "bulk requested=1000 deleted=500 minId=1 maxId=999");
+    }
+
+    @Test
+    @DisplayName("insert-first 模式 - 不预先查询邮箱，唯一约束冲突时返回邮箱已存在")
+    public void shouldInsertFirstAndMapUniqueViolation() {
+        // 1.开启 insert-first（@InjectMocks 不处理 @Value，默认是 false）
+        ReflectionTestUtils.setField(userService, "insertFirst", true);
+        when(passwordEncoder.encode("rawPassword")).thenReturn("encodedPassword");
+        when(userRepository.save(any(User.class))).thenThrow(new DataIntegrityViolationException(
+                "Unique index or primary key violation: \"PUBLIC.UK_USERS_EMAIL_INDEX_4 ON PUBLIC.USERS(EMAIL)\""));
+
+        // 2.执行测试并验证异常
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> userService.createUser(testUser));
+
+        // 3.验证结果：没有查询邮箱，也没有加入过滤器
+        assertEquals("邮箱已经存在，请勿重复创建！", exception.getMessage());
+        verify(userRepository, never()).findByEmail(anyString());
+        verify(userAvailabilityService, never()).record(any());
+    }
+
+    @Test
+    @DisplayName("创建用户 - 邮箱以外的约束冲突不应该报告为邮箱已存在")
+    public void shouldNotReportOtherViolationsAsDuplicateEmail() {
+        ReflectionTestUtils.setField(userService, "insertFirst", true);
+        when(passwordEncoder.encode("rawPassword")).thenReturn("encodedPassword");
+        when(userRepository.save(any(User.class))).thenThrow(new DataIntegrityViolationException(
+                "Value too long for column \"USERNAME CHARACTER VARYING(50)\""));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> userService.createUser(testUser));
+
+        assertNotEquals("邮箱已经存在，请勿重复创建！", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("创建用户 - 升级前的数据库中自动命名的邮箱唯一键冲突也报告为邮箱已存在")
+    public void shouldReportLegacyEmailKeyAsDuplicateEmail() {
+        ReflectionTestUtils.setField(userService, "insertFirst", true);
+        when(passwordEncoder.encode("rawPassword")).thenReturn("encodedPassword");
+        // MySQL 报错时给出的是旧的键名
+        when(userRepository.save(any(User.class))).thenThrow(new DataIntegrityViolationException("could not execute statement",
+                new SQLException("Duplicate entry 'test@example.com' for key 'users.UK6dotkott2kjsp8vw4d0m25fb7'", "23000", 1062)));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> userService.createUser(testUser));
+
+        assertEquals("邮箱已经存在，请勿重复创建！", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("创建用户 - 忽略请求中的角色，总是创建普通用户")
+    public void shouldIgnoreRequestedRoleOnCreate() {
+        // 1.准备模拟行为
+        testUser.setRole("ADMIN");
+        when(passwordEncoder.encode("rawPassword")).thenReturn("encodedPassword");
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // 2.执行和验证
+        assertEquals("USER", userService.createUser(testUser).getRole());
+    }
+
+    @Test
+    @DisplayName("非管理员不能修改角色和启用状态")
+    public void shouldRejectRoleChangeByNonAdmin() {
+        loginAs("USER");
+        User existing = new User("bob", "bob@example.com", "encoded", "USER", true, LocalDateTime.now());
+        ReflectionTestUtils.setField(existing, "id", 1L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(existing));
+
+        User promote = new User("bob", "bob@example.com", "encoded", "ADMIN", true, null);
+        assertThrows(AdminRequiredException.class, () -> userService.updateUser(1L, promote));
+        assertThrows(AdminRequiredException.class,
+                () -> userService.patchUser(1L, new UserPatch(null, null, null, "ADMIN", null, 0L)));
+        assertThrows(AdminRequiredException.class,
+                () -> userService.patchUser(1L, new UserPatch(null, null, null, null, false, 0L)));
+        verify(userRepository, never()).save(any());
+        verify(userRepository, never()).patch(any(), anyLong(), anyMap(), anyBoolean());
+    }
+
+    @Test
+    @DisplayName("更新用户 - 只修改用户名时不修改密码，已签发的 Token 仍然有效")
+    public void shouldKeepTokensWhenOnlyUsernameChanges() {
+        // 1.准备模拟行为
+        User existing = new User("bob", "bob@example.com", "encoded", "USER", true, LocalDateTime.now());
+        ReflectionTestUtils.setField(existing, "id", 1L);
+        existing.setTokenVersion(2);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(existing));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // 2.执行测试操作：请求中没有密码，角色和启用状态不变
+        User result = userService.updateUser(1L, new User("bobby", null, null, "USER", true, null));
+
+        // 3.验证结果
+        assertEquals("bobby", result.getUsername());
+        assertEquals("encoded", result.getPassword());
+        assertEquals(2, result.getTokenVersion());
+        verify(passwordEncoder, never()).encode(anyString());
+        verify(tokenVersionRegistry).advance(1L, 2);
+    }
+
+    @Test
+    @DisplayName("更新用户 - 带新密码时加密保存，并让已签发的 Token 失效")
+    public void shouldEncodePasswordAndRevokeTokensOnPasswordChange() {
+        User existing = new User("bob", "bob@example.com", "encoded", "USER", true, LocalDateTime.now());
+        ReflectionTestUtils.setField(existing, "id", 1L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(existing));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(passwordEncoder.encode("newPassword")).thenReturn("encoded-new");
+
+        User result = userService.updateUser(1L, new User(null, null, "newPassword", "USER", true, null));
+
+        assertEquals("encoded-new", result.getPassword());
+        assertEquals(1, result.getTokenVersion());
+    }
+
+    @Test
+    @DisplayName("更新用户 - 邮箱被其他用户占用时拒绝，保留自己的邮箱时通过")
+    public void shouldRejectEmailUsedByOtherUserOnUpdate() {
+        User existing = new User("bob", "bob@example.com", "encoded", "USER", true, LocalDateTime.now());
+        ReflectionTestUtils.setField(existing, "id", 1L);
+        User other = new User("alice", "alice@example.com", "encoded", "USER", true, LocalDateTime.now());
+        ReflectionTestUtils.setField(other, "id", 2L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(existing));
+        when(userRepository.findByEmail("alice@example.com")).thenReturn(Optional.of(other));
+        when(userRepository.findByEmail("bob@example.com")).thenReturn(Optional.of(existing));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> userService.updateUser(1L, new User(null, "alice@example.com", null, "USER", true, null)));
+        assertEquals("该邮箱已被其他用户使用！", exception.getMessage());
+        verify(userRepository, never()).save(any());
+
+        User result = userService.updateUser(1L, new User("bobby", "bob@example.com", null, "USER", true, null));
+        assertEquals("bob@example.com", result.getEmail());
+    }
+
+    private static void loginAs(String role) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "caller", null, List.of(new SimpleGrantedAuthority("ROLE_" + role))));
+    }
+}
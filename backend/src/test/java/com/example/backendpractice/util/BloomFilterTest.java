@@ -0,0 +1,41 @@
+package com.example.backendpractice.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("布隆过滤器测试")
+public class BloomFilterTest {
+
+    @Test
+    @DisplayName("加入过的元素一定判断为可能存在，误判率接近设定值")
+    public void shouldHaveNoFalseNegativesAndBoundedFalsePositives() {
+        // 1.准备测试数据
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("user" + i + "@example.com");
+        }
+
+        // 2.验证没有漏判
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("user" + i + "@example.com"));
+        }
+
+        // 3.验证误判率（设定 1%，留出余量）
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain("other" + i + "@example.com")) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "误判次数过多: " + falsePositives);
+    }
+
+    @Test
+    @DisplayName("误判率不在 0 和 1 之间时应该抛出异常")
+    public void shouldRejectInvalidFpp() {
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(100, 0));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(100, 1));
+    }
+}
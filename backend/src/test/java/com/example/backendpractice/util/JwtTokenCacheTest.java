@@ -0,0 +1,44 @@
+package com.example.backendpractice.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("已验证Token缓存测试")
+public class JwtTokenCacheTest {
+
+    private JwtTokenCache jwtTokenCache;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenCache = new JwtTokenCache(new SimpleMeterRegistry(), 100);
+    }
+
+    @Test
+    @DisplayName("缓存过的 Token 应该能直接命中")
+    public void shouldHitAfterPut() {
+        VerifiedToken verified = new VerifiedToken("alice", Instant.now(), Instant.now().plusSeconds(60));
+
+        assertNull(jwtTokenCache.get("token-a"));                           // 第一次未命中
+        jwtTokenCache.put("token-a", verified);
+
+        assertEquals("alice", jwtTokenCache.get("token-a").getSubject());   // 第二次命中
+        assertNull(jwtTokenCache.get("token-b"));                           // 其他 Token 不受影响
+        assertEquals(1, jwtTokenCache.stats().hitCount());
+        assertEquals(2, jwtTokenCache.stats().missCount());
+    }
+
+    @Test
+    @DisplayName("已经过期的 Token 不应该被缓存")
+    public void shouldNotCacheExpiredToken() {
+        Instant past = Instant.now().minusSeconds(1);
+        jwtTokenCache.put("expired", new VerifiedToken("bob", past.minusSeconds(60), past));
+
+        assertNull(jwtTokenCache.get("expired"));
+    }
+}
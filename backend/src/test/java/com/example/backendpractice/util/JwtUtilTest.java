@@ -0,0 +1,95 @@
+package com.example.backendpractice.util;
+
+import com.example.backendpractice.entity.User;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("JwtUtil测试")
+public class JwtUtilTest {
+
+    private final JwtUtil jwtUtil = new JwtUtil();
+
+    @Test
+    @DisplayName("生成的 Token 应该能被验证并取出用户名和时间")
+    public void shouldVerifyGeneratedToken() {
+        String token = jwtUtil.generateToken("alice");
+
+        VerifiedToken verified = jwtUtil.verify(token);
+
+        assertEquals("alice", verified.getSubject());
+        assertNotNull(verified.getIssuedAt());
+        assertTrue(verified.getExpiresAt().isAfter(verified.getIssuedAt()));
+        assertFalse(verified.isExpired());
+        assertTrue(jwtUtil.validateToken(token, "alice"));
+        assertFalse(jwtUtil.validateToken(token, "bob"));
+    }
+
+    @Test
+    @DisplayName("用户名中的特殊字符应该被正确转义")
+    public void shouldEscapeSpecialCharactersInSubject() {
+        String username = "we\"ird\\name\n用户";
+
+        String token = jwtUtil.generateToken(username);
+
+        assertEquals(username, jwtUtil.extractUsername(token));
+    }
+
+    @Test
+    @DisplayName("篡改过的 Token 应该验证失败")
+    public void shouldRejectTamperedToken() {
+        String token = jwtUtil.generateToken("alice");
+        String otherPayload = jwtUtil.generateToken("mallory").split("\\.")[1];
+        String[] parts = token.split("\\.");
+        String tampered = parts[0] + "." + otherPayload + "." + parts[2];
+
+        assertThrows(JwtException.class, () -> jwtUtil.verify(tampered));
+        assertFalse(jwtUtil.validateToken(tampered, "mallory"));
+    }
+
+    @Test
+    @DisplayName("过期的 Token 应该验证失败")
+    public void shouldRejectExpiredToken() {
+        // 使用 Jwts.builder() 生成一个已经过期的 Token，同时验证两种签发方式兼容
+        String expired = Jwts.builder()
+                .setSubject("alice")
+                .setIssuedAt(new Date(System.currentTimeMillis() - 120_000))
+                .setExpiration(new Date(System.currentTimeMillis() - 60_000))
+                .signWith(Keys.hmacShaKeyFor("mySecretKeyForJWTTokenGenerationThatIsLongEnough".getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.verify(expired));
+        assertFalse(jwtUtil.validateToken(expired, "alice"));
+    }
+
+    @Test
+    @DisplayName("带用户声明的 Token 应该能取出用户 ID、角色、启用状态和版本号")
+    public void shouldVerifyUserClaims() {
+        User user = mock(User.class);
+        when(user.getId()).thenReturn(42L);
+        when(user.getUsername()).thenReturn("alice");
+        when(user.getEmail()).thenReturn("alice@example.com");
+        when(user.getRole()).thenReturn("ADMIN");
+        when(user.isEnabled()).thenReturn(true);
+
+        VerifiedToken verified = jwtUtil.verify(jwtUtil.generateToken(user, 3));
+
+        assertTrue(verified.hasUserClaims());
+        assertEquals("alice", verified.getSubject());
+        assertEquals(42L, verified.getUserId());
+        assertEquals("alice@example.com", verified.getEmail());
+        assertEquals("ADMIN", verified.getRole());
+        assertTrue(verified.getEnabled());
+        assertEquals(3, verified.getTokenVersion());
+        assertFalse(jwtUtil.verify(jwtUtil.generateToken("alice")).hasUserClaims());
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.backendpractice.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("按键限流测试")
+public class KeyedRateLimiterTest {
+
+    private final AtomicLong nanos = new AtomicLong(1_000_000_000L);
+    private final KeyedRateLimiter limiter = new KeyedRateLimiter(3, Duration.ofSeconds(1), 100, nanos::get);
+
+    @Test
+    @DisplayName("桶内令牌用完后拒绝，并返回需要等待的时间；时间过去后恢复")
+    public void shouldAllowBurstThenRefill() {
+        assertEquals(0, limiter.tryAcquire("alice"));
+        assertEquals(0, limiter.tryAcquire("alice"));
+        assertEquals(0, limiter.tryAcquire("alice"));
+
+        long wait = limiter.tryAcquire("alice");
+        assertEquals(Duration.ofSeconds(1).toNanos(), wait);
+
+        nanos.addAndGet(wait);
+        assertEquals(0, limiter.tryAcquire("alice"));
+        assertTrue(limiter.tryAcquire("alice") > 0);
+    }
+
+    @Test
+    @DisplayName("不同的键使用各自的桶")
+    public void shouldKeepSeparateBucketsPerKey() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("alice");
+        }
+
+        assertTrue(limiter.tryAcquire("alice") > 0);
+        assertEquals(0, limiter.tryAcquire("bob"));
+    }
+
+    @Test
+    @DisplayName("空闲到桶恢复满之后桶被淘汰，重新开始时仍是满桶")
+    public void shouldExpireIdleBuckets() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("alice");
+        }
+
+        nanos.addAndGet(Duration.ofSeconds(4).toNanos());
+
+        assertEquals(0, limiter.tryAcquire("alice"));
+        assertEquals(0, limiter.tryAcquire("alice"));
+        assertEquals(0, limiter.tryAcquire("alice"));
+        assertTrue(limiter.tryAcquire("alice") > 0);
+    }
+}